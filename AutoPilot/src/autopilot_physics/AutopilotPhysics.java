@@ -26,6 +26,50 @@ public class AutopilotPhysics {
 
 	float precision = 0.000001f;
 	
+	/**
+	 * The solver mode of new physics engines.
+	 */
+	public static SolverMode DEFAULT_SOLVER_MODE = SolverMode.BISECTION;
+	
+	/**
+	 * Set the way in which this physics engine finds the wing inclinations.
+	 * 	All modes give the same inclinations within the precision.
+	 */
+	public void setSolverMode(SolverMode solverMode) {
+		if (solverMode == null)
+			throw new IllegalArgumentException("The solver mode can't be null");
+		this.solverMode = solverMode;
+		updateTrimTable();
+	}
+	
+	public SolverMode getSolverMode() {
+		return solverMode;
+	}
+	
+	private SolverMode solverMode = DEFAULT_SOLVER_MODE;
+	
+	/**
+	 * Use the trim table for the maximum angle of attack if the solver mode asks for it. The trim table only
+	 * 	covers angles of attack for which the lift still increases, beyond those Newton iteration is used.
+	 */
+	private void updateTrimTable() {
+		if (solverMode == SolverMode.TRIM_TABLE && maxAOA > 0 && maxAOA <= TrimTable.MAX_INCLINATION)
+			trimTable = TrimTable.getTable(maxAOA);
+		else
+			trimTable = null;
+	}
+	
+	private TrimTable trimTable;
+	
+	/**
+	 * Returns the amount of iterations the solvers of this physics engine did so far.
+	 */
+	public long getSolverIterations() {
+		return solverIterations;
+	}
+	
+	private long solverIterations = 0;
+	
 	/**
 	 * Variable denoting whether or not this class logs information.
 	 */
@@ -49,10 +93,21 @@ public class AutopilotPhysics {
 	private float verStabSlope;
 	private float engineZ;
 
-	private Matrix4f toDrone;
-	private Matrix4f toWorld;
-	private Vector3f projAirSpeed;
-	private Vector3f projGravity;
+	// The attitude of the drone, computed once per input and only read by the force equations
+	private final Matrix4f toDrone = new Matrix4f();
+	private final Matrix4f toWorld = new Matrix4f();
+	private final Vector3f projAirSpeed = new Vector3f();
+	private final Vector3f projGravity = new Vector3f();
+	
+	// Reused vectors, so computing the outputs doesn't allocate
+	private static final Vector3f X_AXIS = new Vector3f(1, 0, 0);
+	private static final Vector3f Y_AXIS = new Vector3f(0, 1, 0);
+	private static final Vector3f Z_AXIS = new Vector3f(0, 0, 1);
+	private final Vector4f transformedVector = new Vector4f();
+	private final Vector3f attackVector = new Vector3f();
+	private final Vector3f wingNormal = new Vector3f();
+	private final Vector3f thrustUnitVector = new Vector3f();
+	private final Vector3f wingNormalUnitVector = new Vector3f();
 
 	private float sSquared;
 	private float requestedSSquared;
@@ -71,6 +126,8 @@ public class AutopilotPhysics {
 	private float frontBrake;
 	private float rightBrake;
 	private float leftBrake;
+	private float leftWingInclination;
+	private float rightWingInclination;
 	private boolean isMaxRoll;
 
 	private float x = 0;
@@ -82,7 +139,7 @@ public class AutopilotPhysics {
 	private float previousRoll = 0;
 	private float deltaTimeElapsed = 0.012f;
 	private String stage = "O";
-	private Vector3f airSpeed = new Vector3f(0, 0, (float) -Math.sqrt(requestedSSquared));
+	private final Vector3f airSpeed = new Vector3f(0, 0, (float) -Math.sqrt(requestedSSquared));
 
 	DatagramSocket serverSocket;
 	byte[] receiveData;
@@ -129,6 +186,8 @@ public class AutopilotPhysics {
 			maxBackBrake = (int)configuration.getRMax();
 		}
 		
+		updateAttitude();
+		updateTrimTable();
 	}
 	
 	public void getInputsStart(AutopilotInputs inputs) {
@@ -153,9 +212,8 @@ public class AutopilotPhysics {
 		if (deltaTimeElapsed == 0.0) {
 			deltaTimeElapsed = 0.02f;
 		}
-		airSpeed = autopilot_utilities.Utilities.scaleVector(
-				Vector3f.sub(new Vector3f(currentX, currentY, currentZ), new Vector3f(x, y, z), null),
-				(float) (1.0 / deltaTimeElapsed));
+		float scale = (float) (1.0 / deltaTimeElapsed);
+		airSpeed.set(scale * ((double) currentX - x), scale * ((double) currentY - y), scale * ((double) currentZ - z));
 
 		x = currentX;
 		y = currentY;
@@ -204,6 +262,21 @@ public class AutopilotPhysics {
 			System.out.println("---Z: " + z);
 			System.out.println("---Time elapsed: " + deltaTimeElapsed);
 		}
+		
+		updateAttitude();
+	}
+	
+	/**
+	 * Compute the transformation matrices and the projected gravity and air speed for the current attitude
+	 * 	and air speed of the drone.
+	 */
+	private void updateAttitude() {
+		getDroneToWorldTransformationMatrix(heading, pitch, roll, toWorld);
+		Matrix4f.invert(toWorld, toDrone);
+		
+		float gY = getTotalMass() * gravity;
+		transformVector(toDrone, 0, -gY, 0, projGravity);
+		transformVector(toDrone, airSpeed.x, airSpeed.y, airSpeed.z, projAirSpeed);
 	}
 
 	/**
@@ -215,7 +288,8 @@ public class AutopilotPhysics {
 	 * @param stage
 	 * @param deltaTimeElapsedGiven
 	 * 
-	 * @return   The parameters that define the drone's movement in the next frame
+	 * @return   The parameters that define the drone's movement in the next frame,
+	 * 			 the same outputs are returned by every call and change with the next call
 	 */
 	public AutopilotOutputs output(float reqPitch, float reqHeading, float speedFactor, DroneStage stage, float deltaTimeElapsedGiven) {
 		if (ENABLE_LOGGING && DRONE_STAT_LOGGING) {
@@ -223,13 +297,6 @@ public class AutopilotPhysics {
 			System.out.println("---deltaElapsedTime: "+deltaTimeElapsedGiven);
 		}
 		
-		toDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
-		toWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-
-		float gY = getTotalMass() * gravity;
-		projGravity = transformVector(toDrone, new Vector3f(0, -gY, 0));
-		
-		projAirSpeed = transformVector(toDrone, airSpeed);
 		sSquared = (float) projAirSpeed.lengthSquared();
 
 		if (Math.abs(reqHeading) < 10 && Math.abs(reqPitch) < 10) {
@@ -260,53 +327,57 @@ public class AutopilotPhysics {
 			configFly(speedFactor);
 		}
 
-		float[] leftAndRightInclination;
-		leftAndRightInclination = getLeftAndRightAdjIncl(averageWingInclination, adjustInclination, wingLiftSlope, sSquared);
+		setLeftAndRightAdjIncl(averageWingInclination, adjustInclination, wingLiftSlope, sSquared);
 
-		if (ENABLE_LOGGING) print(leftAndRightInclination);
+		if (ENABLE_LOGGING) print();
 
-		return new AutopilotOutputs() {
-			@Override
-			public float getRightWingInclination() {
-				return leftAndRightInclination[1];
-			}
+		return outputs;
+	}
+	
+	/**
+	 * The outputs of this physics engine, they read the latest inclinations, thrust and brake forces.
+	 */
+	private final AutopilotOutputs outputs = new AutopilotOutputs() {
+		@Override
+		public float getRightWingInclination() {
+			return rightWingInclination;
+		}
 
-			@Override
-			public float getLeftWingInclination() {
-				return leftAndRightInclination[0];
-			}
+		@Override
+		public float getLeftWingInclination() {
+			return leftWingInclination;
+		}
 
-			@Override
-			public float getHorStabInclination() {
-				return 0;
-			}
+		@Override
+		public float getHorStabInclination() {
+			return 0;
+		}
 
-			@Override
-			public float getVerStabInclination() {
-				return 0;
-			}
+		@Override
+		public float getVerStabInclination() {
+			return 0;
+		}
 
-			@Override
-			public float getThrust() {
-				return thrust;
-			}
+		@Override
+		public float getThrust() {
+			return thrust;
+		}
 
-			@Override
-			public float getFrontBrakeForce() {
-				return frontBrake;
-			}
+		@Override
+		public float getFrontBrakeForce() {
+			return frontBrake;
+		}
 
-			@Override
-			public float getLeftBrakeForce() {
-				return leftBrake;
-			}
+		@Override
+		public float getLeftBrakeForce() {
+			return leftBrake;
+		}
 
-			@Override
-			public float getRightBrakeForce() {
-				return rightBrake;
-			}
-		};
-	}
+		@Override
+		public float getRightBrakeForce() {
+			return rightBrake;
+		}
+	};
 
 	// Stage methods
 	/**
@@ -589,10 +660,9 @@ public class AutopilotPhysics {
 	 * Check if the temporally 'averageWingInclination' exceeds the maximum angle of attack
 	 */
 	public void checkAverageWingInclinationMaxAOA() {
-		Vector3f axis = new Vector3f(1, 0, 0);
-		Vector3f attackVector = new Vector3f(0, (float) sin(averageWingInclination + maxAdjustInclination),
+		attackVector.set(0, (float) sin(averageWingInclination + maxAdjustInclination),
 				-(float) cos(averageWingInclination + maxAdjustInclination));
-		Vector3f normal = Vector3f.cross(axis, attackVector, null);
+		Vector3f normal = Vector3f.cross(X_AXIS, attackVector, wingNormal);
 		AOA = (float) -Math.atan2(Vector3f.dot(projAirSpeed, normal), Vector3f.dot(projAirSpeed, attackVector));
 		while (Math.abs(AOA) >= Math.abs(maxAOA) * 0.99f && Math.abs(averageWingInclination) > 0.01) {
 			if (AOA > 0)
@@ -605,23 +675,21 @@ public class AutopilotPhysics {
 			else if (averageWingInclination < -maxAOA)
 				averageWingInclination = maxAOA;
 
-			attackVector = new Vector3f(0, (float) sin(averageWingInclination + maxAdjustInclination),
+			attackVector.set(0, (float) sin(averageWingInclination + maxAdjustInclination),
 					-(float) cos(averageWingInclination + maxAdjustInclination));
 			AOA = (float) -Math.atan2(Vector3f.dot(projAirSpeed, normal), Vector3f.dot(projAirSpeed, attackVector));
 		}
 	}
 
 	/**
-	 * Get the inclination of the left and the right front wing of the drone to introduce the requested roll
+	 * Set the inclination of the left and the right front wing of the drone to introduce the requested roll
 	 * 
 	 * @param averageInclination
 	 * @param adjustInclination
 	 * @param liftSlopeConstant
 	 * @param sSquared
-	 * 
-	 * @return   The inclination of the left and right front wings of the drone
 	 */
-	float[] getLeftAndRightAdjIncl(float averageInclination, float adjustInclination, float liftSlopeConstant,
+	void setLeftAndRightAdjIncl(float averageInclination, float adjustInclination, float liftSlopeConstant,
 			float sSquared) {
 		float EPSILON = precision;
 		float leftIncl = (averageInclination - adjustInclination);
@@ -640,10 +708,22 @@ public class AutopilotPhysics {
 				+ wingLift(rightIncl + b, liftSlopeConstant, sSquared) - initForceWings;
 
 		if (fa * fb > 0) {
-			return new float[] { leftIncl, rightIncl };
+			leftWingInclination = leftIncl;
+			rightWingInclination = rightIncl;
+			return;
+		}
+		
+		if (solverMode != SolverMode.BISECTION) {
+			float adjust = findZeroNewton(a, b, leftIncl, 1, 1, rightIncl, 1, initForceWings, liftSlopeConstant, sSquared);
+			if (!Float.isNaN(adjust)) {
+				leftWingInclination = leftIncl + adjust;
+				rightWingInclination = rightIncl + adjust;
+				return;
+			}
 		}
 
 		while ((b - a) > EPSILON) {
+			solverIterations++;
 			if ((wingLift(leftIncl + (b + a) / 2, liftSlopeConstant, sSquared)
 					+ wingLift(rightIncl + (b + a) / 2, liftSlopeConstant, sSquared) - initForceWings) > 0)
 				b = (b + a) / 2;
@@ -651,7 +731,8 @@ public class AutopilotPhysics {
 				a = (b + a) / 2;
 		}
 
-		return new float[] { leftIncl + (b + a) / 2, rightIncl + (b + a) / 2 };
+		leftWingInclination = leftIncl + (b + a) / 2;
+		rightWingInclination = rightIncl + (b + a) / 2;
 	}
 
 	/**
@@ -726,15 +807,23 @@ public class AutopilotPhysics {
 				return -maxAdjustInclination;
 		}
 
-		while ((b - a) > EPSILON) {
-			if (forceEquationAdjustInclination(averageInclination, (b + a) / 2, sSquared, angularVelocity,
-					requestedAngularVelocity) > 0)
-				b = (b + a) / 2;
-			else
-				a = (b + a) / 2;
+		float result = Float.NaN;
+		if (solverMode != SolverMode.BISECTION) {
+			float requestedForce = (requestedAngularVelocity - angularVelocity) * getWingMass() * getWingX() / deltaTimeElapsed;
+			result = findZeroNewton(a, b, averageInclination, 1, -1, averageInclination, -1, requestedForce, wingLiftSlope, sSquared);
+		}
+		
+		if (Float.isNaN(result)) {
+			while ((b - a) > EPSILON) {
+				solverIterations++;
+				if (forceEquationAdjustInclination(averageInclination, (b + a) / 2, sSquared, angularVelocity,
+						requestedAngularVelocity) > 0)
+					b = (b + a) / 2;
+				else
+					a = (b + a) / 2;
+			}
+			result = (b + a) / 2;
 		}
-
-		float result = (b + a) / 2;
 
 		if (result > maxAdjustInclination) return maxAdjustInclination;
 		else if (result < -maxAdjustInclination) return -maxAdjustInclination;
@@ -808,7 +897,19 @@ public class AutopilotPhysics {
 			}
 		}
 
+		if (trimTable != null) {
+			float inclination = lookUpTrim(a, b, (float) -projGravity.y / 2, liftSlopeConstant, sSquared);
+			if (!Float.isNaN(inclination))
+				return adjustInclinationPitch(inclination, elevationFactor, liftSlopeConstant, sSquared);
+		}
+		if (solverMode != SolverMode.BISECTION) {
+			float inclination = findZeroNewton(a, b, 0, 1, 1, 0, 1, (float) -projGravity.y, liftSlopeConstant, sSquared);
+			if (!Float.isNaN(inclination))
+				return adjustInclinationPitch(inclination, elevationFactor, liftSlopeConstant, sSquared);
+		}
+
 		while ((b - a) > EPSILON) {
+			solverIterations++;
 			if (totalForceDroneY((b + a) / 2, liftSlopeConstant, sSquared) > 0)
 				b = (b + a) / 2;
 			else a = (b + a) / 2;
@@ -854,8 +955,20 @@ public class AutopilotPhysics {
 		if (Fa * Fb > 0) { // The target can't be reached
 			return 0;
 		}
+		
+		if (trimTable != null) {
+			float inclination = lookUpTrim(a, b, requestedLift, liftSlopeConstant, sSquared);
+			if (!Float.isNaN(inclination))
+				return inclination;
+		}
+		if (solverMode != SolverMode.BISECTION) {
+			float inclination = findZeroNewton(a, b, 0, 1, 0, 0, 0, requestedLift, liftSlopeConstant, sSquared);
+			if (!Float.isNaN(inclination))
+				return inclination;
+		}
 
 		while ((b - a) > EPSILON) {
+			solverIterations++;
 			if (wingLift((b + a) / 2, liftSlopeConstant, sSquared) - requestedLift > 0)
 				b = (b + a) / 2;
 			else
@@ -910,6 +1023,61 @@ public class AutopilotPhysics {
 		return (float) (inclination * Math.cos(inclination) * liftSlopeConstant * sSquared);
 	}
 
+	/**
+	 * Look up the inclination between a and b for which one wing generates the given lift in the trim table.
+	 * 
+	 * @return   The inclination, or NaN if the lift can't be generated within the trim table
+	 */
+	private float lookUpTrim(float a, float b, float lift, float liftSlopeConstant, float sSquared) {
+		solverIterations++;
+		float inclination = trimTable.getInclination((double) lift / (liftSlopeConstant * sSquared));
+		if (Float.isNaN(inclination))
+			return Float.NaN;
+		return Math.max(a, Math.min(b, inclination));
+	}
+	
+	/**
+	 * Find the zero of wingLift(offset1 + sign1*x) + factor2*wingLift(offset2 + sign2*x) - target between a and b.
+	 * 	Every Newton step narrows the interval around the zero, a step that would leave the interval is replaced by
+	 * 	a bisection step. Like the bisection, this expects the function to be at most zero in a and positive in b.
+	 * 
+	 * @return   The zero within the precision, or NaN if the function doesn't change sign like expected
+	 */
+	private float findZeroNewton(float a, float b, float offset1, float sign1, float factor2, float offset2, float sign2,
+			float target, float liftSlopeConstant, float sSquared) {
+		double slope = liftSlopeConstant * sSquared;
+		double low = a, high = b;
+		double lowU1 = offset1 + sign1 * low, lowU2 = offset2 + sign2 * low;
+		double highU1 = offset1 + sign1 * high, highU2 = offset2 + sign2 * high;
+		if (slope * (lowU1 * cos(lowU1) + factor2 * lowU2 * cos(lowU2)) - target > 0
+				|| slope * (highU1 * cos(highU1) + factor2 * highU2 * cos(highU2)) - target <= 0)
+			return Float.NaN;
+		
+		double x = (low + high) / 2;
+		for (int i = 0; i < 64; i++) {
+			solverIterations++;
+			double u1 = offset1 + sign1 * x, u2 = offset2 + sign2 * x;
+			double cos1 = cos(u1), cos2 = cos(u2);
+			double value = slope * (u1 * cos1 + factor2 * u2 * cos2) - target;
+			if (value == 0)
+				return (float) x;
+			else if (value > 0)
+				high = x;
+			else
+				low = x;
+			
+			// d/du (u cos u) = cos u - u sin u
+			double derivative = slope * (sign1 * (cos1 - u1 * sin(u1)) + factor2 * sign2 * (cos2 - u2 * sin(u2)));
+			double next = x - value / derivative;
+			if (!(next > low && next < high))	// Also when the derivative is zero
+				next = (low + high) / 2;
+			if (Math.abs(next - x) < precision / 4 || high - low < precision)
+				return (float) next;
+			x = next;
+		}
+		return (float) x;
+	}
+	
 	/**
 	 * Calculate the total force that works on the drone in the y-direction
 	 * 
@@ -920,12 +1088,9 @@ public class AutopilotPhysics {
 	 * @return   The total force in the y-direction
 	 */
 	private float totalForceDroneY(float inclination, float liftSlopeConstant, float sSquared) {
-		Matrix4f toDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
-
 		float wingLiftY = (float) 2 * wingLift(inclination, liftSlopeConstant, sSquared);
 
-		Vector3f gravityVector = transformVector(toDrone, new Vector3f(0, -getTotalMass() * gravity, 0));
-		float gravityY = (float) (gravityVector.y);
+		float gravityY = (float) (projGravity.y);
 
 		return (wingLiftY + gravityY);
 	}
@@ -964,35 +1129,22 @@ public class AutopilotPhysics {
 		return -(tailMass * tailSize) / engineMass;
 	}
 
-	/**
-	 * Transform the world coordinates to the drone's view
-	 * 
-	 * @param heading
-	 * @param pitch
-	 * @param roll
-	 * 
-	 * @return   The transformed matrix
-	 */
-	private Matrix4f getWorldToDroneTransformationMatrix(float heading, float pitch, float roll) {
-		return Matrix4f.invert(getDroneToWorldTransformationMatrix(heading, pitch, roll), null);
-	}
-
 	/**
 	 * Transform the drone's coordinates to the world's view
 	 * 
 	 * @param heading
 	 * @param pitch
 	 * @param roll
+	 * @param matrix
 	 * 
-	 * @return   The transformed matrix
+	 * @return   The given matrix, set to the transformation
 	 */
-	private Matrix4f getDroneToWorldTransformationMatrix(float heading, float pitch, float roll) {
-		Matrix4f matrix = new Matrix4f();
+	private Matrix4f getDroneToWorldTransformationMatrix(float heading, float pitch, float roll, Matrix4f matrix) {
 		matrix.setIdentity();
 
-		Matrix4f.rotate((float) heading, new Vector3f(0, 1, 0), matrix, matrix);
-		Matrix4f.rotate((float) pitch, new Vector3f(1, 0, 0), matrix, matrix);
-		Matrix4f.rotate((float) roll, new Vector3f(0, 0, 1), matrix, matrix);
+		Matrix4f.rotate((float) heading, Y_AXIS, matrix, matrix);
+		Matrix4f.rotate((float) pitch, X_AXIS, matrix, matrix);
+		Matrix4f.rotate((float) roll, Z_AXIS, matrix, matrix);
 
 		return matrix;
 	}
@@ -1001,15 +1153,19 @@ public class AutopilotPhysics {
 	 * Get the vector from the transform-matrix
 	 * 
 	 * @param matrix
-	 * @param vector
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param dest
 	 * 
-	 * @return   The transformed vector
+	 * @return   The given destination, set to the transformed vector
 	 */
-	private Vector3f transformVector(Matrix4f matrix, Vector3f vector) {
-		Vector4f vector4 = new Vector4f(vector.x, vector.y, vector.z, 1);
-		Matrix4f.transform(matrix, vector4, vector4);
+	private Vector3f transformVector(Matrix4f matrix, double x, double y, double z, Vector3f dest) {
+		transformedVector.set(x, y, z, 1);
+		Matrix4f.transform(matrix, transformedVector, transformedVector);
 
-		return new Vector3f(vector4.x, vector4.y, vector4.z);
+		dest.set(transformedVector.x, transformedVector.y, transformedVector.z);
+		return dest;
 	}
 
 	/**
@@ -1031,10 +1187,8 @@ public class AutopilotPhysics {
 	
 	/**
 	 * Print the used parameters and variables
-	 * 
-	 * @param leftAndRightInclination
 	 */
-	private void print(float[] leftAndRightInclination) {
+	private void print() {
 		if (DRONE_STAT_LOGGING) {
 			System.out.println("---pitch: " + Math.toDegrees(pitch));
 			System.out.println("---requestedPitch: " + Math.toDegrees(requestedPitch));
@@ -1043,8 +1197,8 @@ public class AutopilotPhysics {
 			System.out.println("---roll: " + Math.toDegrees(roll));
 			System.out.println("---inclination: " + Math.toDegrees(averageWingInclination));
 			System.out.println("---adjustInclination: " + Math.toDegrees(adjustInclination));
-			System.out.println("---leftIncl: " + Math.toDegrees(leftAndRightInclination[0]));
-			System.out.println("---rightIncl: " + Math.toDegrees(leftAndRightInclination[1]));
+			System.out.println("---leftIncl: " + Math.toDegrees(leftWingInclination));
+			System.out.println("---rightIncl: " + Math.toDegrees(rightWingInclination));
 			System.out.println("---sSquared: " + sSquared);
 			System.out.println("---requestedSSquared: " + requestedSSquared);
 			System.out.println("---thrust: " + thrust);
@@ -1072,26 +1226,20 @@ public class AutopilotPhysics {
 	}
 
 	private float totalForceX(float inclination, float thrust, float liftSlopeConstant, float sSquared) {
-		Matrix4f toWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-
-		Vector3f thrustUnitVector = transformVector(toWorld, new Vector3f(0, 0, -1));
+		transformVector(toWorld, 0, 0, -1, thrustUnitVector);
 		float thrustX = (float) (thrust * thrustUnitVector.x);
 
-		Vector3f wingNormalUnitVector = transformVector(toWorld,
-				new Vector3f(0, (float) Math.cos(inclination), (float) Math.sin(inclination)));
+		transformVector(toWorld, 0, (float) Math.cos(inclination), (float) Math.sin(inclination), wingNormalUnitVector);
 		float wingLiftX = (float) ((2 * inclination * liftSlopeConstant * sSquared) * wingNormalUnitVector.x);
 
 		return (thrustX + wingLiftX);
 	}
 
 	private float totalForceY(float inclination, float thrust, float liftSlopeConstant, float sSquared) {
-		Matrix4f toWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-
-		Vector3f thrustUnitVector = transformVector(toWorld, new Vector3f(0, 0, -1));
+		transformVector(toWorld, 0, 0, -1, thrustUnitVector);
 		float thrustY = (float) (thrust * thrustUnitVector.y);
 
-		Vector3f wingNormalUnitVector = transformVector(toWorld,
-				new Vector3f(0, (float) Math.cos(inclination), (float) Math.sin(inclination)));
+		transformVector(toWorld, 0, (float) Math.cos(inclination), (float) Math.sin(inclination), wingNormalUnitVector);
 		float wingLiftY = (float) ((2 * inclination * liftSlopeConstant * sSquared) * wingNormalUnitVector.y);
 
 		float gravityY = (-getTotalMass() * gravity);
@@ -1100,33 +1248,23 @@ public class AutopilotPhysics {
 	}
 
 	private float totalForceZ(float inclination, float thrust, float liftSlopeConstant, float sSquared) {
-		Matrix4f toWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-
-		Vector3f thrustUnitVector = transformVector(toWorld, new Vector3f(0, 0, -1));
+		transformVector(toWorld, 0, 0, -1, thrustUnitVector);
 		float thrustZ = (float) (thrust * thrustUnitVector.z);
 
-		Vector3f wingNormalUnitVector = transformVector(toWorld,
-				new Vector3f(0, (float) Math.cos(inclination), (float) Math.sin(inclination)));
+		transformVector(toWorld, 0, (float) Math.cos(inclination), (float) Math.sin(inclination), wingNormalUnitVector);
 		float wingLiftZ = (float) ((2 * inclination * liftSlopeConstant * sSquared) * wingNormalUnitVector.z);
 
 		return (thrustZ + wingLiftZ);
 	}
 
 	private float totalForceDroneX() {
-		Matrix4f toDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
-
-		Vector3f gravityVector = transformVector(toDrone, new Vector3f(0, -getTotalMass() * gravity, 0));
-
-		return (float) gravityVector.x;
+		return (float) projGravity.x;
 	}
 
 	private float totalForceDroneZ(float inclinationWings, float thrust, float liftSlopeConstant, float sSquared) {
-		Matrix4f toDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
-
 		float wingLiftZ = (float) (2 * inclinationWings * liftSlopeConstant * sSquared * Math.sin(inclinationWings));
 
-		Vector3f gravityVector = transformVector(toDrone, new Vector3f(0, -getTotalMass() * gravity, 0));
-		float gravityZ = (float) gravityVector.z;
+		float gravityZ = (float) projGravity.z;
 
 		return (-thrust + wingLiftZ + gravityZ);
 	}
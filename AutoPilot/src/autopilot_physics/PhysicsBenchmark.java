@@ -0,0 +1,140 @@
+package autopilot_physics;
+
+import java.util.Random;
+
+import autopilot_planning.DroneStage;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotOutputs;
+
+/**
+ * Compares the solver modes of the physics engine on the same random flight states.
+ * 	Every state is a drone flying forward with a random heading, pitch, roll and speed that requests a random
+ * 	pitch and heading. All modes get the same states, the largest difference between their outputs and
+ * 	those of the bisection is reported.
+ * Usage: PhysicsBenchmark [states] [rounds]
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class PhysicsBenchmark {
+	
+	private static final float TIME_STEP = 0.02f;
+	
+	public static void main(String[] args) {
+		int states = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		Random random = new Random(42);
+		float[][] samples = new float[states][];
+		for (int i=0 ; i<states ; i++) {
+			float heading = (float) ((random.nextDouble() - 0.5) * 2 * Math.PI);
+			float pitch = (float) ((random.nextDouble() - 0.5) * 0.4);
+			float roll = (float) ((random.nextDouble() - 0.5) * 0.6);
+			float speed = (float) (40 + 30 * random.nextDouble());
+			float requestedPitch = (float) ((random.nextDouble() - 0.5) * 0.4);
+			float requestedHeading = (float) (heading + (random.nextDouble() - 0.5));
+			samples[i] = new float[] { (float) (random.nextDouble() * 1000), (float) (50 + 150 * random.nextDouble()),
+					(float) (random.nextDouble() * 1000), heading, pitch, roll, speed, requestedPitch, requestedHeading };
+		}
+		
+		SolverMode[] modes = SolverMode.values();
+		AutopilotPhysics[] engines = new AutopilotPhysics[modes.length];
+		float[][][] outputs = new float[modes.length][states][];
+		long[] times = new long[modes.length];
+		for (int m=0 ; m<modes.length ; m++)
+			engines[m] = createPhysics(modes[m]);
+		for (int round=0 ; round<rounds ; round++) {	// The first round warms up
+			for (int m=0 ; m<modes.length ; m++) {
+				long time = run(engines[m], samples, outputs[m]);
+				if (round > 0)
+					times[m] += time;
+			}
+		}
+		
+		// The first mode, bisection, is the reference
+		long calls = (long) states * rounds, timedCalls = states * (long) Math.max(1, rounds - 1);
+		for (int m=0 ; m<modes.length ; m++) {
+			float maximumDifference = 0;
+			for (int i=0 ; i<states ; i++)
+				for (int j=0 ; j<outputs[m][i].length ; j++)
+					maximumDifference = Math.max(maximumDifference, Math.abs(outputs[m][i][j] - outputs[0][i][j]));
+			System.out.println(modes[m] + ": " + (double) engines[m].getSolverIterations() / calls + " iterations per call, "
+					+ times[m] / timedCalls + " ns per call, largest difference in the wing inclinations " + maximumDifference);
+		}
+	}
+	
+	/**
+	 * Let the given physics engine handle all the given states and store the wing inclinations it outputs.
+	 * 
+	 * @return	The time spent on the outputs, in nanoseconds.
+	 */
+	private static long run(AutopilotPhysics physics, float[][] samples, float[][] outputs) {
+		long time = 0;
+		for (int i=0 ; i<samples.length ; i++) {
+			float[] sample = samples[i];
+			float heading = sample[3], pitch = sample[4], speed = sample[6];
+			
+			// The drone flies along its forward vector, the previous location gives the physics engine its air speed
+			float dx = (float) (-Math.sin(heading) * Math.cos(pitch) * speed * TIME_STEP);
+			float dy = (float) (Math.sin(pitch) * speed * TIME_STEP);
+			float dz = (float) (-Math.cos(heading) * Math.cos(pitch) * speed * TIME_STEP);
+			physics.getInputs(inputs(sample[0] - dx, sample[1] - dy, sample[2] - dz, heading, pitch, sample[5]));
+			physics.getInputs(inputs(sample[0], sample[1], sample[2], heading, pitch, sample[5]));
+			
+			long start = System.nanoTime();
+			AutopilotOutputs output = physics.output(sample[7], sample[8], 1, DroneStage.FLY, TIME_STEP);
+			time += System.nanoTime() - start;
+			outputs[i] = new float[] { output.getLeftWingInclination(), output.getRightWingInclination(),
+					output.getHorStabInclination(), output.getVerStabInclination() };
+		}
+		return time;
+	}
+	
+	private static AutopilotPhysics createPhysics(SolverMode mode) {
+		AutopilotPhysics physics = new AutopilotPhysics();
+		physics.setSolverMode(mode);
+		physics.setConfiguration(new AutopilotConfig() {
+			public String getDroneID() { return "Benchmark"; }
+			public float getWheelY() { return -1.1f; }
+			public float getFrontWheelZ() { return -2f; }
+			public float getRearWheelZ() { return 1f; }
+			public float getRearWheelX() { return 1f; }
+			public float getTyreSlope() { return 50000f; }
+			public float getDampSlope() { return 5000f; }
+			public float getTyreRadius() { return 0.2f; }
+			public float getRMax() { return 1000f; }
+			public float getFcMax() { return 0.7f; }
+			public float getGravity() { return 9.81f; }
+			public float getWingX() { return 4.2f; }
+			public float getTailSize() { return 4.2f; }
+			public float getEngineMass() { return 180f; }
+			public float getWingMass() { return 100f; }
+			public float getTailMass() { return 100f; }
+			public float getMaxThrust() { return 2000f; }
+			public float getMaxAOA() { return 0.261f; }
+			public float getWingLiftSlope() { return 10f; }
+			public float getHorStabLiftSlope() { return 5f; }
+			public float getVerStabLiftSlope() { return 5f; }
+			public float getHorizontalAngleOfView() { return 120f; }
+			public float getVerticalAngleOfView() { return 120f; }
+			public int getNbColumns() { return 200; }
+			public int getNbRows() { return 200; }
+		});
+		return physics;
+	}
+	
+	private static AutopilotInputs inputs(final float x, final float y, final float z, final float heading, final float pitch, final float roll) {
+		return new AutopilotInputs() {
+			public byte[] getImage() { return null; }
+			public float getX() { return x; }
+			public float getY() { return y; }
+			public float getZ() { return z; }
+			public float getHeading() { return heading; }
+			public float getPitch() { return pitch; }
+			public float getRoll() { return roll; }
+			public float getElapsedTime() { return 0; }
+		};
+	}
+
+}
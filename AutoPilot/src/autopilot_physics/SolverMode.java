@@ -0,0 +1,14 @@
+package autopilot_physics;
+
+/**
+ * The ways in which the physics engine finds the wing inclinations.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public enum SolverMode {
+	BISECTION,			// Halve the interval until it is smaller than the precision
+	NEWTON,				// Newton iteration on the lift equations, bisecting whenever a step leaves the interval
+	TRIM_TABLE			// Look up the trim inclinations in a trim table and refine them with one Newton step,
+						// 	the other inclinations are found with Newton iteration
+}
@@ -0,0 +1,100 @@
+package autopilot_physics;
+
+import java.util.HashMap;
+
+/**
+ * A lookup table for the trim inclination of the wings, the inclination x for which the lift factor x*cos(x)
+ * 	has a given value. The lift of a wing is x*cos(x)*liftSlope*sSquared, so the inclination that balances a
+ * 	force only depends on the force divided by liftSlope*sSquared. The pitch, roll and speed of the drone only
+ * 	enter through this ratio, so one table per maximum inclination covers all flight states.
+ * 	The table is sampled uniformly in the lift factor, a lookup interpolates linearly and refines the result
+ * 	with one Newton step.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class TrimTable {
+	
+	/**
+	 * The largest inclination for which the lift factor still increases, where cos(x) = x*sin(x).
+	 */
+	public static final float MAX_INCLINATION = 0.86f;
+	
+	/**
+	 * The amount of intervals in every table.
+	 */
+	public static final int SIZE = 1024;
+	
+	/**
+	 * Initialize this new table for inclinations between minus and plus the given maximum inclination.
+	 */
+	public TrimTable(float maxInclination) {
+		if (!(maxInclination > 0) || maxInclination > MAX_INCLINATION)
+			throw new IllegalArgumentException("The maximum inclination must be in (0, " + MAX_INCLINATION + "]");
+		this.maxInclination = maxInclination;
+		this.maxFactor = liftFactor(maxInclination);
+		this.inclinations = new double[SIZE + 1];
+		
+		// The lift factor is odd, so only the positive half has to be solved
+		for (int i=SIZE/2 ; i<=SIZE ; i++) {
+			double factor = maxFactor * (2.0 * i / SIZE - 1);
+			double low = 0, high = maxInclination;
+			while (high - low > 1e-12) {
+				double middle = (low + high) / 2;
+				if (liftFactor(middle) > factor)
+					high = middle;
+				else
+					low = middle;
+			}
+			inclinations[i] = (low + high) / 2;
+			inclinations[SIZE - i] = -inclinations[i];
+		}
+	}
+	
+	private final float maxInclination;
+	private final double maxFactor;
+	private final double[] inclinations;
+	
+	public float getMaxInclination() {
+		return maxInclination;
+	}
+	
+	/**
+	 * Returns the inclination x within the maximum inclination for which x*cos(x) equals the given lift factor,
+	 * 	NaN if the lift factor can't be reached within the maximum inclination.
+	 */
+	public float getInclination(double liftFactor) {
+		if (!(Math.abs(liftFactor) <= maxFactor))
+			return Float.NaN;
+		double position = (liftFactor / maxFactor + 1) * SIZE / 2;
+		int index = Math.min((int) position, SIZE - 1);
+		double fraction = position - index;
+		double inclination = inclinations[index] + fraction * (inclinations[index + 1] - inclinations[index]);
+		
+		// d/dx (x cos x) = cos x - x sin x, which is positive within the maximum inclination
+		double cos = Math.cos(inclination);
+		inclination -= (inclination * cos - liftFactor) / (cos - inclination * Math.sin(inclination));
+		return (float) Math.max(-maxInclination, Math.min(maxInclination, inclination));
+	}
+	
+	private static double liftFactor(double inclination) {
+		return inclination * Math.cos(inclination);
+	}
+	
+	/**
+	 * Returns the table for the given maximum inclination, engines with the same configuration share one table.
+	 */
+	public static TrimTable getTable(float maxInclination) {
+		synchronized (tables) {
+			TrimTable table = tables.get(maxInclination);
+			if (table == null) {
+				table = new TrimTable(maxInclination);
+				tables.put(maxInclination, table);
+			}
+			return table;
+		}
+	}
+	
+	private static final HashMap<Float, TrimTable> tables = new HashMap<Float, TrimTable>();
+
+}
@@ -0,0 +1,54 @@
+package autopilot_physics;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the trim table.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class TrimTableTests extends TestCase {
+	
+	/**
+	 * Check that the looked up inclinations give the requested lift factor.
+	 */
+	@Test
+	public void testInclinationsMatchLiftFactor() {
+		TrimTable table = new TrimTable(0.8f);
+		double maxFactor = 0.8 * Math.cos(0.8);
+		Random random = new Random(42);
+		for (int i=0 ; i<10000 ; i++) {
+			double factor = (2 * random.nextDouble() - 1) * maxFactor;
+			float inclination = table.getInclination(factor);
+			assertTrue(Math.abs(inclination) <= 0.8f);
+			assertEquals(factor, inclination * Math.cos(inclination), 1e-6);
+		}
+		assertEquals(0f, table.getInclination(0), 1e-9f);
+	}
+	
+	/**
+	 * Check that lift factors beyond the maximum inclination aren't looked up.
+	 */
+	@Test
+	public void testUnreachableLiftFactor() {
+		TrimTable table = new TrimTable(0.26f);
+		assertTrue(Float.isNaN(table.getInclination(0.3)));
+		assertTrue(Float.isNaN(table.getInclination(-0.3)));
+		assertTrue(Float.isNaN(table.getInclination(Double.NaN)));
+	}
+	
+	/**
+	 * Check that engines with the same maximum inclination share their table.
+	 */
+	@Test
+	public void testTablesAreShared() {
+		assertSame(TrimTable.getTable(0.5f), TrimTable.getTable(0.5f));
+		assertNotSame(TrimTable.getTable(0.5f), TrimTable.getTable(0.6f));
+	}
+
+}
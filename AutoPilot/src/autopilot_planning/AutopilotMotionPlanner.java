@@ -29,7 +29,7 @@ public class AutopilotMotionPlanner {
 	public boolean ENABLE_LOGGING = false;
 
 	// Turning radius = forward velocity divided by maximum angular velocity
-	private final static float TURNING_RADIUS = 400.0f; 
+	public final static float TURNING_RADIUS = 400.0f; 
 	private final static float TAXI_RADIUS = 15.0f; 
 
 	/**
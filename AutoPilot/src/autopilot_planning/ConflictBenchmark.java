@@ -0,0 +1,152 @@
+package autopilot_planning;
+
+import java.util.Random;
+
+import autopilot_utilities.SpatialGrid;
+
+/**
+ * Compares the conflict detector with the rule that all drones within 500m of each other avoid each other,
+ * 	on random traffic of drones that cruise on a few altitude layers and slowly change their heading.
+ * 	A flagged pair is a false alarm if the drones don't actually come closer than the separation of the
+ * 	conflict detector within its horizon, a conflict is missed if this does happen but the pair isn't flagged.
+ * Usage: ConflictBenchmark [drones] [size of the area] [seconds]
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class ConflictBenchmark {
+	
+	private static final double SEPARATION = 200, VERTICAL_SEPARATION = 20, HORIZON = 15, RULE_DISTANCE = 500;
+	private static final double TIME_STEP = 0.1, CHECK_INTERVAL = 1;
+	private static final double[] LAYERS = {100, 130, 160};
+	
+	public static void main(String[] args) {
+		int drones = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		double size = args.length > 1 ? Double.parseDouble(args[1]) : 10000;
+		double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 120;
+		
+		// Simulate the traffic up front, including the horizon after the last check
+		int steps = (int) ((seconds + HORIZON) / TIME_STEP) + 1;
+		double[][] xs = new double[steps][drones], zs = new double[steps][drones];
+		double[] altitudes = new double[drones];
+		simulate(new Random(42), size, xs, zs, altitudes);
+		
+		ConflictDetector detector = new ConflictDetector(SEPARATION, VERTICAL_SEPARATION, HORIZON);
+		SpatialGrid grid = new SpatialGrid(RULE_DISTANCE);
+		int[] nearby = new int[16];
+		boolean[][] predicted = new boolean[drones][drones], ruled = new boolean[drones][drones];
+		long predictedPairs = 0, predictedFalse = 0, predictedMissed = 0;
+		long ruledPairs = 0, ruledFalse = 0, ruledMissed = 0, conflicts = 0;
+		long detectorTime = 0, ruleTime = 0, checks = 0;
+		int checkSteps = (int) Math.round(CHECK_INTERVAL / TIME_STEP), horizonSteps = (int) Math.round(HORIZON / TIME_STEP);
+		
+		for (int step=1 ; step*TIME_STEP<=seconds ; step+=checkSteps) {
+			// The velocities are estimated from the previous locations, like the autopilot module does
+			long start = System.nanoTime();
+			detector.reset(drones);
+			for (int i=0 ; i<drones ; i++)
+				detector.setDrone(i, xs[step][i], altitudes[i], zs[step][i],
+						(xs[step][i] - xs[step-1][i]) / TIME_STEP, (zs[step][i] - zs[step-1][i]) / TIME_STEP);
+			int found = detector.detect();
+			detectorTime += System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			int ruleFound = 0;
+			grid.clear();
+			for (int i=0 ; i<drones ; i++)
+				grid.add(xs[step][i], zs[step][i]);
+			for (int i=0 ; i<drones ; i++) {
+				int count = grid.query(xs[step][i], zs[step][i], RULE_DISTANCE, nearby);
+				if (count > nearby.length) {
+					nearby = new int[count];
+					count = grid.query(xs[step][i], zs[step][i], RULE_DISTANCE, nearby);
+				}
+				for (int n=0 ; n<count ; n++) {
+					int j = nearby[n];
+					double dy = altitudes[j] - altitudes[i];
+					if (j > i && Math.hypot(distance(xs[step], zs[step], i, j), dy) < RULE_DISTANCE) {
+						ruled[i][j] = true;
+						ruleFound++;
+					}
+				}
+			}
+			ruleTime += System.nanoTime() - start;
+			checks++;
+			
+			for (int c=0 ; c<found ; c++)
+				predicted[detector.getFirstDrone(c)][detector.getSecondDrone(c)] = true;
+			predictedPairs += found;
+			ruledPairs += ruleFound;
+			
+			// Compare with what actually happens within the horizon
+			for (int i=0 ; i<drones ; i++) {
+				for (int j=i+1 ; j<drones ; j++) {
+					boolean conflict = Math.abs(altitudes[i] - altitudes[j]) < VERTICAL_SEPARATION
+							&& losesSeparation(xs, zs, i, j, step, step + horizonSteps);
+					if (conflict)
+						conflicts++;
+					if (predicted[i][j] && !conflict)
+						predictedFalse++;
+					if (!predicted[i][j] && conflict)
+						predictedMissed++;
+					if (ruled[i][j] && !conflict)
+						ruledFalse++;
+					if (!ruled[i][j] && conflict)
+						ruledMissed++;
+					predicted[i][j] = false;
+					ruled[i][j] = false;
+				}
+			}
+		}
+		
+		System.out.println(drones + " drones, " + checks + " checks, " + conflicts + " actual conflicts");
+		report("Conflict detector", detectorTime, checks, predictedPairs, predictedFalse, predictedMissed);
+		report("500m rule", ruleTime, checks, ruledPairs, ruledFalse, ruledMissed);
+	}
+	
+	private static void report(String name, long time, long checks, long pairs, long falseAlarms, long missed) {
+		System.out.println(name + ": " + time / 1e3 / checks + " us per check, " + pairs + " flagged pairs, "
+				+ falseAlarms + " false alarms (" + (pairs == 0 ? 0 : 100.0 * falseAlarms / pairs) + "%), " + missed + " missed conflicts");
+	}
+	
+	/**
+	 * Fly the drones with a constant speed on a random layer, their heading drifts and they turn back at the edges of the area.
+	 */
+	private static void simulate(Random random, double size, double[][] xs, double[][] zs, double[] altitudes) {
+		int drones = altitudes.length;
+		double[] headings = new double[drones], turnRates = new double[drones], speeds = new double[drones];
+		for (int i=0 ; i<drones ; i++) {
+			xs[0][i] = random.nextDouble() * size;
+			zs[0][i] = random.nextDouble() * size;
+			altitudes[i] = LAYERS[random.nextInt(LAYERS.length)];
+			headings[i] = random.nextDouble() * 2 * Math.PI;
+			speeds[i] = 40 + 20 * random.nextDouble();
+		}
+		for (int step=1 ; step<xs.length ; step++) {
+			for (int i=0 ; i<drones ; i++) {
+				if (random.nextDouble() < TIME_STEP / 10)	// A new turn rate about every 10 seconds
+					turnRates[i] = (random.nextDouble() - 0.5) * 0.1;
+				double x = xs[step-1][i], z = zs[step-1][i];
+				if ((x < 0 && Math.cos(headings[i]) < 0) || (x > size && Math.cos(headings[i]) > 0))
+					headings[i] = Math.PI - headings[i];
+				if ((z < 0 && Math.sin(headings[i]) < 0) || (z > size && Math.sin(headings[i]) > 0))
+					headings[i] = -headings[i];
+				headings[i] += turnRates[i] * TIME_STEP;
+				xs[step][i] = x + Math.cos(headings[i]) * speeds[i] * TIME_STEP;
+				zs[step][i] = z + Math.sin(headings[i]) * speeds[i] * TIME_STEP;
+			}
+		}
+	}
+	
+	private static boolean losesSeparation(double[][] xs, double[][] zs, int i, int j, int from, int to) {
+		for (int step=from ; step<=to && step<xs.length ; step++)
+			if (distance(xs[step], zs[step], i, j) < SEPARATION)
+				return true;
+		return false;
+	}
+	
+	private static double distance(double[] xs, double[] zs, int i, int j) {
+		return Math.hypot(xs[j] - xs[i], zs[j] - zs[i]);
+	}
+
+}
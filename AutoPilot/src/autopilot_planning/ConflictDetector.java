@@ -0,0 +1,237 @@
+package autopilot_planning;
+
+import java.util.Arrays;
+
+import autopilot_utilities.SpatialGrid;
+
+/**
+ * A class for predicting conflicts between drones, pairs of drones that will come closer to each other than
+ * 	the separation within the horizon.
+ * 	Every drone is projected along its horizontal velocity at its nominal altitude (the altitude it keeps
+ * 	when it does not avoid other drones). Two drones conflict when their horizontal closest approach
+ * 	within the horizon is closer than the separation and their nominal altitudes are closer than the
+ * 	vertical separation, so drones on different altitude layers never conflict.
+ * 	The candidate pairs are found through a spatial grid, only they are checked exactly.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class ConflictDetector {
+	
+	/**
+	 * Initialize this new conflict detector.
+	 *
+	 * @param 	separation
+	 * 			The horizontal distance the drones should keep from each other.
+	 * @param 	verticalSeparation
+	 * 			The difference in altitude above which drones don't conflict.
+	 * @param 	horizon
+	 * 			The time in seconds that is looked ahead.
+	 */
+	public ConflictDetector(double separation, double verticalSeparation, double horizon) {
+		if (!(separation > 0) || !(verticalSeparation >= 0))
+			throw new IllegalArgumentException("The separations must be positive");
+		this.separation = separation;
+		this.verticalSeparation = verticalSeparation;
+		setHorizon(horizon);
+	}
+	
+	private final double separation, verticalSeparation;
+	
+	public double getSeparation() {
+		return separation;
+	}
+	
+	public double getVerticalSeparation() {
+		return verticalSeparation;
+	}
+	
+	/**
+	 * Set the time in seconds that is looked ahead, 0 only checks the current locations.
+	 */
+	public void setHorizon(double horizon) {
+		if (!(horizon >= 0))
+			throw new IllegalArgumentException("The horizon can't be negative");
+		this.horizon = horizon;
+	}
+	
+	public double getHorizon() {
+		return horizon;
+	}
+	
+	private double horizon;
+	
+	// The drones: location, nominal altitude and horizontal velocity
+	private double[] xs = new double[0], zs = new double[0], altitudes = new double[0];
+	private double[] velocityXs = new double[0], velocityZs = new double[0];
+	private int drones = 0;
+	
+	/**
+	 * Prepare this detector for the given amount of drones, all drones have to be set before detecting.
+	 */
+	public void reset(int drones) {
+		if (xs.length < drones) {
+			xs = new double[drones];
+			zs = new double[drones];
+			altitudes = new double[drones];
+			velocityXs = new double[drones];
+			velocityZs = new double[drones];
+		}
+		this.drones = drones;
+	}
+	
+	/**
+	 * Set the drone with the given index.
+	 *
+	 * @param 	altitude
+	 * 			The nominal altitude of the drone.
+	 * @param 	velocityX
+	 * 			The velocity of the drone along the x axis, in meters per second.
+	 * @param 	velocityZ
+	 * 			The velocity of the drone along the z axis, in meters per second.
+	 */
+	public void setDrone(int drone, double x, double altitude, double z, double velocityX, double velocityZ) {
+		xs[drone] = x;
+		zs[drone] = z;
+		altitudes[drone] = altitude;
+		velocityXs[drone] = velocityX;
+		velocityZs[drone] = velocityZ;
+	}
+	
+	// The found conflicts, the first drone of a pair has the lowest index
+	private int[] firsts = new int[16], seconds = new int[16];
+	private double[] times = new double[16], misses = new double[16];
+	private int conflicts = 0;
+	private int candidates = 0;
+	
+	private SpatialGrid grid;
+	private int[] nearby = new int[16];
+	
+	/**
+	 * Find all conflicts between the drones that were set.
+	 * 	Every conflicting pair is found once, ordered by the index of their first drone and then their second drone.
+	 *
+	 * @return	The amount of conflicts.
+	 */
+	public int detect() {
+		conflicts = 0;
+		candidates = 0;
+		if (drones < 2)
+			return 0;
+		
+		// Two drones can only meet within the horizon if they are now within the separation plus the distance both can cover
+		double maximumSpeed = 0;
+		for (int i=0 ; i<drones ; i++)
+			maximumSpeed = Math.max(maximumSpeed, speed(i));
+		double reach = separation + 2 * maximumSpeed * horizon;
+		if (grid == null || gridCellSize < reach / 2 || gridCellSize > reach * 2) {
+			grid = new SpatialGrid(reach);
+			gridCellSize = reach;
+		}
+		grid.clear();
+		for (int i=0 ; i<drones ; i++)
+			grid.add(xs[i], zs[i]);
+		
+		for (int i=0 ; i<drones ; i++) {
+			double radius = separation + (speed(i) + maximumSpeed) * horizon;
+			int found = grid.query(xs[i], zs[i], radius, nearby);
+			if (found > nearby.length) {
+				nearby = new int[found];
+				found = grid.query(xs[i], zs[i], radius, nearby);
+			}
+			for (int n=0 ; n<found ; n++) {
+				int j = nearby[n];
+				if (j <= i || Math.abs(altitudes[i] - altitudes[j]) >= verticalSeparation)
+					continue;
+				candidates++;
+				double dx = xs[j] - xs[i], dz = zs[j] - zs[i];
+				double dvx = velocityXs[j] - velocityXs[i], dvz = velocityZs[j] - velocityZs[i];
+				double time = timeToClosestApproach(dx, dz, dvx, dvz, horizon);
+				double missX = dx + dvx * time, missZ = dz + dvz * time;
+				double miss = Math.sqrt(missX*missX + missZ*missZ);
+				if (miss < separation)
+					addConflict(i, j, time, miss);
+			}
+		}
+		return conflicts;
+	}
+	
+	private double gridCellSize;
+	
+	private double speed(int drone) {
+		return Math.sqrt(velocityXs[drone]*velocityXs[drone] + velocityZs[drone]*velocityZs[drone]);
+	}
+	
+	private void addConflict(int first, int second, double time, double miss) {
+		if (conflicts == firsts.length) {
+			firsts = Arrays.copyOf(firsts, 2 * conflicts);
+			seconds = Arrays.copyOf(seconds, 2 * conflicts);
+			times = Arrays.copyOf(times, 2 * conflicts);
+			misses = Arrays.copyOf(misses, 2 * conflicts);
+		}
+		firsts[conflicts] = first;
+		seconds[conflicts] = second;
+		times[conflicts] = time;
+		misses[conflicts] = miss;
+		conflicts++;
+	}
+	
+	/**
+	 * Returns the time within [0, horizon] at which two points are closest to each other.
+	 *
+	 * @param 	dx, dz
+	 * 			The location of the second point relative to the first.
+	 * @param 	dvx, dvz
+	 * 			The velocity of the second point relative to the first.
+	 */
+	public static double timeToClosestApproach(double dx, double dz, double dvx, double dvz, double horizon) {
+		double closingSpeedSquared = dvx*dvx + dvz*dvz;
+		if (closingSpeedSquared == 0)
+			return 0;
+		double time = -(dx*dvx + dz*dvz) / closingSpeedSquared;
+		return Math.max(0, Math.min(horizon, time));
+	}
+	
+	/**
+	 * Returns the amount of conflicts found by the last detection.
+	 */
+	public int getConflictCount() {
+		return conflicts;
+	}
+	
+	/**
+	 * Returns the amount of pairs that were checked exactly by the last detection.
+	 */
+	public int getCandidateCount() {
+		return candidates;
+	}
+	
+	/**
+	 * Returns the index of the first drone of the given conflict, the lowest index of the pair.
+	 */
+	public int getFirstDrone(int conflict) {
+		return firsts[conflict];
+	}
+	
+	/**
+	 * Returns the index of the second drone of the given conflict.
+	 */
+	public int getSecondDrone(int conflict) {
+		return seconds[conflict];
+	}
+	
+	/**
+	 * Returns the time from now until the drones of the given conflict are closest to each other.
+	 */
+	public double getTimeToClosestApproach(int conflict) {
+		return times[conflict];
+	}
+	
+	/**
+	 * Returns the horizontal distance between the drones of the given conflict when they are closest to each other.
+	 */
+	public double getMissDistance(int conflict) {
+		return misses[conflict];
+	}
+
+}
@@ -1,7 +1,5 @@
 package autopilot_planning;
 
-import java.util.ArrayList;
-
 import autopilot_utilities.Point3D;
 import autopilot_utilities.Vector3f;
 import interfaces.AutopilotInputs;
@@ -50,52 +48,50 @@ public interface Distance {
 		return distanceTo3D(point, new Point3D(inputs.getX(), inputs.getY(), inputs.getZ()));
 	}
 	
-	static Point3D getClosestDronePosition(DroneAutopilot drone, ArrayList<DroneAutopilot> drones) {
+	static Point3D getClosestDronePosition(DroneAutopilot drone, Iterable<DroneAutopilot> drones) {
 		float closestDistance = Float.POSITIVE_INFINITY;
-		int closestInt = -1;
+		Point3D closest = null;
 		float distance;
 		
-		for (int i = 0; i < drones.size(); i++) {
-			if (drones.get(i) != drone) {
-				distance = distanceToHor(drone.location, drones.get(i).location);
+		for (DroneAutopilot otherDrone : drones) {
+			if (otherDrone != drone) {
+				distance = distanceToHor(drone.location, otherDrone.location);
 				if (distance < closestDistance) {
 					closestDistance = distance;
-					closestInt = i;
+					closest = otherDrone.location;
 				}
 			}
 		}
 		
-		if (closestInt == -1) return null;
-		return drones.get(closestInt).location;
+		return closest;
 	}
 	
-	static float distanceToClosestDrone(DroneAutopilot drone, ArrayList<DroneAutopilot> drones) {
+	static float distanceToClosestDrone(DroneAutopilot drone, Iterable<DroneAutopilot> drones) {
 		Point3D closestDroneLoc = getClosestDronePosition(drone, drones);
 		
 		if (closestDroneLoc == null) return Float.POSITIVE_INFINITY;
 		return distanceToHor(closestDroneLoc, drone.location);
 	}
 	
-	static Point3D getClosestDronePositionBeneathOwn(DroneAutopilot drone, ArrayList<DroneAutopilot> drones) {
+	static Point3D getClosestDronePositionBeneathOwn(DroneAutopilot drone, Iterable<DroneAutopilot> drones) {
 		float closestDistance = Float.POSITIVE_INFINITY;
-		int closestInt = -1;
+		Point3D closest = null;
 		float distance;
 		
-		for (int i = 0; i < drones.size(); i++) {
-			if (drones.get(i) != drone && drones.get(i).location.getY() < drone.location.getY() + 5) {	// '5' is a threshold
-				distance = distanceToHor(drone.location, drones.get(i).location);
+		for (DroneAutopilot otherDrone : drones) {
+			if (otherDrone != drone && otherDrone.location.getY() < drone.location.getY() + 5) {	// '5' is a threshold
+				distance = distanceToHor(drone.location, otherDrone.location);
 				if (distance < closestDistance) {
 					closestDistance = distance;
-					closestInt = i;
+					closest = otherDrone.location;
 				}
 			}
 		}
 		
-		if (closestInt == -1) return null;
-		return drones.get(closestInt).location;
+		return closest;
 	}
 	
-	static float distanceToClosestDroneBeneathOwn(DroneAutopilot drone, ArrayList<DroneAutopilot> drones) {
+	static float distanceToClosestDroneBeneathOwn(DroneAutopilot drone, Iterable<DroneAutopilot> drones) {
 		Point3D closestDroneLoc = getClosestDronePositionBeneathOwn(drone, drones);
 		
 		if (closestDroneLoc == null) return Float.POSITIVE_INFINITY;
@@ -2,6 +2,7 @@ package autopilot_planning;
 
 import java.util.List;
 
+import autopilot_planning.DubinsPath2D.DubinsPath2DType.DubinsPath2DTypeIdentifier;
 import autopilot_utilities.Point3D;
 import autopilot_utilities.Vector3f;
 import autopilot_vision.DistanceTests;
@@ -15,9 +16,16 @@ public class Dubins {
 	private boolean printPID = true;
 	private boolean printDubins = true;
 	
+	/**
+	 * The cache with the Dubins paths of all drones, null if every path has to be solved.
+	 * 	The cache is off by default, a cached path is solved for a configuration up to half a quantum off.
+	 */
+	public static DubinsPathCache PATH_CACHE = null;
+	
 	// Member variables
 	private int stage;
 	private DubinsPath2D dubinsPath = null;
+	private final DubinsSolver solver = new DubinsSolver();
 	private float endHeading;
 	
 	private Point3D firstCircleCenter;
@@ -69,11 +77,15 @@ public class Dubins {
 			Vector3f endConfiguration = new Vector3f(-target.getZ(), -target.getX(), endHeading);
 	
 			long tic = System.nanoTime();
-			dubinsPath = new DubinsPath2D(startConfiguration, endConfiguration, rho);
+			DubinsPathCache cache = PATH_CACHE;
+			if (cache != null)
+				dubinsPath = cache.getPath(startConfiguration, endConfiguration, rho);
+			else
+				dubinsPath = new DubinsPath2D(startConfiguration, endConfiguration, rho, DubinsSolver.CSC_WORDS, solver);
 			if (ENABLE_LOGGING) System.out.println("DUBINS TIMING = " + (System.nanoTime() - tic) / 10E6);
 			
-			calculateCircleCenters(inputs, dubinsPath.type.identifier.toString());
-			calculateCircleKeyPoints(inputs, dubinsPath.type.toString());
+			calculateCircleCenters(inputs, dubinsPath.getIdentifier());
+			calculateCircleKeyPoints(inputs, dubinsPath.getIdentifier());
 		}
 
 		if (dubinsPath != null) {
@@ -131,8 +143,8 @@ public class Dubins {
 				motion[0] = Pitch.getPitch(inputs, nextTarget);
 			
 			// TODO
-			updatePositionError(inputs, dubinsPath.type.identifier.toString());
-			motion[1] = PdControl.getPdPosition(inputs, deltaTimeElapsed, stage, dubinsPath.type.identifier.toString(), positionError, prevPositionError);
+			updatePositionError(inputs, dubinsPath.getIdentifier());
+			motion[1] = PdControl.getPdPosition(inputs, deltaTimeElapsed, stage, dubinsPath.getIdentifier(), positionError, prevPositionError);
 			
 			if (ENABLE_LOGGING) print(inputs);
 		}
@@ -143,13 +155,11 @@ public class Dubins {
 	
 	// INITIALISATION METHODS //
 	
-	private void calculateCircleCenters(AutopilotInputs inputs, String dubinsString) {
-		String directionFirst = dubinsString.substring(0, 1);
-		String directionSecond = dubinsString.substring(2, 3);
+	private void calculateCircleCenters(AutopilotInputs inputs, DubinsPath2DTypeIdentifier dubinsIdentifier) {
 		float sigma;
 		
 		// Calculate first center
-		if (directionFirst.equals("R"))
+		if (dubinsIdentifier.getDirection(0) == DubinsSolver.RIGHT)
 			sigma = (float) (inputs.getHeading() - Math.PI / 2);
 		else // "L"
 			sigma = (float) (inputs.getHeading() + Math.PI / 2);
@@ -160,7 +170,7 @@ public class Dubins {
 				inputs.getZ() - rho * Math.cos(sigma));
 		
 		// Calculate second center
-		if (directionSecond.equals("R"))
+		if (dubinsIdentifier.getDirection(2) == DubinsSolver.RIGHT)
 			sigma = (float) (endHeading - Math.PI / 2);
 		else // "L"
 			sigma = (float) (endHeading + Math.PI / 2);
@@ -171,17 +181,16 @@ public class Dubins {
 				target.getZ() - rho * Math.cos(sigma));
 	}
 	
-	private void calculateCircleKeyPoints(AutopilotInputs inputs, String dubinsString) {
+	private void calculateCircleKeyPoints(AutopilotInputs inputs, DubinsPath2DTypeIdentifier dubinsIdentifier) {
 		// Get first key point
-		double deltaAngle = dubinsPath.type.params[0];
-		if (dubinsString.substring(0, 1).equals("L")) deltaAngle *= -1;
+		double deltaAngle = dubinsPath.getParam(0);
 		Vector3f targetCubeVector = new Vector3f(
 				inputs.getX() - firstCircleCenter.getX(), 
 				0,
 				inputs.getZ() - firstCircleCenter.getZ());
 		float centerTargetAngle = (float) Math.atan2(-targetCubeVector.x, -targetCubeVector.z);
 		float totalAngle;
-		if (dubinsPath.type.identifier.toString().substring(0, 1).equals("R"))
+		if (dubinsIdentifier.getDirection(0) == DubinsSolver.RIGHT)
 			totalAngle = (float) (centerTargetAngle - deltaAngle);
 		else 
 			totalAngle = (float) (centerTargetAngle + deltaAngle);
@@ -192,14 +201,13 @@ public class Dubins {
 				firstCircleCenter.getZ() - rho * Math.cos(totalAngle));
 		
 		// Get second key point
-		deltaAngle = dubinsPath.type.params[2];
-		if (dubinsString.substring(2, 3).equals("L")) deltaAngle *= -1;
+		deltaAngle = dubinsPath.getParam(2);
 		targetCubeVector = new Vector3f(
 				target.getX() - secondCircleCenter.getX(), 
 				0,
 				target.getZ() - secondCircleCenter.getZ());
 		centerTargetAngle = (float) Math.atan2(-targetCubeVector.x, -targetCubeVector.z);
-		if (dubinsPath.type.identifier.toString().substring(2, 3).equals("L"))
+		if (dubinsIdentifier.getDirection(2) == DubinsSolver.LEFT)
 			totalAngle = (float) (centerTargetAngle - deltaAngle);
 		else 
 			totalAngle = (float) (centerTargetAngle + deltaAngle);
@@ -212,7 +220,7 @@ public class Dubins {
 	
 	// HELPER PD DISTANCE
 	
-	private void updatePositionError(AutopilotInputs inputs, String dubinsIdentifier) {
+	private void updatePositionError(AutopilotInputs inputs, DubinsPath2DTypeIdentifier dubinsIdentifier) {
 		prevPositionError = positionError;
 		positionError = (float) (PdControl.getDistanceFault(inputs, stage, dubinsIdentifier, firstCircleCenter, secondCircleCenter, firstCircleKeyPoint, secondCircleKeyPoint, nextTarget, dronePosStart));
 
@@ -253,12 +261,12 @@ public class Dubins {
 	
 	private void print(AutopilotInputs inputs) {
 		if (printDubins) {
-			System.out.println("DUBINS: " + dubinsPath.type.identifier.toString());
+			System.out.println("DUBINS: " + dubinsPath.getIdentifier());
 			System.out.println("---stage: "+stage+"<--");
 			System.out.println("---length " + dubinsPath.getLength());
-			System.out.println("---params " + dubinsPath.type.params[0]);
-			System.out.println("---params " + dubinsPath.type.params[1]);
-			System.out.println("---params " + dubinsPath.type.params[2]);
+			System.out.println("---params " + dubinsPath.getParam(0));
+			System.out.println("---params " + dubinsPath.getParam(1));
+			System.out.println("---params " + dubinsPath.getParam(2));
 		}
 
 		if (printExtraPoints) {
@@ -0,0 +1,186 @@
+package autopilot_planning;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import autopilot_utilities.Vector3f;
+
+/**
+ * A bounded cache of solved Dubins paths, that drops the least recently used path when it is full.
+ * 	The paths are looked up by their start and end configuration and turning radius, the coordinates are
+ * 	rounded to the position quantum and the headings to the heading quantum. A path found in the cache was
+ * 	solved for a configuration within half a quantum of the requested one.
+ * 	The paths can't change, so the drones that look up the same configuration share one path.
+ * 	The cache can be used by several threads at once.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class DubinsPathCache {
+	
+	/**
+	 * Initialize this new cache.
+	 *
+	 * @param 	capacity
+	 * 			The maximum amount of paths in this cache.
+	 * @param 	positionQuantum
+	 * 			The distance in meters to which the coordinates are rounded.
+	 * @param 	headingQuantum
+	 * 			The angle in radians to which the headings are rounded.
+	 */
+	public DubinsPathCache(final int capacity, double positionQuantum, double headingQuantum) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive");
+		if (!(positionQuantum > 0) || !(headingQuantum > 0))
+			throw new IllegalArgumentException("The quanta must be positive");
+		this.capacity = capacity;
+		this.positionQuantum = positionQuantum;
+		this.headingQuantum = headingQuantum;
+		this.paths = new LinkedHashMap<Key, DubinsPath2D>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, DubinsPath2D> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+	
+	private final int capacity;
+	private final double positionQuantum, headingQuantum;
+	
+	// In access order, so the eldest entry is the least recently used path
+	private final LinkedHashMap<Key, DubinsPath2D> paths;
+	
+	private long hits = 0, misses = 0;
+	
+	// Solves the paths that are not cached, only used while holding the lock of this cache
+	private final DubinsSolver solver = new DubinsSolver();
+	
+	/**
+	 * Returns the Dubins path from the given start configuration to the given end configuration, solving it if
+	 * 	no path for these configurations is cached.
+	 * 
+	 * @param 	startConfiguration
+	 * 			A vector with 2D coordinates and rotation denoting the start configuration.
+	 * @param 	endConfiguration
+	 * 			A vector with 2D coordinates and rotation denoting the end configuration.
+	 */
+	public synchronized DubinsPath2D getPath(Vector3f startConfiguration, Vector3f endConfiguration, double rho) {
+		Key key = key(startConfiguration, endConfiguration, rho);
+		DubinsPath2D path = paths.get(key);
+		if (path != null) {
+			hits++;
+			return path;
+		}
+		misses++;
+		path = new DubinsPath2D(startConfiguration, endConfiguration, rho, DubinsSolver.CSC_WORDS, solver);
+		paths.put(key, path);
+		return path;
+	}
+	
+	/**
+	 * Returns the Dubins path from the given start configuration to the given end configuration like getPath,
+	 * 	but without counting the lookup as a hit or miss. This is meant for filling the cache up front.
+	 */
+	public synchronized DubinsPath2D precompute(Vector3f startConfiguration, Vector3f endConfiguration, double rho) {
+		Key key = key(startConfiguration, endConfiguration, rho);
+		DubinsPath2D path = paths.get(key);
+		if (path == null) {
+			path = new DubinsPath2D(startConfiguration, endConfiguration, rho, DubinsSolver.CSC_WORDS, solver);
+			paths.put(key, path);
+		}
+		return path;
+	}
+	
+	/**
+	 * Returns the amount of lookups that found a cached path.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the amount of lookups that had to solve the path.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the fraction of the lookups that found a cached path, 0 if there were no lookups.
+	 */
+	public synchronized double getHitRate() {
+		return (hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+	}
+	
+	public synchronized int size() {
+		return paths.size();
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Remove all paths from this cache and reset its hits and misses.
+	 */
+	public synchronized void clear() {
+		paths.clear();
+		hits = 0;
+		misses = 0;
+	}
+	
+	private Key key(Vector3f start, Vector3f end, double rho) {
+		return new Key(Math.round(start.x / positionQuantum), Math.round(start.y / positionQuantum), heading(start.z),
+				Math.round(end.x / positionQuantum), Math.round(end.y / positionQuantum), heading(end.z), Double.doubleToLongBits(rho));
+	}
+	
+	/**
+	 * Round the given heading to the heading quantum, headings that differ by a full turn are rounded equally.
+	 */
+	private long heading(double heading) {
+		double turn = 2 * Math.PI;
+		return Math.round((heading - turn * Math.floor(heading / turn)) / headingQuantum) % Math.round(turn / headingQuantum);
+	}
+	
+	/**
+	 * The rounded configurations and turning radius of a path.
+	 */
+	private static final class Key {
+		
+		Key(long startX, long startY, long startHeading, long endX, long endY, long endHeading, long rho) {
+			this.startX = startX;
+			this.startY = startY;
+			this.startHeading = startHeading;
+			this.endX = endX;
+			this.endY = endY;
+			this.endHeading = endHeading;
+			this.rho = rho;
+		}
+		
+		private final long startX, startY, startHeading, endX, endY, endHeading, rho;
+		
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key key = (Key) other;
+			return startX == key.startX && startY == key.startY && startHeading == key.startHeading
+					&& endX == key.endX && endY == key.endY && endHeading == key.endHeading && rho == key.rho;
+		}
+		
+		@Override
+		public int hashCode() {
+			long hash = startX;
+			hash = 31 * hash + startY;
+			hash = 31 * hash + startHeading;
+			hash = 31 * hash + endX;
+			hash = 31 * hash + endY;
+			hash = 31 * hash + endHeading;
+			hash = 31 * hash + rho;
+			return (int) (hash ^ (hash >>> 32));
+		}
+	}
+
+}
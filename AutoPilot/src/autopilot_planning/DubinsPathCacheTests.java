@@ -0,0 +1,61 @@
+package autopilot_planning;
+
+import org.junit.Test;
+
+import autopilot_utilities.Vector3f;
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the cache of Dubins paths.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class DubinsPathCacheTests extends TestCase {
+	
+	/**
+	 * Check that configurations within the quanta share their path and others don't.
+	 */
+	@Test
+	public void testQuantizedLookup() {
+		DubinsPathCache cache = new DubinsPathCache(16, 1, 0.01);
+		DubinsPath2D path = cache.getPath(new Vector3f(0, 0, 0), new Vector3f(1000, 500, 1), 400);
+		assertSame(path, cache.getPath(new Vector3f(0.2, -0.3, 0.001), new Vector3f(1000.4, 500, 1.002), 400));
+		assertSame(path, cache.getPath(new Vector3f(0, 0, 2 * Math.PI), new Vector3f(1000, 500, 1), 400));
+		assertNotSame(path, cache.getPath(new Vector3f(0, 0, 0), new Vector3f(1002, 500, 1), 400));
+		assertNotSame(path, cache.getPath(new Vector3f(0, 0, 0), new Vector3f(1000, 500, 1), 300));
+		assertEquals(2, cache.getHits());
+		assertEquals(3, cache.getMisses());
+	}
+	
+	/**
+	 * Check that the least recently used path is dropped when the cache is full.
+	 */
+	@Test
+	public void testLeastRecentlyUsedIsDropped() {
+		DubinsPathCache cache = new DubinsPathCache(2, 1, 0.01);
+		Vector3f end = new Vector3f(1000, 0, 0);
+		DubinsPath2D first = cache.getPath(new Vector3f(0, 0, 0), end, 400);
+		DubinsPath2D second = cache.getPath(new Vector3f(10, 0, 0), end, 400);
+		cache.getPath(new Vector3f(0, 0, 0), end, 400);
+		cache.getPath(new Vector3f(20, 0, 0), end, 400);
+		assertEquals(2, cache.size());
+		assertSame(first, cache.getPath(new Vector3f(0, 0, 0), end, 400));
+		assertNotSame(second, cache.getPath(new Vector3f(10, 0, 0), end, 400));
+	}
+	
+	/**
+	 * Check that precomputed paths are found without counting the precomputation.
+	 */
+	@Test
+	public void testPrecompute() {
+		DubinsPathCache cache = new DubinsPathCache(16, 1, 0.01);
+		DubinsPath2D path = cache.precompute(new Vector3f(0, 0, 0), new Vector3f(1000, 0, 0), 400);
+		assertEquals(0, cache.getMisses());
+		assertSame(path, cache.getPath(new Vector3f(0, 0, 0), new Vector3f(1000, 0, 0), 400));
+		assertEquals(1, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(1.0, cache.getHitRate(), 0);
+	}
+
+}
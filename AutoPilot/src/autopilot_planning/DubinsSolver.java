@@ -0,0 +1,217 @@
+package autopilot_planning;
+
+/**
+ * A solver for 2-dimensional Dubins paths that only works with primitive values, so solving doesn't allocate.
+ * 	The six words are numbered like the identifiers of Dubins path types (LSL, LSR, RSL, RSR, RLR, LRL) and
+ * 	every candidate word is evaluated with the same straight-line arithmetic, an infeasible word gets an
+ * 	infinite cost. The result of the last solve is kept in this solver, so one solver should be used by one
+ * 	thread at a time.
+ * 	A configuration consists of 2D coordinates and a rotation, like the configurations of DubinsPath2D.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class DubinsSolver {
+	
+	public static final int LSL = 0, LSR = 1, RSL = 2, RSR = 3, RLR = 4, LRL = 5;
+	
+	/**
+	 * The words made of two turns with a straight segment in between, the words the drones can follow.
+	 */
+	public static final int CSC_WORDS = (1 << LSL) | (1 << LSR) | (1 << RSL) | (1 << RSR);
+	
+	/**
+	 * All six words, including the words made of three turns.
+	 */
+	public static final int ALL_WORDS = CSC_WORDS | (1 << RLR) | (1 << LRL);
+	
+	private static final double TWO_PI = 2 * Math.PI;
+	
+	// The result of the last solve
+	private int word = -1;
+	private double t, p, q, cost = Double.POSITIVE_INFINITY, rho;
+	
+	/**
+	 * Solve the shortest Dubins path from the given start configuration to the given end configuration
+	 * 	with the given turning radius, only considering the given words.
+	 * 
+	 * @param 	words
+	 * 			A bit mask with a bit for every word that may be used, like CSC_WORDS or ALL_WORDS.
+	 * @return	Whether a path was found.
+	 * @throws	IllegalArgumentException
+	 * 			If the given turning radius isn't positive.
+	 */
+	public boolean solve(double startX, double startY, double startRotation, double endX, double endY, double endRotation,
+			double rho, int words) {
+		if (!(rho > 0.0))
+			throw new IllegalArgumentException("The turning radius must be positive");
+		word = -1;
+		cost = Double.POSITIVE_INFINITY;
+		this.rho = rho;
+		
+		// Pre-processing
+		double dx = endX - startX, dy = endY - startY;
+		double d = Math.sqrt(dx*dx + dy*dy) / rho;
+		double theta = mod2pi(Math.atan2(dy, dx));
+		double alpha = mod2pi(startRotation - theta);
+		double beta = mod2pi(endRotation - theta);
+		
+		double sa = Math.sin(alpha), sb = Math.sin(beta);
+		double ca = Math.cos(alpha), cb = Math.cos(beta);
+		double c_ab = Math.cos(alpha - beta);
+		double tmp0, tmp1, tmp2, p_squared, wordT, wordP, wordQ;
+		
+		if ((words & (1 << LSL)) != 0) {
+			tmp0 = d+sa-sb;
+			p_squared = 2 + (d*d) -(2*c_ab) + (2*d*(sa - sb));
+			if (p_squared >= 0) {
+				tmp1 = Math.atan2( (cb-ca), tmp0 );
+				wordT = mod2pi(-alpha + tmp1 );
+				wordP = Math.sqrt( p_squared );
+				wordQ = mod2pi(beta - tmp1 );
+				consider(LSL, wordT, wordP, wordQ);
+			}
+		}
+		if ((words & (1 << LSR)) != 0) {
+			p_squared = -2 + (d*d) + (2*c_ab) + (2*d*(sa+sb));
+			if (p_squared >= 0) {
+				wordP = Math.sqrt( p_squared );
+				tmp2 = Math.atan2( (-ca-cb), (d+sa+sb) ) - Math.atan2(-2.0, wordP);
+				wordT = mod2pi(-alpha + tmp2);
+				wordQ = mod2pi( -mod2pi(beta) + tmp2);
+				consider(LSR, wordT, wordP, wordQ);
+			}
+		}
+		if ((words & (1 << RSL)) != 0) {
+			p_squared = (d*d) -2 + (2*c_ab) - (2*d*(sa+sb));
+			if (p_squared >= 0) {
+				wordP = Math.sqrt( p_squared );
+				tmp2 = Math.atan2( (ca+cb), (d-sa-sb) ) - Math.atan2(2.0, wordP);
+				wordT = mod2pi(alpha - tmp2);
+				wordQ = mod2pi(beta - tmp2);
+				consider(RSL, wordT, wordP, wordQ);
+			}
+		}
+		if ((words & (1 << RSR)) != 0) {
+			tmp0 = d-sa+sb;
+			p_squared = 2 + (d*d) -(2*c_ab) + (2*d*(sb-sa));
+			if (p_squared >= 0) {
+				tmp1 = Math.atan2( (ca-cb), tmp0 );
+				wordT = mod2pi( alpha - tmp1 );
+				wordP = Math.sqrt( p_squared );
+				wordQ = mod2pi( -beta + tmp1 );
+				consider(RSR, wordT, wordP, wordQ);
+			}
+		}
+		if ((words & (1 << RLR)) != 0) {
+			double tmp_rlr = (6. - d*d + 2*c_ab + 2*d*(sa-sb)) / 8.;
+			if (Math.abs(tmp_rlr) <= 1) {
+				wordP = mod2pi(2*Math.PI - Math.acos( tmp_rlr ) );
+				wordT = mod2pi(alpha - Math.atan2( ca-cb, d-sa+sb ) + mod2pi(wordP/2.));
+				wordQ = mod2pi(alpha - beta - wordT + mod2pi(wordP));
+				consider(RLR, wordT, wordP, wordQ);
+			}
+		}
+		if ((words & (1 << LRL)) != 0) {
+			double tmp_lrl = (6. - d*d + 2*c_ab + 2*d*(- sa + sb)) / 8.;
+			if (Math.abs(tmp_lrl) <= 1) {
+				wordP = mod2pi(2*Math.PI - Math.acos( tmp_lrl ) );
+				wordT = mod2pi(-alpha - Math.atan2( ca-cb, d+sa-sb ) + wordP/2.);
+				wordQ = mod2pi(mod2pi(beta) - alpha - wordT + mod2pi(wordP));
+				consider(LRL, wordT, wordP, wordQ);
+			}
+		}
+		
+		return word >= 0;
+	}
+	
+	/**
+	 * Keep the given word if it is shorter than the best word so far, the first word wins a tie.
+	 */
+	private void consider(int word, double t, double p, double q) {
+		double cost = t + p + q;
+		if (cost < this.cost) {
+			this.word = word;
+			this.t = t;
+			this.p = p;
+			this.q = q;
+			this.cost = cost;
+		}
+	}
+	
+	/**
+	 * Solve the shortest Dubins paths for the given amount of start and end configurations at once.
+	 * 	The configuration with index i consists of the i-th values of the given arrays.
+	 * 
+	 * @param 	words
+	 * 			A bit mask with a bit for every word that may be used, like CSC_WORDS or ALL_WORDS.
+	 * @param 	resultWords
+	 * 			The array in which the word of every path is stored, -1 if no path was found. May be null.
+	 * @param 	resultLengths
+	 * 			The array in which the length of every path is stored, infinity if no path was found.
+	 */
+	public void solve(int count, double[] startXs, double[] startYs, double[] startRotations,
+			double[] endXs, double[] endYs, double[] endRotations, double rho, int words, int[] resultWords, double[] resultLengths) {
+		for (int i=0 ; i<count ; i++) {
+			solve(startXs[i], startYs[i], startRotations[i], endXs[i], endYs[i], endRotations[i], rho, words);
+			if (resultWords != null)
+				resultWords[i] = word;
+			resultLengths[i] = getLength();
+		}
+	}
+	
+	/**
+	 * Returns the word of the last solved path, -1 if no path was found.
+	 */
+	public int getWord() {
+		return word;
+	}
+	
+	/**
+	 * Returns the normalised length of the given segment (0, 1 or 2) of the last solved path.
+	 */
+	public double getSegment(int segment) {
+		return (segment == 0 ? t : segment == 1 ? p : q);
+	}
+	
+	/**
+	 * Returns the sum of the normalised segment lengths of the last solved path, infinity if no path was found.
+	 */
+	public double getCost() {
+		return cost;
+	}
+	
+	/**
+	 * Returns the length of the last solved path, infinity if no path was found.
+	 */
+	public double getLength() {
+		return cost * rho;
+	}
+	
+	/**
+	 * Returns the direction of the given segment (0, 1 or 2) of the given word, -1 for a right turn,
+	 * 	0 for a straight segment and 1 for a left turn.
+	 */
+	public static int getDirection(int word, int segment) {
+		return DIRECTIONS[3 * word + segment];
+	}
+	
+	public static final int RIGHT = -1, STRAIGHT = 0, LEFT = 1;
+	
+	private static final int[] DIRECTIONS = {
+			LEFT, STRAIGHT, LEFT,		// LSL
+			LEFT, STRAIGHT, RIGHT,		// LSR
+			RIGHT, STRAIGHT, LEFT,		// RSL
+			RIGHT, STRAIGHT, RIGHT,		// RSR
+			RIGHT, LEFT, RIGHT,			// RLR
+			LEFT, RIGHT, LEFT			// LRL
+	};
+	
+	/**
+	 * Floating point modulus for 2*π.
+	 */
+	private static double mod2pi(double theta) {
+		return theta - TWO_PI * Math.floor(theta/TWO_PI);
+	}
+
+}
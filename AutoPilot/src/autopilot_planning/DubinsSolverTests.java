@@ -0,0 +1,145 @@
+package autopilot_planning;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import autopilot_utilities.Vector3f;
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the Dubins solver.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class DubinsSolverTests extends TestCase {
+	
+	private static final double RHO = 400;
+	
+	/**
+	 * Follow the segments of the last solved path from the given start configuration and check that they end
+	 * 	in the given end configuration.
+	 */
+	private static void checkEndsAt(DubinsSolver solver, double x, double y, double rotation, double endX, double endY, double endRotation) {
+		for (int segment=0 ; segment<3 ; segment++) {
+			double length = solver.getSegment(segment);
+			switch (DubinsSolver.getDirection(solver.getWord(), segment)) {
+			case DubinsSolver.LEFT:
+				x += RHO * (Math.sin(rotation + length) - Math.sin(rotation));
+				y -= RHO * (Math.cos(rotation + length) - Math.cos(rotation));
+				rotation += length;
+				break;
+			case DubinsSolver.RIGHT:
+				x -= RHO * (Math.sin(rotation - length) - Math.sin(rotation));
+				y += RHO * (Math.cos(rotation - length) - Math.cos(rotation));
+				rotation -= length;
+				break;
+			default:
+				x += RHO * length * Math.cos(rotation);
+				y += RHO * length * Math.sin(rotation);
+			}
+		}
+		assertEquals(endX, x, 1e-6);
+		assertEquals(endY, y, 1e-6);
+		assertEquals(0, Math.sin((endRotation - rotation) / 2), 1e-9);
+	}
+	
+	/**
+	 * Check that the solved paths reach their end configuration, for every word.
+	 */
+	@Test
+	public void testPathsReachTheEnd() {
+		DubinsSolver solver = new DubinsSolver();
+		Random random = new Random(42);
+		int[] found = new int[6];
+		for (int i=0 ; i<20000 ; i++) {
+			double x = random.nextDouble() * 2000 - 1000, y = random.nextDouble() * 2000 - 1000, rotation = random.nextDouble() * 2 * Math.PI;
+			double range = (i % 2 == 0 ? 1000 : 4000);
+			double endX = random.nextDouble() * range, endY = random.nextDouble() * range, endRotation = random.nextDouble() * 2 * Math.PI;
+			int word = random.nextInt(6);
+			if (solver.solve(x, y, rotation, endX, endY, endRotation, RHO, 1 << word)) {
+				assertEquals(word, solver.getWord());
+				checkEndsAt(solver, x, y, rotation, endX, endY, endRotation);
+				found[word]++;
+			}
+		}
+		for (int word=0 ; word<6 ; word++)
+			assertTrue(found[word] > 0);
+	}
+	
+	/**
+	 * Check that the shortest path over all words is never longer than the shortest path with a straight segment,
+	 * 	and that the path types solve the paths with a straight segment like the solver.
+	 */
+	@Test
+	public void testAllWordsAreShortest() {
+		DubinsSolver solver = new DubinsSolver();
+		Random random = new Random(7);
+		for (int i=0 ; i<20000 ; i++) {
+			Vector3f start = new Vector3f(random.nextDouble() * 2000, random.nextDouble() * 2000, random.nextDouble() * 2 * Math.PI);
+			Vector3f end = new Vector3f(random.nextDouble() * 2000, random.nextDouble() * 2000, random.nextDouble() * 2 * Math.PI);
+			assertTrue(solver.solve(start.x, start.y, start.z, end.x, end.y, end.z, RHO, DubinsSolver.CSC_WORDS));
+			double length = solver.getLength();
+			DubinsPath2D path = new DubinsPath2D(start, end, RHO);
+			assertEquals(solver.getWord(), path.getIdentifier().ordinal());
+			assertEquals(length, path.getLength(), 0);
+			assertTrue(solver.solve(start.x, start.y, start.z, end.x, end.y, end.z, RHO, DubinsSolver.ALL_WORDS));
+			assertTrue(solver.getLength() <= length);
+		}
+	}
+	
+	/**
+	 * Check that the batch gives the same lengths as solving the paths one by one.
+	 */
+	@Test
+	public void testBatch() {
+		DubinsSolver solver = new DubinsSolver();
+		Random random = new Random(3);
+		int count = 100;
+		double[][] values = new double[6][count];
+		for (double[] array : values)
+			for (int i=0 ; i<count ; i++)
+				array[i] = random.nextDouble() * 1000;
+		int[] words = new int[count];
+		double[] lengths = new double[count];
+		solver.solve(count, values[0], values[1], values[2], values[3], values[4], values[5], RHO, DubinsSolver.ALL_WORDS, words, lengths);
+		for (int i=0 ; i<count ; i++) {
+			solver.solve(values[0][i], values[1][i], values[2][i], values[3][i], values[4][i], values[5][i], RHO, DubinsSolver.ALL_WORDS);
+			assertEquals(solver.getWord(), words[i]);
+			assertEquals(solver.getLength(), lengths[i], 0);
+		}
+	}	
+	/**
+	 * Check that paths solved with a shared solver keep their own type and length.
+	 */
+	@Test
+	public void testSharedSolver() {
+		DubinsSolver solver = new DubinsSolver();
+		Vector3f start = new Vector3f(0, 0, 0);
+		DubinsPath2D first = new DubinsPath2D(start, new Vector3f(1000, 500, 1), RHO, DubinsSolver.CSC_WORDS, solver);
+		DubinsPath2D second = new DubinsPath2D(start, new Vector3f(-300, 200, 3), RHO, DubinsSolver.CSC_WORDS, solver);
+		DubinsPath2D expected = new DubinsPath2D(start, new Vector3f(1000, 500, 1), RHO);
+		assertSame(expected.getIdentifier(), first.getIdentifier());
+		assertEquals(expected.getLength(), first.getLength(), 0);
+		for (int segment=0 ; segment<3 ; segment++)
+			assertEquals(expected.getParam(segment), first.getParam(segment), 0);
+		assertEquals(solver.getLength(), second.getLength(), 0);
+	}
+	
+	/**
+	 * Check that a turning radius that isn't positive is rejected.
+	 */
+	@Test
+	public void testNonPositiveRadius() {
+		DubinsSolver solver = new DubinsSolver();
+		for (double rho : new double[] { 0, -1, Double.NaN }) {
+			try {
+				solver.solve(0, 0, 0, 1000, 0, 0, rho, DubinsSolver.CSC_WORDS);
+				fail();
+			} catch (IllegalArgumentException exception) {
+			}
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package autopilot_planning;
 
+import autopilot_planning.DubinsPath2D.DubinsPath2DType.DubinsPath2DTypeIdentifier;
 import autopilot_utilities.Point3D;
 import interfaces.AutopilotInputs;
 
@@ -17,13 +18,13 @@ public interface PdControl {
 	 * @param inputs   The drone inputs
 	 * @param deltaTimeElapsed
 	 * @param stage   Defines in which stage the drone is (first circle, straight mid-line, or second circle)
-	 * @param dubinsIdentifier   A string saying if the drone flies to the left or to the right
+	 * @param dubinsIdentifier   The type of the path, saying if the drone flies to the left or to the right
 	 * @param positionError
 	 * @param prevPositionError
 	 * 
 	 * @return The amount of deltaHeading the drone must get to result in the requested roll
 	 */
-	static float getPdPosition(AutopilotInputs inputs, float deltaTimeElapsed, int stage, String dubinsIdentifier, float positionError, float prevPositionError) {
+	static float getPdPosition(AutopilotInputs inputs, float deltaTimeElapsed, int stage, DubinsPath2DTypeIdentifier dubinsIdentifier, float positionError, float prevPositionError) {
 
 		// TODO --> What is the weight of the dirivative-factor? --> Find correct coefficient
 		float derivativeFactor = 3.0f;
@@ -34,13 +35,13 @@ public interface PdControl {
 		float pdPositionFault = (float) (proportionalPosition(positionError) + derivativeFactor * derivativePosition(positionError, prevPositionError, deltaTimeElapsed));
 		if (pdPositionFault > 20) pdPositionFault = 20;
 		else if (pdPositionFault < -20) pdPositionFault = -20;
-		String direction = "S";
+		int direction = DubinsSolver.STRAIGHT;
 		switch (stage) {
 		case 0:
-			direction = dubinsIdentifier.substring(0,1);
+			direction = dubinsIdentifier.getDirection(0);
 			break;
 		case 2:
-			direction = dubinsIdentifier.substring(2,3);
+			direction = dubinsIdentifier.getDirection(2);
 			break;
 		}
 		
@@ -51,9 +52,9 @@ public interface PdControl {
 			System.out.println("---derivative: "+ derivativeFactor *derivativePosition(positionError, prevPositionError, deltaTimeElapsed));
 		}
 			
-		if (direction.equals("L"))
+		if (direction == DubinsSolver.LEFT)
 			pdPositionFault += 11.5;
-		else if (direction.equals("R"))
+		else if (direction == DubinsSolver.RIGHT)
 			pdPositionFault -= 11.5;
 		
 		return (float) (inputs.getHeading() + pdPositionFault*(Math.PI/180));
@@ -99,7 +100,7 @@ public interface PdControl {
 	 * 
 	 * @return   The distance between the drone and the requested path
 	 */
-	static float getDistanceFault(AutopilotInputs inputs, int stage, String dubinsIdentifier, Point3D firstCircleCenter, Point3D secondCircleCenter, Point3D firstCircleKeyPoint, Point3D secondCircleKeyPoint, Point3D secondTarget, Point3D dronePosStart) {
+	static float getDistanceFault(AutopilotInputs inputs, int stage, DubinsPath2DTypeIdentifier dubinsIdentifier, Point3D firstCircleCenter, Point3D secondCircleCenter, Point3D firstCircleKeyPoint, Point3D secondCircleKeyPoint, Point3D secondTarget, Point3D dronePosStart) {
 		switch (stage) {
 		case 0:
 			return getDistanceFaultFirstCircle(inputs, dubinsIdentifier, firstCircleCenter);
@@ -123,9 +124,8 @@ public interface PdControl {
 	 * 
 	 * @return   The distance to the first circle its circumference
 	 */
-	static float getDistanceFaultFirstCircle(AutopilotInputs inputs, String dubinsIdentifier, Point3D firstCircleCenter) {
-		String direction = dubinsIdentifier.substring(0, 1);
-		if (direction.equals("L"))
+	static float getDistanceFaultFirstCircle(AutopilotInputs inputs, DubinsPath2DTypeIdentifier dubinsIdentifier, Point3D firstCircleCenter) {
+		if (dubinsIdentifier.getDirection(0) == DubinsSolver.LEFT)
 			return -(400 - Distance.distanceToHor(firstCircleCenter, inputs));
 		else
 			return (400 - Distance.distanceToHor(firstCircleCenter, inputs));
@@ -166,9 +166,8 @@ public interface PdControl {
 	 * 
 	 * @return   The distance to the second circle its circumference
 	 */
-	static float getDistanceFaultSecondCircle(AutopilotInputs inputs, String dubinsIdentifier, Point3D secondCircleCenter) {
-		String direction = dubinsIdentifier.substring(2, 3);
-		if (direction.equals("L"))
+	static float getDistanceFaultSecondCircle(AutopilotInputs inputs, DubinsPath2DTypeIdentifier dubinsIdentifier, Point3D secondCircleCenter) {
+		if (dubinsIdentifier.getDirection(2) == DubinsSolver.LEFT)
 			return -(400 - Distance.distanceToHor(secondCircleCenter, inputs));
 		else
 			return (400 - Distance.distanceToHor(secondCircleCenter, inputs));
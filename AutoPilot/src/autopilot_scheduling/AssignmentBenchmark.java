@@ -0,0 +1,42 @@
+package autopilot_scheduling;
+
+import java.util.Random;
+
+import autopilot_utilities.Point3D;
+
+/**
+ * Compares the time and the total distance of the assignment strategies on random fleets.
+ * Usage: AssignmentBenchmark [drones] [packages] [runs]
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class AssignmentBenchmark {
+	
+	public static void main(String[] args) {
+		int drones = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int packages = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		
+		Random random = new Random(42);
+		AssignmentProblem problem = new AssignmentProblem();
+		problem.reset(drones, packages);
+		for (int i=0 ; i<drones ; i++)
+			problem.setDrone(i, new Point3D(random.nextFloat() * 20000, 0, random.nextFloat() * 20000));
+		for (int i=0 ; i<packages ; i++)
+			problem.setPackage(i, new Point3D(random.nextFloat() * 20000, 0, random.nextFloat() * 20000));
+		
+		AssignmentStrategy[] strategies = {new GreedyAssignment(), new NearestAssignment(), new HungarianAssignment()};
+		int[] assignment = new int[packages];
+		for (AssignmentStrategy strategy : strategies) {
+			for (int i=0 ; i<runs ; i++)	// Warm up
+				strategy.assign(problem, assignment);
+			long start = System.nanoTime();
+			for (int i=0 ; i<runs ; i++)
+				strategy.assign(problem, assignment);
+			double millis = (System.nanoTime() - start) / 1e6 / runs;
+			System.out.println(strategy.getClass().getSimpleName() + ": " + millis + " ms, total distance " + problem.totalCost(assignment));
+		}
+	}
+	
+}
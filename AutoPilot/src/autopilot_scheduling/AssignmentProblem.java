@@ -0,0 +1,86 @@
+package autopilot_scheduling;
+
+import autopilot_utilities.Point3D;
+
+/**
+ * A class of assignment problems between free drones and waiting packages.
+ * 	The cost of sending a drone to a package is the distance between the drone and the package's pickup point.
+ * 	The arrays are kept between problems, so filling in a new problem doesn't allocate once they are large enough.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class AssignmentProblem {
+	
+	private double[] droneX = new double[0], droneY = new double[0], droneZ = new double[0];
+	private double[] packageX = new double[0], packageY = new double[0], packageZ = new double[0];
+	private int drones, packages;
+	
+	/**
+	 * Start a new problem with the given amount of drones and packages.
+	 */
+	public void reset(int drones, int packages) {
+		if (droneX.length < drones) {
+			droneX = new double[drones];
+			droneY = new double[drones];
+			droneZ = new double[drones];
+		}
+		if (packageX.length < packages) {
+			packageX = new double[packages];
+			packageY = new double[packages];
+			packageZ = new double[packages];
+		}
+		this.drones = drones;
+		this.packages = packages;
+	}
+	
+	/**
+	 * Set the location of the given drone.
+	 */
+	public void setDrone(int drone, Point3D location) {
+		droneX[drone] = location.getX();
+		droneY[drone] = location.getY();
+		droneZ[drone] = location.getZ();
+	}
+	
+	/**
+	 * Set the pickup point of the given package.
+	 */
+	public void setPackage(int pack, Point3D pickup) {
+		packageX[pack] = pickup.getX();
+		packageY[pack] = pickup.getY();
+		packageZ[pack] = pickup.getZ();
+	}
+	
+	public int getDrones() {
+		return drones;
+	}
+	
+	public int getPackages() {
+		return packages;
+	}
+	
+	/**
+	 * Returns the cost of sending the given drone to the given package.
+	 */
+	public double cost(int pack, int drone) {
+		double dx = droneX[drone] - packageX[pack];
+		double dy = droneY[drone] - packageY[pack];
+		double dz = droneZ[drone] - packageZ[pack];
+		return Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+	
+	/**
+	 * Returns the total cost of the given assignment.
+	 * 
+	 * @param 	assignment
+	 * 			The drone of every package, or -1 if the package has no drone.
+	 */
+	public double totalCost(int[] assignment) {
+		double total = 0;
+		for (int pack=0 ; pack<packages ; pack++)
+			if (assignment[pack] >= 0)
+				total += cost(pack, assignment[pack]);
+		return total;
+	}
+}
@@ -0,0 +1,23 @@
+package autopilot_scheduling;
+
+/**
+ * An interface of strategies to assign free drones to waiting packages.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public interface AssignmentStrategy {
+	
+	/**
+	 * Assign the drones of the given problem to its packages.
+	 * 	Every drone gets at most one package and min(drones, packages) packages are assigned.
+	 * 
+	 * @param 	problem
+	 * 			The problem to solve.
+	 * @param 	assignment
+	 * 			Filled with the drone of every package, or -1 if the package has no drone.
+	 * 			Its length is at least the amount of packages.
+	 */
+	public void assign(AssignmentProblem problem, int[] assignment);
+	
+}
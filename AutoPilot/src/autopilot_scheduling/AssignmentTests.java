@@ -0,0 +1,118 @@
+package autopilot_scheduling;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import autopilot_utilities.Point3D;
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the assignment strategies.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class AssignmentTests extends TestCase {
+	
+	/**
+	 * Fill the given problem with random drones and packages.
+	 */
+	private static void randomProblem(AssignmentProblem problem, Random random, int drones, int packages) {
+		problem.reset(drones, packages);
+		for (int i=0 ; i<drones ; i++)
+			problem.setDrone(i, new Point3D(random.nextFloat() * 10000, 0, random.nextFloat() * 10000));
+		for (int i=0 ; i<packages ; i++)
+			problem.setPackage(i, new Point3D(random.nextFloat() * 10000, 0, random.nextFloat() * 10000));
+	}
+	
+	/**
+	 * Returns the lowest total cost over all assignments of min(drones, packages) pairs.
+	 */
+	private static double bruteForce(AssignmentProblem problem, int pack, boolean[] taken, int free) {
+		if (pack == problem.getPackages())
+			return 0;
+		double best = Double.POSITIVE_INFINITY;
+		if (problem.getPackages() - pack > free)	// This package may stay without a drone
+			best = bruteForce(problem, pack + 1, taken, free);
+		if (free == 0)
+			return best;
+		for (int drone=0 ; drone<problem.getDrones() ; drone++) {
+			if (!taken[drone]) {
+				taken[drone] = true;
+				best = Math.min(best, problem.cost(pack, drone) + bruteForce(problem, pack + 1, taken, free - 1));
+				taken[drone] = false;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Check that the given assignment gives every drone at most one package and assigns min(drones, packages) packages.
+	 */
+	private static void checkValid(AssignmentProblem problem, int[] assignment) {
+		boolean[] taken = new boolean[problem.getDrones()];
+		int assigned = 0;
+		for (int pack=0 ; pack<problem.getPackages() ; pack++) {
+			if (assignment[pack] >= 0) {
+				assertFalse(taken[assignment[pack]]);
+				taken[assignment[pack]] = true;
+				assigned++;
+			}
+		}
+		assertEquals(Math.min(problem.getDrones(), problem.getPackages()), assigned);
+	}
+
+	@Test
+	public void testHungarianIsOptimal() {
+		Random random = new Random(7);
+		AssignmentProblem problem = new AssignmentProblem();
+		HungarianAssignment hungarian = new HungarianAssignment();
+		int[] assignment = new int[8];
+		for (int test=0 ; test<200 ; test++) {
+			int drones = 1 + random.nextInt(6), packages = 1 + random.nextInt(6);
+			randomProblem(problem, random, drones, packages);
+			hungarian.assign(problem, assignment);
+			checkValid(problem, assignment);
+			double optimum = bruteForce(problem, 0, new boolean[drones], Math.min(drones, packages));
+			assertEquals(optimum, problem.totalCost(assignment), 1e-6 * optimum);
+		}
+	}
+	
+	@Test
+	public void testGreedyComparesDoubleCosts() {
+		AssignmentProblem problem = new AssignmentProblem();
+		problem.reset(2, 1);
+		problem.setPackage(0, new Point3D(0, 0, 0));
+		// Both costs round to the same float, the second drone is nearer
+		problem.setDrone(0, new Point3D(10000.0004, 0, 0));
+		problem.setDrone(1, new Point3D(10000.0001, 0, 0));
+		assertEquals((float) problem.cost(0, 0), (float) problem.cost(0, 1));
+		int[] assignment = new int[1];
+		new GreedyAssignment().assign(problem, assignment);
+		assertEquals(1, assignment[0]);
+		
+		// Pairs with the same cost keep the order of the drones
+		problem.setDrone(0, new Point3D(5, 0, 0));
+		problem.setDrone(1, new Point3D(0, 0, 5));
+		new GreedyAssignment().assign(problem, assignment);
+		assertEquals(0, assignment[0]);
+	}
+	
+	@Test
+	public void testStrategiesAreValid() {
+		Random random = new Random(11);
+		AssignmentProblem problem = new AssignmentProblem();
+		AssignmentStrategy[] strategies = {new GreedyAssignment(), new NearestAssignment(2), new HungarianAssignment()};
+		int[] assignment = new int[60];
+		for (int test=0 ; test<50 ; test++) {
+			int drones = random.nextInt(60), packages = random.nextInt(60);
+			randomProblem(problem, random, drones, packages);
+			for (AssignmentStrategy strategy : strategies) {
+				strategy.assign(problem, assignment);
+				checkValid(problem, assignment);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,80 @@
+package autopilot_scheduling;
+
+import java.util.Arrays;
+
+/**
+ * A class of greedy assignments. All pairs of drones and packages are sorted by their cost and
+ * 	the cheapest pair of which both are still free is assigned first.
+ * 	Pairs with the same cost keep the order of the packages, and then of the drones.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class GreedyAssignment implements AssignmentStrategy {
+	
+	// The cost of every pair, indexed by package*drones + drone
+	private double[] costs = new double[0];
+	// The pair indices sorted by their cost, and the buffer to merge them in
+	private int[] pairs = new int[0], buffer = new int[0];
+	private boolean[] droneTaken = new boolean[0];
+
+	@Override
+	public void assign(AssignmentProblem problem, int[] assignment) {
+		int drones = problem.getDrones(), packages = problem.getPackages();
+		int size = drones * packages;
+		if (pairs.length < size) {
+			costs = new double[size];
+			pairs = new int[size];
+			buffer = new int[size];
+		}
+		if (droneTaken.length < drones)
+			droneTaken = new boolean[drones];
+		Arrays.fill(droneTaken, 0, drones, false);
+		Arrays.fill(assignment, 0, packages, -1);
+		
+		for (int pack=0 ; pack<packages ; pack++) {
+			for (int drone=0 ; drone<drones ; drone++) {
+				costs[pack*drones + drone] = problem.cost(pack, drone);
+				pairs[pack*drones + drone] = pack*drones + drone;
+			}
+		}
+		sort(size);
+		
+		int assigned = 0;
+		for (int i=0 ; i<size && assigned<Math.min(drones, packages) ; i++) {
+			int pair = pairs[i];
+			int pack = pair / drones, drone = pair % drones;
+			if (assignment[pack] < 0 && !droneTaken[drone]) {
+				assignment[pack] = drone;
+				droneTaken[drone] = true;
+				assigned++;
+			}
+		}
+	}
+	
+	/**
+	 * Sort the first given amount of pair indices by their cost, with a bottom-up merge sort.
+	 * 	The sort is stable, so pairs with the same cost stay in the order of their indices.
+	 */
+	private void sort(int size) {
+		int[] from = pairs, to = buffer;
+		for (int width=1 ; width<size ; width*=2) {
+			for (int start=0 ; start<size ; start+=2*width) {
+				int middle = Math.min(start + width, size), end = Math.min(start + 2*width, size);
+				int left = start, right = middle;
+				for (int i=start ; i<end ; i++) {
+					if (left < middle && (right >= end || costs[from[left]] <= costs[from[right]]))
+						to[i] = from[left++];
+					else
+						to[i] = from[right++];
+				}
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		pairs = from;
+		buffer = to;
+	}
+	
+}
@@ -0,0 +1,95 @@
+package autopilot_scheduling;
+
+import java.util.Arrays;
+
+/**
+ * A class of optimal assignments, which minimise the total distance the drones fly to their packages.
+ * 	This is the Hungarian method with shortest augmenting paths, which adds the rows (the smaller side
+ * 	of drones and packages) one at a time in O(rows^2 * columns).
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class HungarianAssignment implements AssignmentStrategy {
+	
+	// Potentials of the rows and columns, the row matched to every column (1-based, 0 is free)
+	private double[] u = new double[1], v = new double[1], minv = new double[1];
+	private int[] match = new int[1], way = new int[1];
+	private boolean[] used = new boolean[1];
+
+	@Override
+	public void assign(AssignmentProblem problem, int[] assignment) {
+		int drones = problem.getDrones(), packages = problem.getPackages();
+		Arrays.fill(assignment, 0, packages, -1);
+		if (drones == 0 || packages == 0)
+			return;
+		
+		// Rows are packages when there are not more packages than drones, drones otherwise
+		boolean packageRows = packages <= drones;
+		int rows = Math.min(drones, packages), columns = Math.max(drones, packages);
+		if (u.length < rows + 1)
+			u = new double[rows + 1];
+		if (v.length < columns + 1) {
+			v = new double[columns + 1];
+			minv = new double[columns + 1];
+			match = new int[columns + 1];
+			way = new int[columns + 1];
+			used = new boolean[columns + 1];
+		}
+		Arrays.fill(u, 0, rows + 1, 0);
+		Arrays.fill(v, 0, columns + 1, 0);
+		Arrays.fill(match, 0, columns + 1, 0);
+		
+		for (int row=1 ; row<=rows ; row++) {
+			match[0] = row;
+			int column0 = 0;
+			Arrays.fill(minv, 0, columns + 1, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, 0, columns + 1, false);
+			do {
+				used[column0] = true;
+				int row0 = match[column0], column1 = 0;
+				double delta = Double.POSITIVE_INFINITY;
+				for (int column=1 ; column<=columns ; column++) {
+					if (!used[column]) {
+						double cost = (packageRows ? problem.cost(row0-1, column-1) : problem.cost(column-1, row0-1));
+						double current = cost - u[row0] - v[column];
+						if (current < minv[column]) {
+							minv[column] = current;
+							way[column] = column0;
+						}
+						if (minv[column] < delta) {
+							delta = minv[column];
+							column1 = column;
+						}
+					}
+				}
+				for (int column=0 ; column<=columns ; column++) {
+					if (used[column]) {
+						u[match[column]] += delta;
+						v[column] -= delta;
+					} else {
+						minv[column] -= delta;
+					}
+				}
+				column0 = column1;
+			} while (match[column0] != 0);
+			
+			// Flip the augmenting path
+			do {
+				int column1 = way[column0];
+				match[column0] = match[column1];
+				column0 = column1;
+			} while (column0 != 0);
+		}
+		
+		for (int column=1 ; column<=columns ; column++) {
+			if (match[column] != 0) {
+				if (packageRows)
+					assignment[match[column]-1] = column-1;
+				else
+					assignment[column-1] = match[column]-1;
+			}
+		}
+	}
+	
+}
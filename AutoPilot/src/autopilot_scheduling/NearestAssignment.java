@@ -0,0 +1,136 @@
+package autopilot_scheduling;
+
+import java.util.Arrays;
+
+/**
+ * A class of greedy assignments that only sort the nearest drones of every package.
+ * 	A bounded heap keeps the k nearest drones of every package, those candidate pairs are sorted and
+ * 	assigned greedily. Packages whose candidates were all taken get the nearest drone that is still free.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class NearestAssignment implements AssignmentStrategy {
+	
+	/**
+	 * Create a nearest assignment with the given amount of candidate drones per package.
+	 */
+	public NearestAssignment(int candidates) {
+		if (candidates < 1)
+			throw new IllegalArgumentException("At least one candidate drone per package is needed");
+		this.candidates = candidates;
+		this.heapCost = new float[candidates];
+		this.heapDrone = new int[candidates];
+	}
+	
+	public NearestAssignment() {
+		this(8);
+	}
+	
+	public int getCandidates() {
+		return candidates;
+	}
+	
+	private final int candidates;
+	
+	// Max-heap on the cost of the nearest drones of one package
+	private final float[] heapCost;
+	private final int[] heapDrone;
+	
+	// Candidate pairs packed as the cost (float bits) and the pair index
+	private long[] pairs = new long[0];
+	private boolean[] droneTaken = new boolean[0];
+
+	@Override
+	public void assign(AssignmentProblem problem, int[] assignment) {
+		int drones = problem.getDrones(), packages = problem.getPackages();
+		int k = Math.min(candidates, drones);
+		if (pairs.length < packages * k)
+			pairs = new long[packages * k];
+		if (droneTaken.length < drones)
+			droneTaken = new boolean[drones];
+		Arrays.fill(droneTaken, 0, drones, false);
+		Arrays.fill(assignment, 0, packages, -1);
+		
+		// Keep the k nearest drones of every package
+		int size = 0;
+		for (int pack=0 ; pack<packages ; pack++) {
+			int heapSize = 0;
+			for (int drone=0 ; drone<drones ; drone++) {
+				float cost = (float) problem.cost(pack, drone);
+				if (heapSize < k) {
+					heapCost[heapSize] = cost;
+					heapDrone[heapSize] = drone;
+					siftUp(heapSize++);
+				} else if (cost < heapCost[0]) {
+					heapCost[0] = cost;
+					heapDrone[0] = drone;
+					siftDown(0, heapSize);
+				}
+			}
+			for (int i=0 ; i<heapSize ; i++)
+				pairs[size++] = ((long) Float.floatToIntBits(heapCost[i]) << 32) | (pack*drones + heapDrone[i]);
+		}
+		Arrays.sort(pairs, 0, size);
+		
+		int assigned = 0, target = Math.min(drones, packages);
+		for (int i=0 ; i<size && assigned<target ; i++) {
+			int pair = (int) pairs[i];
+			int pack = pair / drones, drone = pair % drones;
+			if (assignment[pack] < 0 && !droneTaken[drone]) {
+				assignment[pack] = drone;
+				droneTaken[drone] = true;
+				assigned++;
+			}
+		}
+		
+		// Packages that lost all their candidates take the nearest free drone
+		for (int pack=0 ; pack<packages && assigned<target ; pack++) {
+			if (assignment[pack] >= 0)
+				continue;
+			int best = -1;
+			double bestCost = Double.POSITIVE_INFINITY;
+			for (int drone=0 ; drone<drones ; drone++) {
+				if (!droneTaken[drone] && problem.cost(pack, drone) < bestCost) {
+					bestCost = problem.cost(pack, drone);
+					best = drone;
+				}
+			}
+			assignment[pack] = best;
+			droneTaken[best] = true;
+			assigned++;
+		}
+	}
+	
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i-1) / 2;
+			if (heapCost[parent] >= heapCost[i])
+				return;
+			swap(i, parent);
+			i = parent;
+		}
+	}
+	
+	private void siftDown(int i, int size) {
+		while (2*i + 1 < size) {
+			int child = 2*i + 1;
+			if (child + 1 < size && heapCost[child + 1] > heapCost[child])
+				child++;
+			if (heapCost[i] >= heapCost[child])
+				return;
+			swap(i, child);
+			i = child;
+		}
+	}
+	
+	private void swap(int i, int j) {
+		float cost = heapCost[i];
+		heapCost[i] = heapCost[j];
+		heapCost[j] = cost;
+		int drone = heapDrone[i];
+		heapDrone[i] = heapDrone[j];
+		heapDrone[j] = drone;
+	}
+	
+}
@@ -1,51 +1,156 @@
 package autopilot_scheduling;
 
-import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import autopilot_utilities.Point3D;
 import interfaces.Package;
 
+/**
+ * A class of package schedulers, which plan multi-package routes for the free drones on a background thread.
+ * 	The scheduler starts from the routes of the previous snapshot, completed greedily with the new packages,
+ * 	and keeps improving them with a large neighbourhood search until its time budget for the snapshot is spent.
+ * 	Every better plan is published right away, so the plans get better with a larger budget, also when new
+ * 	snapshots keep coming in. Submitting snapshots and taking plans never blocks the caller.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
 public class PackageScheduler implements Runnable {
-
+	
 	/**
-	 * Add the given package to the list of packages to be delivered.
-	 * 
-	 * @param 	Package
-	 * 			The package to add.
+	 * Submit a new snapshot to plan for. A snapshot that wasn't picked up yet is replaced.
 	 */
-	public void addPackage(Package p) {
-		packages.add(p);
+	public void submit(SchedulingSnapshot snapshot) {
+		input.set(snapshot);
+		Thread worker = thread;
+		if (worker != null)
+			LockSupport.unpark(worker);
 	}
 	
 	/**
-	 * Registers the packages to be delivered.
+	 * Returns the best plan published since the last call, or null if there is none.
 	 */
-	private ArrayList<Package> packages = new ArrayList<Package>();
+	public SchedulePlan takePlan() {
+		return plan.getAndSet(null);
+	}
+	
+	private final AtomicReference<SchedulingSnapshot> input = new AtomicReference<SchedulingSnapshot>();
+	private final AtomicReference<SchedulePlan> plan = new AtomicReference<SchedulePlan>();
 	
 	/**
-	 * Reserve the given drone.
-	 * 
-	 * @param drone The index of the drone to reserve.
+	 * Set the time (in nanoseconds) the scheduler may search for better plans after a snapshot was submitted.
+	 */
+	public void setTimeBudget(long timeBudget) {
+		if (timeBudget < 0)
+			throw new IllegalArgumentException("The time budget can't be negative");
+		this.timeBudget = timeBudget;
+	}
+	
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	
+	private volatile long timeBudget = 50000000;
+	
+	/**
+	 * Start planning on a new daemon thread.
 	 */
-	public void addReservedDrone(int drone) {
-		drones.add(drone);
+	public synchronized void start() {
+		if (thread != null)
+			throw new IllegalStateException("The package scheduler is already running");
+		running = true;
+		thread = new Thread(this, "Package scheduler");
+		thread.setDaemon(true);
+		thread.start();
 	}
 	
 	/**
-	 * Registers the indices of available/reserved drones.
+	 * Stop the planning thread and wait until it has finished its current step,
+	 * 	so it doesn't take snapshots or publish plans anymore when this returns.
 	 */
-	private ArrayList<Integer> drones = new ArrayList<Integer>();
+	public synchronized void stop() {
+		Thread worker = thread;
+		running = false;
+		thread = null;
+		if (worker == null || worker == Thread.currentThread())
+			return;
+		LockSupport.unpark(worker);
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
 	
+	private volatile Thread thread = null;
+	private volatile boolean running = false;
+	
+	/**
+	 * Plan until this scheduler is stopped. Every new snapshot starts from the routes of
+	 * 	the previous one, so the search keeps what it found while the snapshots change.
+	 */
 	@Override
 	public void run() {
-		
-		// Set up constraints
-		// Launch (M)ILP
-		// Set time limit
-		
+		RouteSearch search = null;
+		long deadline = 0;
+		long seed = 0;
+		while (running) {
+			SchedulingSnapshot snapshot = input.getAndSet(null);
+			if (snapshot != null) {
+				search = new RouteSearch(snapshot, seed++, search);
+				deadline = System.nanoTime() + timeBudget;
+				plan.set(search.makePlan());
+			}
+			if (search == null || !search.canImprove() || System.nanoTime() - deadline > 0) {
+				LockSupport.parkNanos(this, 1000000);
+				continue;
+			}
+			if (search.improve())
+				plan.set(search.makePlan());
+		}
+	}
+	
+	/**
+	 * Plan for the given snapshot on the calling thread.
+	 * 
+	 * @param 	snapshot
+	 * 			The snapshot to plan for.
+	 * @param 	timeBudget
+	 * 			The time (in nanoseconds) to search for better plans.
+	 * @return	The best plan that was found.
+	 */
+	public static SchedulePlan plan(SchedulingSnapshot snapshot, long timeBudget) {
+		RouteSearch search = new RouteSearch(snapshot, 0, null);
+		long deadline = System.nanoTime() + timeBudget;
+		while (search.canImprove() && System.nanoTime() - deadline < 0)
+			search.improve();
+		return search.makePlan();
 	}
 
-	// Classic tests
+	// Shows how the plans get better with the time budget
+	// Usage: PackageScheduler [drones] [packages]
 	public static void main(String[] args) {
+		int drones = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int packages = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		
+		Random random = new Random(42);
+		SchedulingSnapshot snapshot = new SchedulingSnapshot(drones, packages);
+		for (int i=0 ; i<drones ; i++)
+			snapshot.setDrone(i, i, new Point3D(random.nextFloat() * 20000, 0, random.nextFloat() * 20000));
+		for (int i=0 ; i<packages ; i++)
+			snapshot.setPackage(i, new Package(), new Point3D(random.nextFloat() * 20000, 0, random.nextFloat() * 20000),
+					new Point3D(random.nextFloat() * 20000, 0, random.nextFloat() * 20000));
 		
+		long[] budgets = {0, 1000000, 10000000, 100000000, 1000000000};
+		for (long budget : budgets)
+			System.out.println("Budget " + budget / 1000000 + " ms: cost " + plan(snapshot, budget).getCost());
 	}
 	
-}
\ No newline at end of file
+}
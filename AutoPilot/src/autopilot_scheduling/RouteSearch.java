@@ -0,0 +1,302 @@
+package autopilot_scheduling;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import interfaces.Package;
+
+/**
+ * A class of large neighbourhood searches over the routes of the drones of one snapshot.
+ * 	The cost of a plan is the sum of the distances flown until each package is delivered, so
+ * 	a package that is picked up later in a route also counts the packages before it.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+class RouteSearch {
+	
+	// The maximal amount of packages that is removed and inserted again in one step
+	private static final int MAX_REMOVED = 10;
+	
+	/**
+	 * Create a search for the given snapshot.
+	 * 
+	 * @param 	previous
+	 * 			The search for the previous snapshot, its routes are kept for the drones and packages
+	 * 			that are still in the given snapshot. Null to start from a greedy plan.
+	 */
+	RouteSearch(SchedulingSnapshot snapshot, long seed, RouteSearch previous) {
+		this.snapshot = snapshot;
+		this.random = new Random(seed);
+		drones = snapshot.getDrones();
+		packages = snapshot.getPackages();
+		
+		approach = new double[drones * packages];
+		for (int drone=0 ; drone<drones ; drone++)
+			for (int pack=0 ; pack<packages ; pack++)
+				approach[drone*packages + pack] = snapshot.droneToPickup(drone, pack);
+		delivery = new double[packages];
+		link = new double[packages * packages];
+		for (int from=0 ; from<packages ; from++) {
+			delivery[from] = snapshot.delivery(from);
+			for (int to=0 ; to<packages ; to++)
+				link[from*packages + to] = snapshot.dropoffToPickup(from, to);
+		}
+		
+		route = new int[drones][packages];
+		length = new int[drones];
+		routeCost = new double[drones];
+		backupRoute = new int[drones][packages];
+		backupLength = new int[drones];
+		backupCost = new double[drones];
+		touched = new boolean[drones];
+		touchedRoutes = new int[drones];
+		routeOf = new int[packages];
+		removed = new int[Math.min(packages, MAX_REMOVED)];
+		
+		// Keep the previous routes, every other package in order goes where it costs the least
+		boolean[] planned = new boolean[packages];
+		if (previous != null)
+			keepRoutes(previous, planned);
+		for (int pack=0 ; pack<packages && drones>0 ; pack++)
+			if (!planned[pack])
+				insertBest(pack);
+		for (int drone=0 ; drone<drones ; drone++) {
+			routeCost[drone] = computeRouteCost(drone);
+			total += routeCost[drone];
+		}
+		touchedCount = 0;
+		for (int drone=0 ; drone<drones ; drone++)
+			touched[drone] = false;
+	}
+	
+	private final SchedulingSnapshot snapshot;
+	private final Random random;
+	private final int drones, packages;
+	
+	// Distances from the drones to the pickups, of the deliveries and from the drop-offs to the pickups
+	private final double[] approach, delivery, link;
+	
+	// The current plan
+	private final int[][] route;
+	private final int[] length;
+	private final double[] routeCost;
+	private final int[] routeOf;
+	private double total;
+	
+	// The routes as they were before the current step
+	private final int[][] backupRoute;
+	private final int[] backupLength;
+	private final double[] backupCost;
+	private final boolean[] touched;
+	private final int[] touchedRoutes;
+	private int touchedCount;
+	
+	private final int[] removed;
+	
+	/**
+	 * Give the drones of this search the packages they had in the routes of the given search,
+	 * 	in the same order, as far as they are in the snapshot of this search.
+	 */
+	private void keepRoutes(RouteSearch previous, boolean[] planned) {
+		HashMap<Package, Integer> packageIndices = new HashMap<Package, Integer>();
+		for (int pack=0 ; pack<packages ; pack++)
+			packageIndices.put(snapshot.getPackage(pack), pack);
+		HashMap<Integer, Integer> droneIndices = new HashMap<Integer, Integer>();
+		for (int drone=0 ; drone<drones ; drone++)
+			droneIndices.put(snapshot.getDroneId(drone), drone);
+		for (int old=0 ; old<previous.drones ; old++) {
+			Integer drone = droneIndices.get(previous.snapshot.getDroneId(old));
+			if (drone == null)
+				continue;
+			for (int position=0 ; position<previous.length[old] ; position++) {
+				Integer pack = packageIndices.get(previous.snapshot.getPackage(previous.route[old][position]));
+				if (pack == null || planned[pack])
+					continue;
+				route[drone][length[drone]++] = pack;
+				routeOf[pack] = drone;
+				planned[pack] = true;
+			}
+		}
+	}
+	
+	/**
+	 * Returns whether or not there is anything to improve.
+	 */
+	boolean canImprove() {
+		return drones > 1 && packages > 0 || drones > 0 && packages > 1;
+	}
+	
+	double getCost() {
+		return total;
+	}
+	
+	/**
+	 * Remove some related or random packages and insert them again where they cost the least.
+	 * 	The new plan is kept if it is better.
+	 * 
+	 * @return	True if and only if the plan improved.
+	 */
+	boolean improve() {
+		if (!canImprove())
+			return false;
+		
+		// Destroy
+		int count = 1 + random.nextInt(removed.length);
+		if (random.nextBoolean()) {
+			for (int i=0 ; i<count ; i++) {
+				int pack;
+				do {
+					pack = random.nextInt(packages);
+				} while (contains(removed, i, pack));
+				removed[i] = pack;
+			}
+		} else {
+			// The seed and the packages which are picked up nearest to where it is dropped off
+			removed[0] = random.nextInt(packages);
+			for (int i=1 ; i<count ; i++) {
+				int best = -1;
+				for (int pack=0 ; pack<packages ; pack++)
+					if (!contains(removed, i, pack) && (best < 0 || link[removed[0]*packages + pack] < link[removed[0]*packages + best]))
+						best = pack;
+				removed[i] = best;
+			}
+		}
+		for (int i=0 ; i<count ; i++)
+			remove(removed[i]);
+		
+		// Repair in a random order
+		for (int i=count-1 ; i>0 ; i--) {
+			int j = random.nextInt(i + 1);
+			int pack = removed[i];
+			removed[i] = removed[j];
+			removed[j] = pack;
+		}
+		for (int i=0 ; i<count ; i++)
+			insertBest(removed[i]);
+		
+		double newTotal = total;
+		for (int i=0 ; i<touchedCount ; i++) {
+			int drone = touchedRoutes[i];
+			routeCost[drone] = computeRouteCost(drone);
+			newTotal += routeCost[drone] - backupCost[drone];
+		}
+		
+		boolean improved = newTotal < total - 1e-6;
+		if (improved) {
+			total = newTotal;
+		} else {
+			for (int i=0 ; i<touchedCount ; i++) {
+				int drone = touchedRoutes[i];
+				System.arraycopy(backupRoute[drone], 0, route[drone], 0, backupLength[drone]);
+				length[drone] = backupLength[drone];
+				routeCost[drone] = backupCost[drone];
+				for (int position=0 ; position<length[drone] ; position++)
+					routeOf[route[drone][position]] = drone;
+			}
+		}
+		for (int i=0 ; i<touchedCount ; i++)
+			touched[touchedRoutes[i]] = false;
+		touchedCount = 0;
+		return improved;
+	}
+	
+	/**
+	 * Returns a plan with the current routes.
+	 */
+	SchedulePlan makePlan() {
+		int[][] routes = new int[drones][];
+		for (int drone=0 ; drone<drones ; drone++) {
+			routes[drone] = new int[length[drone]];
+			System.arraycopy(route[drone], 0, routes[drone], 0, length[drone]);
+		}
+		return new SchedulePlan(snapshot, routes, total);
+	}
+	
+	private static boolean contains(int[] array, int size, int value) {
+		for (int i=0 ; i<size ; i++)
+			if (array[i] == value)
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Save the given route before it is changed in the current step.
+	 */
+	private void touch(int drone) {
+		if (touched[drone])
+			return;
+		touched[drone] = true;
+		touchedRoutes[touchedCount++] = drone;
+		System.arraycopy(route[drone], 0, backupRoute[drone], 0, length[drone]);
+		backupLength[drone] = length[drone];
+		backupCost[drone] = routeCost[drone];
+	}
+	
+	private void remove(int pack) {
+		int drone = routeOf[pack];
+		touch(drone);
+		int position = 0;
+		while (route[drone][position] != pack)
+			position++;
+		System.arraycopy(route[drone], position + 1, route[drone], position, length[drone] - position - 1);
+		length[drone]--;
+	}
+	
+	/**
+	 * Insert the given package at the position in any route where it adds the least to the cost.
+	 */
+	private void insertBest(int pack) {
+		int bestDrone = -1, bestPosition = -1;
+		double bestDelta = Double.POSITIVE_INFINITY;
+		for (int drone=0 ; drone<drones ; drone++) {
+			double time = 0;
+			int previous = -1;
+			for (int position=0 ; position<=length[drone] ; position++) {
+				int next = (position < length[drone] ? route[drone][position] : -1);
+				double timePack = time + leg(drone, previous, pack) + delivery[pack];
+				double delta = timePack;
+				double oldLeg = 0;
+				if (next >= 0) {
+					oldLeg = leg(drone, previous, next);
+					double shift = timePack + link[pack*packages + next] - time - oldLeg;
+					delta += (length[drone] - position) * shift;
+				}
+				if (delta < bestDelta) {
+					bestDelta = delta;
+					bestDrone = drone;
+					bestPosition = position;
+				}
+				if (next >= 0) {
+					time += oldLeg + delivery[next];
+					previous = next;
+				}
+			}
+		}
+		touch(bestDrone);
+		int[] r = route[bestDrone];
+		System.arraycopy(r, bestPosition, r, bestPosition + 1, length[bestDrone] - bestPosition);
+		r[bestPosition] = pack;
+		length[bestDrone]++;
+		routeOf[pack] = bestDrone;
+	}
+	
+	/**
+	 * Returns the distance the given drone flies to the given package after the previous package (-1 if none).
+	 */
+	private double leg(int drone, int previous, int pack) {
+		return (previous < 0 ? approach[drone*packages + pack] : link[previous*packages + pack]);
+	}
+	
+	private double computeRouteCost(int drone) {
+		double time = 0, cost = 0;
+		int previous = -1;
+		for (int position=0 ; position<length[drone] ; position++) {
+			int pack = route[drone][position];
+			time += leg(drone, previous, pack) + delivery[pack];
+			cost += time;
+			previous = pack;
+		}
+		return cost;
+	}
+}
@@ -0,0 +1,50 @@
+package autopilot_scheduling;
+
+/**
+ * A class of plans made by the package scheduler. Every drone of a snapshot gets a route,
+ * 	the packages it picks up and delivers one after the other.
+ * 	Plans are never changed after they are published.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class SchedulePlan {
+	
+	SchedulePlan(SchedulingSnapshot snapshot, int[][] routes, double cost) {
+		this.snapshot = snapshot;
+		this.routes = routes;
+		this.cost = cost;
+	}
+	
+	private final SchedulingSnapshot snapshot;
+	private final int[][] routes;
+	private final double cost;
+	
+	/**
+	 * Returns the snapshot this plan was made for.
+	 */
+	public SchedulingSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Returns the amount of packages in the route of the given drone.
+	 */
+	public int getRouteLength(int drone) {
+		return routes[drone].length;
+	}
+	
+	/**
+	 * Returns the package (the index in the snapshot) at the given position in the route of the given drone.
+	 */
+	public int getRoutePackage(int drone, int position) {
+		return routes[drone][position];
+	}
+	
+	/**
+	 * Returns the sum of the distances the drones fly until every package is delivered.
+	 */
+	public double getCost() {
+		return cost;
+	}
+}
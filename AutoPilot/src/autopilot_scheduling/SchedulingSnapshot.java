@@ -0,0 +1,125 @@
+package autopilot_scheduling;
+
+import autopilot_utilities.Point3D;
+import interfaces.Package;
+
+/**
+ * A class of snapshots of the free drones and waiting packages, which the package scheduler plans for.
+ * 	A snapshot is filled in by the thread that submits it and only read afterwards.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class SchedulingSnapshot {
+	
+	/**
+	 * Create a snapshot with the given amount of drones and packages.
+	 */
+	public SchedulingSnapshot(int drones, int packages) {
+		this.droneIds = new int[drones];
+		this.droneX = new double[drones];
+		this.droneY = new double[drones];
+		this.droneZ = new double[drones];
+		this.packages = new Package[packages];
+		this.pickupX = new double[packages];
+		this.pickupY = new double[packages];
+		this.pickupZ = new double[packages];
+		this.dropoffX = new double[packages];
+		this.dropoffY = new double[packages];
+		this.dropoffZ = new double[packages];
+	}
+	
+	private final int[] droneIds;
+	private final double[] droneX, droneY, droneZ;
+	private final Package[] packages;
+	private final double[] pickupX, pickupY, pickupZ;
+	private final double[] dropoffX, dropoffY, dropoffZ;
+	
+	/**
+	 * Set the given drone of this snapshot.
+	 * 
+	 * @param 	drone
+	 * 			The index of the drone in this snapshot.
+	 * @param 	id
+	 * 			The index of the drone in the autopilot module.
+	 * @param 	location
+	 * 			The location of the drone.
+	 */
+	public void setDrone(int drone, int id, Point3D location) {
+		droneIds[drone] = id;
+		droneX[drone] = location.getX();
+		droneY[drone] = location.getY();
+		droneZ[drone] = location.getZ();
+	}
+	
+	/**
+	 * Set the given package of this snapshot, with the points where it is picked up and dropped off.
+	 */
+	public void setPackage(int pack, Package p, Point3D pickup, Point3D dropoff) {
+		packages[pack] = p;
+		pickupX[pack] = pickup.getX();
+		pickupY[pack] = pickup.getY();
+		pickupZ[pack] = pickup.getZ();
+		dropoffX[pack] = dropoff.getX();
+		dropoffY[pack] = dropoff.getY();
+		dropoffZ[pack] = dropoff.getZ();
+	}
+	
+	/**
+	 * Use the given trajectory lengths for the flights between the airports of the packages
+	 * 	instead of straight lines. The drones still fly in a straight line to their first package.
+	 */
+	public void setTrajectoryLengths(TrajectoryCostMatrix trajectoryLengths) {
+		this.trajectoryLengths = trajectoryLengths;
+	}
+	
+	private TrajectoryCostMatrix trajectoryLengths = null;
+	
+	public int getDrones() {
+		return droneIds.length;
+	}
+	
+	public int getPackages() {
+		return packages.length;
+	}
+	
+	/**
+	 * Returns the index in the autopilot module of the given drone.
+	 */
+	public int getDroneId(int drone) {
+		return droneIds[drone];
+	}
+	
+	public Package getPackage(int pack) {
+		return packages[pack];
+	}
+	
+	/**
+	 * Returns the distance from the given drone to the pickup point of the given package.
+	 */
+	double droneToPickup(int drone, int pack) {
+		return distance(droneX[drone] - pickupX[pack], droneY[drone] - pickupY[pack], droneZ[drone] - pickupZ[pack]);
+	}
+	
+	/**
+	 * Returns the distance from the pickup point to the drop-off point of the given package.
+	 */
+	double delivery(int pack) {
+		if (trajectoryLengths != null)
+			return trajectoryLengths.getLength(packages[pack].fromAirport, packages[pack].fromGate, packages[pack].toAirport, packages[pack].toGate);
+		return distance(dropoffX[pack] - pickupX[pack], dropoffY[pack] - pickupY[pack], dropoffZ[pack] - pickupZ[pack]);
+	}
+	
+	/**
+	 * Returns the distance from the drop-off point of the first package to the pickup point of the second one.
+	 */
+	double dropoffToPickup(int from, int to) {
+		if (trajectoryLengths != null)
+			return trajectoryLengths.getLength(packages[from].toAirport, packages[from].toGate, packages[to].fromAirport, packages[to].fromGate);
+		return distance(dropoffX[from] - pickupX[to], dropoffY[from] - pickupY[to], dropoffZ[from] - pickupZ[to]);
+	}
+	
+	private static double distance(double dx, double dy, double dz) {
+		return Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+}
@@ -0,0 +1,208 @@
+package autopilot_scheduling;
+
+import autopilot_planning.AutopilotMotionPlanner;
+import autopilot_planning.DubinsSolver;
+import autopilot_utilities.Point3D;
+import autopilot_utilities.Vector3f;
+import interfaces.Airport;
+
+/**
+ * A class of matrices with the length of the trajectory from every airport gate to every other airport gate.
+ * 	A flight takes off along the lane of its gate, follows a Dubins path to the point where it prepares
+ * 	to land and lands along the lane of its destination gate, like the airport modules steer it.
+ * 	Between the gates of one airport the drone taxis.
+ * 	The lengths are stored in one flat array, adding an airport only calculates its own rows and columns.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class TrajectoryCostMatrix {
+	
+	/**
+	 * Add the given airport, its ID must be the amount of airports added before.
+	 */
+	public synchronized void addAirport(Airport airport) {
+		int count = airports.length;
+		if (airport.ID != count)
+			throw new IllegalArgumentException("Airport " + airport.ID + " added as airport " + count);
+		Airport[] newAirports = new Airport[count + 1];
+		System.arraycopy(airports, 0, newAirports, 0, count);
+		newAirports[count] = airport;
+		
+		// Grow the array by doubling, so adding airports one by one stays linear
+		Table table = this.table;
+		if (2 * (count + 1) > table.capacity) {
+			int capacity = Math.max(8, 2 * table.capacity);
+			while (capacity < 2 * (count + 1))
+				capacity *= 2;
+			Table grown = new Table(capacity);
+			for (int from=0 ; from<2*count ; from++)
+				System.arraycopy(table.lengths, from*table.capacity, grown.lengths, from*capacity, 2*count);
+			table = grown;
+		}
+		float[] newLengths = table.lengths;
+		int newCapacity = table.capacity;
+		
+		// The trajectories from and to the new gates are solved in one batch
+		int pairs = 4 * (count + 1) * 2, pair = 0;
+		Airport[] fromAirports = new Airport[pairs], toAirports = new Airport[pairs];
+		int[] fromGates = new int[pairs], toGates = new int[pairs];
+		for (int gate=0 ; gate<2 ; gate++) {
+			for (int other=0 ; other<=2*count+1 ; other++) {
+				fromAirports[pair] = airport;
+				fromGates[pair] = gate;
+				toAirports[pair] = newAirports[other / 2];
+				toGates[pair++] = other % 2;
+				fromAirports[pair] = newAirports[other / 2];
+				fromGates[pair] = other % 2;
+				toAirports[pair] = airport;
+				toGates[pair++] = gate;
+			}
+		}
+		float[] lengths = new float[pairs];
+		calculateLengths(pairs, fromAirports, fromGates, toAirports, toGates, lengths);
+		
+		pair = 0;
+		for (int gate=0 ; gate<2 ; gate++) {
+			int slot = 2*count + gate;
+			for (int other=0 ; other<=2*count+1 ; other++) {
+				newLengths[slot*newCapacity + other] = lengths[pair++];
+				newLengths[other*newCapacity + slot] = lengths[pair++];
+			}
+		}
+		
+		this.table = table;
+		airports = newAirports;
+	}
+	
+	/**
+	 * Returns the amount of airports in this matrix.
+	 */
+	public int getAirports() {
+		return airports.length;
+	}
+	
+	/**
+	 * Returns the length of the trajectory from the given airport and gate to the given airport and gate.
+	 */
+	public float getLength(int fromAirport, int fromGate, int toAirport, int toGate) {
+		Table table = this.table;
+		return table.lengths[(2*fromAirport + fromGate) * table.capacity + 2*toAirport + toGate];
+	}
+	
+	/**
+	 * The lengths between the gates, with capacity gates per row.
+	 */
+	private static final class Table {
+		Table(int capacity) {
+			this.capacity = capacity;
+			this.lengths = new float[capacity * capacity];
+		}
+		final int capacity;
+		final float[] lengths;
+	}
+	
+	// Airports and tables are replaced as a whole when they grow, so they can be read without the lock
+	private volatile Airport[] airports = new Airport[0];
+	private volatile Table table = new Table(0);
+	
+	/**
+	 * Calculate the length of the trajectory from the given airport and gate to the given airport and gate.
+	 */
+	public static float calculateLength(Airport fromAirport, int fromGate, Airport toAirport, int toGate) {
+		float[] length = new float[1];
+		calculateLengths(1, new Airport[] { fromAirport }, new int[] { fromGate }, new Airport[] { toAirport },
+				new int[] { toGate }, length);
+		return length[0];
+	}
+	
+	/**
+	 * Calculate the lengths of the given amount of trajectories, the trajectory with index i goes from the i-th
+	 * 	given airport and gate to the i-th given other airport and gate. The flights are solved at once.
+	 */
+	public static void calculateLengths(int count, Airport[] fromAirports, int[] fromGates, Airport[] toAirports, int[] toGates,
+			float[] lengths) {
+		double[] startXs = new double[count], startYs = new double[count], startRotations = new double[count];
+		double[] endXs = new double[count], endYs = new double[count], endRotations = new double[count];
+		double[] flights = new double[count];
+		for (int i=0 ; i<count ; i++) {
+			if (fromAirports[i] == toAirports[i])
+				continue;
+			Vector3f start = startConfiguration(fromAirports[i], fromGates[i]);
+			Vector3f end = endConfiguration(toAirports[i], toGates[i]);
+			startXs[i] = start.x;
+			startYs[i] = start.y;
+			startRotations[i] = start.z;
+			endXs[i] = end.x;
+			endYs[i] = end.y;
+			endRotations[i] = end.z;
+		}
+		new DubinsSolver().solve(count, startXs, startYs, startRotations, endXs, endYs, endRotations,
+				AutopilotMotionPlanner.TURNING_RADIUS, DubinsSolver.CSC_WORDS, null, flights);
+		
+		for (int i=0 ; i<count ; i++) {
+			Airport fromAirport = fromAirports[i], toAirport = toAirports[i];
+			int fromGate = fromGates[i], toGate = toGates[i];
+			Point3D fromPoint = (fromGate == 0 ? fromAirport.pointGate0 : fromAirport.pointGate1);
+			Point3D toPoint = (toGate == 0 ? toAirport.pointGate0 : toAirport.pointGate1);
+			if (fromAirport == toAirport) {
+				lengths[i] = (float) distanceHor(fromPoint, toPoint);
+				continue;
+			}
+			
+			Point3D startLane = startLane(fromAirport, fromGate), takeOff = takeOff(fromAirport, fromGate);
+			Point3D prepareLanding = prepareLanding(toAirport, toGate), endLane = endLane(toAirport, toGate);
+			double flight = flights[i];
+			if (Double.isInfinite(flight))
+				flight = distanceHor(takeOff, prepareLanding);
+			
+			lengths[i] = (float) (distanceHor(fromPoint, startLane) + distanceHor(startLane, takeOff) + flight
+					+ distanceHor(prepareLanding, endLane) + distanceHor(endLane, toPoint));
+		}
+	}
+	
+	/**
+	 * Returns the Dubins configuration in which a flight from the given airport and gate starts, after taking off.
+	 */
+	public static Vector3f startConfiguration(Airport airport, int gate) {
+		return configuration(takeOff(airport, gate), startLane(airport, gate), takeOff(airport, gate));
+	}
+	
+	/**
+	 * Returns the Dubins configuration in which a flight to the given airport and gate ends, where it prepares to land.
+	 */
+	public static Vector3f endConfiguration(Airport airport, int gate) {
+		return configuration(prepareLanding(airport, gate), prepareLanding(airport, gate), endLane(airport, gate));
+	}
+	
+	// Take off along the lane on the other side of the gate
+	private static Point3D startLane(Airport airport, int gate) {
+		return (gate == 0 ? airport.startPointLane1 : airport.startPointLane0);
+	}
+	
+	private static Point3D takeOff(Airport airport, int gate) {
+		return (gate == 0 ? airport.startSecondPointLane1 : airport.startSecondPointLane0);
+	}
+	
+	// Land along the lane of the gate
+	private static Point3D prepareLanding(Airport airport, int gate) {
+		return (gate == 0 ? airport.prepareLandingPoint0 : airport.prepareLandingPoint1);
+	}
+	
+	private static Point3D endLane(Airport airport, int gate) {
+		return (gate == 0 ? airport.endPointLane0 : airport.endPointLane1);
+	}
+	
+	/**
+	 * Returns the Dubins configuration at the given point, heading from the given point towards the other given point.
+	 */
+	private static Vector3f configuration(Point3D point, Point3D headingFrom, Point3D headingTo) {
+		double heading = Math.atan2(-(headingTo.getX() - headingFrom.getX()), -(headingTo.getZ() - headingFrom.getZ()));
+		return new Vector3f(-point.getZ(), -point.getX(), heading);
+	}
+	
+	private static double distanceHor(Point3D one, Point3D two) {
+		double dx = one.getX() - two.getX(), dz = one.getZ() - two.getZ();
+		return Math.sqrt(dx*dx + dz*dz);
+	}
+}
@@ -0,0 +1,171 @@
+package autopilot_utilities;
+
+import java.util.Arrays;
+
+/**
+ * A class of uniform grids over points in the horizontal (x, z) plane, for finding the points near a location.
+ * 	Every point is identified by the order in which it was added, until the grid is cleared.
+ * 	The cells are kept in a hash table, so the grid can cover any area.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class SpatialGrid {
+	
+	/**
+	 * Initialize this new grid with the given cell size.
+	 * 	Queries are fastest when the radius is about the cell size.
+	 */
+	public SpatialGrid(double cellSize) {
+		if (!(cellSize > 0))
+			throw new IllegalArgumentException("The cell size must be positive");
+		this.cellSize = cellSize;
+		clearTable(16);
+	}
+	
+	private final double cellSize;
+	
+	// The coordinates of the points and the next point in the same cell (-1 if none)
+	private double[] xs = new double[8], zs = new double[8];
+	private int[] next = new int[8];
+	private int size = 0;
+	
+	// Open addressing hash table from the cell keys to the last point added to the cell
+	private long[] cellKeys;
+	private int[] cellHeads;
+	private int cells = 0;
+	
+	/**
+	 * Returns the amount of points in this grid.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Remove all points from this grid.
+	 * 	The grid keeps its storage, so it can be refilled without allocating.
+	 */
+	public void clear() {
+		Arrays.fill(cellHeads, -1);
+		cells = 0;
+		size = 0;
+	}
+	
+	/**
+	 * Add a point at the given location.
+	 * 
+	 * @return	The index of the new point.
+	 */
+	public int add(double x, double z) {
+		if (size == xs.length) {
+			xs = Arrays.copyOf(xs, 2 * size);
+			zs = Arrays.copyOf(zs, 2 * size);
+			next = Arrays.copyOf(next, 2 * size);
+		}
+		if (2 * (cells + 1) > cellKeys.length)
+			rehash(2 * cellKeys.length);
+		xs[size] = x;
+		zs[size] = z;
+		int slot = findSlot(key(cell(x), cell(z)));
+		if (cellHeads[slot] < 0) {
+			cellKeys[slot] = key(cell(x), cell(z));
+			cells++;
+		}
+		next[size] = cellHeads[slot];
+		cellHeads[slot] = size;
+		return size++;
+	}
+	
+	/**
+	 * Find the points within the given distance of the given location.
+	 * 
+	 * @param 	result
+	 * 			Filled with the indices of the found points in ascending order, as far as it is long enough.
+	 * @return	The amount of points that were found, this can be more than the length of the given array.
+	 */
+	public int query(double x, double z, double radius, int[] result) {
+		int minX = cell(x - radius), maxX = cell(x + radius);
+		int minZ = cell(z - radius), maxZ = cell(z + radius);
+		double radiusSquared = radius * radius;
+		int count = 0;
+		
+		if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > size) {	// Fewer points than cells
+			for (int point=0 ; point<size ; point++)
+				if (within(point, x, z, radiusSquared))
+					count = found(point, count, result);
+			return count;
+		}
+		
+		for (int cellX=minX ; cellX<=maxX ; cellX++) {
+			for (int cellZ=minZ ; cellZ<=maxZ ; cellZ++) {
+				for (int point=cellHeads[findSlot(key(cellX, cellZ))] ; point>=0 ; point=next[point])
+					if (within(point, x, z, radiusSquared))
+						count = found(point, count, result);
+			}
+		}
+		
+		// Points come from different cells, sort them (there are only a few)
+		int sorted = Math.min(count, result.length);
+		for (int i=1 ; i<sorted ; i++) {
+			int point = result[i], j = i - 1;
+			while (j >= 0 && result[j] > point) {
+				result[j + 1] = result[j];
+				j--;
+			}
+			result[j + 1] = point;
+		}
+		return count;
+	}
+	
+	private boolean within(int point, double x, double z, double radiusSquared) {
+		double dx = xs[point] - x, dz = zs[point] - z;
+		return dx*dx + dz*dz <= radiusSquared;
+	}
+	
+	private static int found(int point, int count, int[] result) {
+		if (count < result.length)
+			result[count] = point;
+		return count + 1;
+	}
+	
+	private int cell(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+	
+	private static long key(int cellX, int cellZ) {
+		return ((long) cellX << 32) | (cellZ & 0xffffffffL);
+	}
+	
+	/**
+	 * Returns the slot of the given key, or the empty slot where it would go.
+	 */
+	private int findSlot(long key) {
+		int mask = cellKeys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash >>> 40) & mask;
+		while (cellHeads[slot] >= 0 && cellKeys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+	
+	private void clearTable(int capacity) {
+		cellKeys = new long[capacity];
+		cellHeads = new int[capacity];
+		Arrays.fill(cellHeads, -1);
+		cells = 0;
+	}
+	
+	private void rehash(int capacity) {
+		clearTable(capacity);
+		for (int point=0 ; point<size ; point++) {
+			int slot = findSlot(key(cell(xs[point]), cell(zs[point])));
+			if (cellHeads[slot] < 0) {
+				cellKeys[slot] = key(cell(xs[point]), cell(zs[point]));
+				cells++;
+			}
+			next[point] = cellHeads[slot];
+			cellHeads[slot] = point;
+		}
+	}
+}
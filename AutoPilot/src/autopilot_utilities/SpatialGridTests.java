@@ -0,0 +1,79 @@
+package autopilot_utilities;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the spatial grid.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class SpatialGridTests extends TestCase {
+	
+	/**
+	 * Check that the given query finds the same points as going over all points, in ascending order.
+	 */
+	private static void checkQuery(SpatialGrid grid, double[] xs, double[] zs, int size, double x, double z, double radius, int[] result) {
+		int count = grid.query(x, z, radius, result);
+		int expected = 0;
+		for (int point=0 ; point<size ; point++) {
+			double dx = xs[point] - x, dz = zs[point] - z;
+			if (dx*dx + dz*dz <= radius*radius) {
+				assertTrue(expected < count);
+				assertEquals(point, result[expected]);
+				expected++;
+			}
+		}
+		assertEquals(expected, count);
+	}
+	
+	/**
+	 * Compare random queries with going over all points, for grids with few and many points per cell.
+	 */
+	@Test
+	public void testQueriesMatchBruteForce() {
+		Random random = new Random(42);
+		int[] result = new int[2000];
+		for (int round=0 ; round<50 ; round++) {
+			double cellSize = 10 + random.nextDouble() * 2000, area = 100 + random.nextDouble() * 50000;
+			SpatialGrid grid = new SpatialGrid(cellSize);
+			int size = random.nextInt(2000);
+			double[] xs = new double[size], zs = new double[size];
+			for (int point=0 ; point<size ; point++) {
+				xs[point] = (random.nextDouble() - 0.5) * area;
+				zs[point] = (random.nextDouble() - 0.5) * area;
+				assertEquals(point, grid.add(xs[point], zs[point]));
+			}
+			assertEquals(size, grid.size());
+			for (int query=0 ; query<100 ; query++) {
+				double x = (random.nextDouble() - 0.5) * area * 1.2, z = (random.nextDouble() - 0.5) * area * 1.2;
+				double radius = random.nextDouble() * (random.nextBoolean() ? cellSize : area);
+				checkQuery(grid, xs, zs, size, x, z, radius, result);
+			}
+		}
+	}
+	
+	/**
+	 * Check that a query counts all points when the result array is too short, and that a cleared grid can be refilled.
+	 */
+	@Test
+	public void testShortResultAndClear() {
+		SpatialGrid grid = new SpatialGrid(100);
+		for (int i=0 ; i<50 ; i++)
+			grid.add(i, -i);
+		int[] result = new int[4];
+		assertEquals(50, grid.query(0, 0, 1000, result));
+		
+		grid.clear();
+		assertEquals(0, grid.size());
+		assertEquals(0, grid.query(0, 0, 1000, result));
+		assertEquals(0, grid.add(5000, 5000));
+		assertEquals(1, grid.query(5000, 5050, 50, result));
+		assertEquals(0, result[0]);
+	}
+
+}
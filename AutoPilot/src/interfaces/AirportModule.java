@@ -22,8 +22,8 @@ public class AirportModule {
 	// Registers the drones for this airport.
 	public ArrayList<DroneAutopilot> activeDrones = new ArrayList<DroneAutopilot>();
 	
-	// The list of drone in the stack
-	private ArrayList<DroneAutopilot> dronesInStack = new ArrayList<DroneAutopilot>();;
+	// The drones in the stack, in the order in which they entered it
+	private final HoldingStack dronesInStack;
 	
 	// The list depicting which drones are in lower airspace (40m - 70m)
 	private ArrayList<DroneAutopilot> dronesInLowerAirspace = new ArrayList<DroneAutopilot>();;
@@ -47,6 +47,7 @@ public class AirportModule {
 	public AirportModule(Airport airport) {
 		this.airport = airport;
 		centerAirport = new Point3D(this.airport.centerX, 70f, this.airport.centerZ);
+		dronesInStack = new HoldingStack(centerAirport, rho + maxStackFault);
 	}
 	
 	/**
@@ -74,14 +75,8 @@ public class AirportModule {
 			// Check if somebody wants to land at the gate the drone is in
 			if (!dronesInStack.isEmpty()) {
 				// Determine which gates are requested
-				boolean otherDroneWantsGate0 = false;
-				boolean otherDroneWantsGate1 = false;
-				for (DroneAutopilot otherDrone: dronesInStack) {
-					if (otherDrone.getFirstTargetGate() == 0)
-						otherDroneWantsGate0 = true;
-					else
-						otherDroneWantsGate1 = true;
-				}
+				boolean otherDroneWantsGate0 = dronesInStack.getRequests(0) > 0;
+				boolean otherDroneWantsGate1 = dronesInStack.getRequests(1) > 0;
 
 				// If a drone is parked at the other gate, then say it is wanted
 				if (droneInGate0 != null && droneInGate0 != drone) otherDroneWantsGate0 = true;
@@ -238,15 +233,10 @@ public class AirportModule {
 				if (droneGateIsStrictFree(drone) && isOnlyDroneInLowerAirspace(drone)) {	// If to close to the airport let stack handle drone, '< 55' --> Drone is already landing
 					if (dronesInStack.size() != 0) {	// Handle stack first
 						// Add drone to list of stack if it is not already there
-						if (!dronesInStack.contains(drone)) dronesInStack.add(drone);
+						dronesInStack.add(drone);
 						
 						// Check if drone is the first in the stack who wants to land at given gate, otherwise stay on stack
-						boolean firstInListWithGate = true;
-						for (int i = 0; i < dronesInStack.indexOf(drone) - 1 && firstInListWithGate; i++) {
-							if (dronesInStack.get(i).getFirstTargetGate() == drone.getFirstTargetGate()) {
-								firstInListWithGate = false;
-							}
-						}
+						boolean firstInListWithGate = dronesInStack.isFirstForGateButPrevious(drone);
 						
 						if (firstInListWithGate) {	// Let the drone land
 							if (drone.getFirstTargetHeight() > 45) {	// Assign right coordinates to drone
@@ -282,7 +272,7 @@ public class AirportModule {
 	 */
 	private void handleDroneInStack(DroneAutopilot drone, AutopilotInputs inputs) {
 		// Add drone to list of stack if it is not already there
-		if (!dronesInStack.contains(drone)) dronesInStack.add(drone);
+		dronesInStack.add(drone);
 		if (dronesInLowerAirspace.contains(drone)) dronesInLowerAirspace.remove(drone);
 		
 		// Get and stay on the stack
@@ -294,12 +284,8 @@ public class AirportModule {
 		if (droneGateIsFree(drone)) {
 			boolean droneMayLand = false;
 			if (dronesInStack.size() > 1) {
-				if (isOnlyDroneInLowerAirspace(drone)) droneMayLand = true;
 				// Check if drone is first in stack who wants to land to requested gate
-				for (int i = 0; i < dronesInStack.indexOf(drone) && droneMayLand; i++) {
-					if (dronesInStack.get(i).getFirstTargetGate() == drone.getFirstTargetGate())
-						droneMayLand = false;
-				}
+				if (isOnlyDroneInLowerAirspace(drone) && dronesInStack.isFirstForGate(drone)) droneMayLand = true;
 			} else {
 				if (Distance.distanceToHor(getCenterAirport(), inputs) < rho+maxStackFault && isOnlyDroneInLowerAirspace(drone))
 					droneMayLand = true;	// Drone is only in stack --> No threat!
@@ -380,14 +366,19 @@ public class AirportModule {
 		} else {	// Get on stack
 			float heightRequested = getStackHeight();
 			float otherDroneHeight;
-			for (int i = 0; i < dronesInStack.indexOf(drone) - 1; i++) {
-				// Consider only drones that are not in the stack but are (also) getting on the stack
-				if (Distance.distanceToHor(getCenterAirport(), dronesInStack.get(i).location) > rho + maxStackFault) {
-					if (Distance.distanceToHor(dronesInStack.get(i).location, inputs) < 300) {
-						otherDroneHeight = (float)(dronesInStack.get(i).location.getY());
-						if (otherDroneHeight + levelHeight > heightRequested + 5) {	// The '5' is a threshold
-							heightRequested = otherDroneHeight + levelHeight;
-						}			
+			DroneAutopilot previousDrone = dronesInStack.getPrevious(drone);
+			if (previousDrone != null) {
+				for (DroneAutopilot otherDrone : dronesInStack) {	// The drones before the previous drone
+					if (otherDrone == previousDrone)
+						break;
+					// Consider only drones that are not in the stack but are (also) getting on the stack
+					if (Distance.distanceToHor(getCenterAirport(), otherDrone.location) > rho + maxStackFault) {
+						if (Distance.distanceToHor(otherDrone.location, inputs) < 300) {
+							otherDroneHeight = (float)(otherDrone.location.getY());
+							if (otherDroneHeight + levelHeight > heightRequested + 5) {	// The '5' is a threshold
+								heightRequested = otherDroneHeight + levelHeight;
+							}			
+						}
 					}
 				}
 			}
@@ -398,10 +389,19 @@ public class AirportModule {
 	}
 	
 	/**
-	 * Register drone.
+	 * Register the new location and target gate of the given drone, for the stack of this module.
+	 * 	This has to be called whenever the location of a drone handled by this module is published.
+	 */
+	void droneMoved(DroneAutopilot drone) {
+		dronesInStack.update(drone);
+	}
+	
+	/**
+	 * Register drone, from then on this module handles it.
 	 */
 	public void registerDrone(DroneAutopilot drone) {
 		activeDrones.add(drone);
+		drone.airportModule = this;
 	}
 	
 	/**
@@ -412,7 +412,7 @@ public class AirportModule {
 	 */
 	public void initDroneInAirportModule(DroneAutopilot drone, int gate) {
 		System.out.println("Drone : " + drone + " in gate " + gate);
-		activeDrones.add(drone);
+		registerDrone(drone);
 		if (gate == 0) {
 			droneInGate0 = drone;
 		} else {
@@ -424,7 +424,7 @@ public class AirportModule {
 	 * Returns whether or not this module registered the given drone.
 	 */
 	public boolean registeredDrone(DroneAutopilot drone) {
-		return activeDrones.contains(drone);
+		return drone.airportModule == this;
 	}
 	
 	/**
@@ -454,14 +454,7 @@ public class AirportModule {
 		if (dronesInStack.size() == 0) return bottomOfStack;
 		
 		// else: highestDroneInStack + levelHeight
-		float highestDrone = bottomOfStack;
-		for (DroneAutopilot droneInStack: dronesInStack) {
-			if (Distance.distanceToHor(getCenterAirport(), droneInStack.location) < rho + maxStackFault) {	// Check if drone IN stack
-				if (droneInStack.location.getY() > highestDrone)
-					highestDrone = (float)(droneInStack.location.getY());
-			}
-		}
-		
+		float highestDrone = Math.max(bottomOfStack, dronesInStack.getHighestDrone());
 		return highestDrone+levelHeight;
 	}
 	
@@ -18,6 +18,7 @@ public interface Autopilot {
 	 * @param 	inputs
 	 * 			The current situation of the drone this autopilot steers.
 	 * @return	Output commands for the drone, based on the given input parameters.
+	 * 			The outputs keep their values, later calls return new outputs.
 	 */
     AutopilotOutputs simulationStarted(AutopilotConfig config, AutopilotInputs inputs);
     
@@ -27,6 +28,7 @@ public interface Autopilot {
      * @param 	inputs
      * 			The updated situation for the drone.
      * @return	Output commands for steering the drone, based on its most recent situation.
+     * 			The outputs keep their values, later calls return new outputs.
      */
     AutopilotOutputs timePassed(AutopilotInputs inputs);
     
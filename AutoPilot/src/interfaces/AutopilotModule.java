@@ -1,11 +1,30 @@
 package interfaces;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import autopilot_planning.AutopilotMotionPlanner;
+import autopilot_planning.ConflictDetector;
 import autopilot_planning.Distance;
+import autopilot_planning.Dubins;
+import autopilot_planning.DubinsPathCache;
+import autopilot_scheduling.AssignmentProblem;
+import autopilot_scheduling.AssignmentStrategy;
+import autopilot_scheduling.GreedyAssignment;
+import autopilot_scheduling.PackageScheduler;
+import autopilot_scheduling.SchedulePlan;
+import autopilot_scheduling.SchedulingSnapshot;
+import autopilot_scheduling.TrajectoryCostMatrix;
 import autopilot_planning.Heading;
 import autopilot_utilities.Point3D;
+import autopilot_utilities.SpatialGrid;
 
 /**
  * A class of autopilot modules.
@@ -69,13 +88,69 @@ public class AutopilotModule {
 	 * @param 	centerZ
 	 * 			The z coordinate of the center of this airport.
 	 */
-	public void defineAirport(float centerX, float centerZ, float centerToRunway0X, float centerToRunway0Z) {
+	public synchronized void defineAirport(float centerX, float centerZ, float centerToRunway0X, float centerToRunway0Z) {
 		Airport airport = new Airport(centerX, centerZ, centerToRunway0X, centerToRunway0Z);
 		airport.ID = airports.size();
 		airports.add(airport);
 		airportModules.add(new AirportModule(airport));
+		trajectoryLengths.addAirport(airport);
+		airportGrid.add(centerX, centerZ);
+		
+		// Solve the flights between the gates of the new airport and the gates of the other airports up front
+		DubinsPathCache cache = Dubins.PATH_CACHE;
+		if (cache != null) {
+			for (Airport other : airports) {
+				if (other == airport)
+					continue;
+				for (int gate=0 ; gate<2 ; gate++) {
+					for (int otherGate=0 ; otherGate<2 ; otherGate++) {
+						cache.precompute(TrajectoryCostMatrix.startConfiguration(airport, gate),
+								TrajectoryCostMatrix.endConfiguration(other, otherGate), AutopilotMotionPlanner.TURNING_RADIUS);
+						cache.precompute(TrajectoryCostMatrix.startConfiguration(other, otherGate),
+								TrajectoryCostMatrix.endConfiguration(airport, gate), AutopilotMotionPlanner.TURNING_RADIUS);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Registers the centers of the airports, by their ID.
+	 */
+	private final SpatialGrid airportGrid = new SpatialGrid(AIRPORT_RADIUS);
+	
+	/**
+	 * Find the airports within the given horizontal distance of the given location.
+	 * 
+	 * @return	The amount of airports found, their IDs are in nearbyAirports in ascending order.
+	 */
+	private int findNearbyAirports(double x, double z, double distance) {
+		int count = airportGrid.query(x, z, distance, nearbyAirports);
+		if (count > nearbyAirports.length) {
+			nearbyAirports = new int[count];
+			count = airportGrid.query(x, z, distance, nearbyAirports);
+		}
+		return count;
+	}
+	
+	private int findNearbyAirports(Point3D location, double distance) {
+		return findNearbyAirports(location.getX(), location.getZ(), distance);
 	}
 	
+	private int[] nearbyAirports = new int[8];
+	
+	/**
+	 * Returns the length of the trajectory from the given airport and gate to the given airport and gate.
+	 */
+	public float getTrajectoryLength(int fromAirport, int fromGate, int toAirport, int toGate) {
+		return trajectoryLengths.getLength(fromAirport, fromGate, toAirport, toGate);
+	}
+	
+	/**
+	 * Registers the lengths of the trajectories between all airport gates.
+	 */
+	private final TrajectoryCostMatrix trajectoryLengths = new TrajectoryCostMatrix();
+	
 	/**
 	 * Returns the list of airport modules for this autopilot module.
 	 */
@@ -90,10 +165,10 @@ public class AutopilotModule {
 	private ArrayList<Airport> airports = new ArrayList<Airport>();
 	
 	/**
-	 * Called by an airport when it releases a drone.
+	 * Called by an airport when it releases a drone, from then on this module handles it.
 	 */
 	public void airportReleasedDrone(DroneAutopilot drone) {
-		activeDrones.add(drone);
+		drone.airportModule = null;
 	}
 
 	/**
@@ -108,25 +183,30 @@ public class AutopilotModule {
 	 * @param 	config
 	 * 			The configuration of the drone/
 	 */
-	public void defineDrone(int airport, int gate, int pointingToRunway, AutopilotConfig config) {		
+	public synchronized void defineDrone(int airport, int gate, int pointingToRunway, AutopilotConfig config) {		
 		DroneAutopilot drone = new DroneAutopilot();
 		drone.setConfiguration(config);
-		drone.location = (gate == 0 ? airports.get(airport).pointGate0.copy() : airports.get(airport).pointGate1.copy());
-		drone.location.setY(4.7f);
+		Point3D location = (gate == 0 ? airports.get(airport).pointGate0.copy() : airports.get(airport).pointGate1.copy());
+		location.setY(4.7f);
+		drone.location = location;
+		drone.index = drones.size();
 		drones.add(drone);
 		airportModules.get(airport).initDroneInAirportModule(drone, gate);
-		outputs.add(null);
+		outputs = Arrays.copyOf(outputs, drones.size());
 	}
 
 	// Registers the radius for the area around an airport that it manages
 	public static final double AIRPORT_RADIUS = 2000;
 	
-	public static boolean SCHEDULING = false;
-	
 	private int iterations = 0;
 		
 	/**
 	 * Notify the given drone of its current situation.
+	 * 	This may be called concurrently for different drones. Package assignment and the
+	 * 	airport gate/lane arbitration run one drone at a time under this module's lock,
+	 * 	the drone's own control step (physics and motion planning) runs outside of it.
+	 * 	A single drone must not be notified from two threads at once.
+	 * 	The first drone notified of a new elapsed time begins the iteration of that time.
 	 * 
 	 * @param 	drone
 	 * 			The index of the drone (0-N if N drones have been defined).
@@ -134,341 +214,714 @@ public class AutopilotModule {
 	 * 			The new inputs for the drone.
 	 */
 	public void startTimeHasPassed(int drone, AutopilotInputs inputs) {
-		//synchronized(this) {
+		DroneAutopilot droneAutopilot;
+		synchronized(this) {
+			beginIteration(inputs.getElapsedTime());
+			if (ruben_scheduler)
+				scheduleDrone(drone);
+			droneAutopilot = routeDrone(drone, inputs);
+		}
+		
+		// The control step only touches the drone's own state
+		outputs[drone] = droneAutopilot.timePassed(inputs);
+	}
+	
+	/**
+	 * Begin the iteration of the given elapsed time, if it hasn't begun yet.
+	 * 	The drones that have to avoid each other are found and the packages are assigned,
+	 * 	once for all drones, so every drone of the iteration is routed against the same
+	 * 	assignments and avoidance flags whatever the order in which they are notified.
+	 * 
+	 * @param 	time
+	 * 			The elapsed time of the inputs of the iteration.
+	 */
+	public synchronized void beginIteration(float time) {
+		if (time == iterationTime)
+			return;
+		iterationTime = time;
+		findNearbyDrones(time);
+		if (!ruben_scheduler)
+			assignPackages();
+	}
+	
+	/**
+	 * The elapsed time of the current iteration, NaN before the first iteration.
+	 */
+	private float iterationTime = Float.NaN;
+	
+	/**
+	 * Notify all drones of their current situation at once.
+	 * 	The packages are assigned once, the drones are routed in the order of their index and
+	 * 	their control steps are divided over the control threads. This gives the same outputs as
+	 * 	calling startTimeHasPassed for every drone in the order of their index.
+	 * 
+	 * @param 	inputs
+	 * 			The new inputs for every drone, indexed like the drones.
+	 * @return	The outputs for every drone. The array is reused by the next call.
+	 */
+	public AutopilotOutputs[] timeHasPassedAll(AutopilotInputs[] inputs) {
+		synchronized(this) {
+			if (inputs.length != drones.size())
+				throw new IllegalArgumentException("Expected inputs for " + drones.size() + " drones, got " + inputs.length);
+			if (inputs.length > 0)
+				beginIteration(inputs[0].getElapsedTime());
+			for (int drone=0 ; drone<inputs.length ; drone++) {
+				if (ruben_scheduler)
+					scheduleDrone(drone);
+				routeDrone(drone, inputs[drone]);
+			}
+		}
+		
+		if (controlPool == null) {
+			for (int drone=0 ; drone<inputs.length ; drone++)
+				outputs[drone] = drones.get(drone).timePassed(inputs[drone]);
+		} else {
+			controlAll(inputs);
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Set the amount of threads which divide the control steps of timeHasPassedAll between them.
+	 * 	With one thread the drones are controlled by the calling thread.
+	 */
+	public synchronized void setControlThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one control thread is needed");
+		if (controlPool != null)
+			controlPool.shutdown();
+		controlPool = null;
+		controlTasks.clear();
+		controlThreads = threads;
+		if (threads > 1) {
+			controlPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Drone control");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+	
+	public int getControlThreads() {
+		return controlThreads;
+	}
+	
+	private int controlThreads = 1;
+	private ExecutorService controlPool = null;
+	private ArrayList<ControlTask> controlTasks = new ArrayList<ControlTask>();
+	
+	/**
+	 * Run the control steps of all drones on the control pool and wait for all of them.
+	 */
+	private void controlAll(AutopilotInputs[] inputs) {
+		if (controlTasks.isEmpty() || controlTasks.get(controlTasks.size()-1).to != inputs.length) {
+			controlTasks.clear();
+			for (int i=0 ; i<controlThreads ; i++)
+				controlTasks.add(new ControlTask(drones, i*inputs.length/controlThreads, (i+1)*inputs.length/controlThreads));
+		}
+		for (ControlTask task : controlTasks)
+			task.setInputs(inputs, outputs);
+		List<Future<Void>> results;
+		try {
+			results = controlPool.invokeAll(controlTasks);
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Control interrupted");
+		}
+		for (Future<Void> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException e) {
+				throw new RuntimeException("Control interrupted");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+	
+	/**
+	 * Assign the free packages in the queue to free drones and let the drones in the gates
+	 * 	pick up or deliver their packages.
+	 */
+	private void assignPackages() {
+		iterations++;
+		
+		// Collect the free packages and drones, they only have to be assigned again when one of them changed
+		boolean packagesChanged = packageQueue.takeFreeChanged();
+		if (packagesChanged)
+			packageQueue.getFreePackages(freePackages);
+		currentFreeDrones.clear();
+		for (int i=0 ; i<drones.size() ; i++) {
+			DroneAutopilot d = drones.get(i);
+			if (droneIsFree(d))
+				currentFreeDrones.add(d);
+			else if (iterations == 2500) {
+				if (ENABLE_LOGGING) System.out.println("Drone " + d.getTargetCoordinatesSize() + " " + d.getFirstTargetAirport() + " " + d.hasPickedupPackage + " " + d.assignedPackage);
+			}
+		}
+		if (iterations == 2500)
+			if (ENABLE_LOGGING) System.out.println("Free drones = " + currentFreeDrones.size());
+		boolean changed = packagesChanged || !currentFreeDrones.equals(freeDrones);
+		ArrayList<DroneAutopilot> droneSwap = freeDrones;
+		freeDrones = currentFreeDrones;
+		currentFreeDrones = droneSwap;
+		
+		// Let the package scheduler plan routes in the background and send the drones to the first package of their route
+		if (USE_SCHEDULING) {
+			if (scheduler == null) {
+				scheduler = new PackageScheduler();
+				scheduler.start();
+			}
+			if (changed && !freePackages.isEmpty() && !freeDrones.isEmpty())
+				scheduler.submit(takeSchedulingSnapshot());
+			SchedulePlan plan = scheduler.takePlan();
+			if (plan != null)
+				applyPlan(plan);
+		}
+		
+		// Send min(# free drones, # free packages) drones to the packages as chosen by the assignment strategy
+		else if (changed && !freePackages.isEmpty() && !freeDrones.isEmpty()) {
+			assignmentProblem.reset(freeDrones.size(), freePackages.size());
+			for (int i=0 ; i<freeDrones.size() ; i++)
+				assignmentProblem.setDrone(i, freeDrones.get(i).location);
+			for (int i=0 ; i<freePackages.size() ; i++) {
+				Package p = freePackages.get(i);
+				Airport targetAirport = airports.get(p.fromAirport);
+				assignmentProblem.setPackage(i, (p.fromGate == 0 ? targetAirport.pointGate0 : targetAirport.pointGate1));
+			}
+			if (assignment.length < freePackages.size())
+				assignment = new int[freePackages.size()];
+			assignmentStrategy.assign(assignmentProblem, assignment);
+			for (int i=0 ; i<freePackages.size() ; i++) {
+				if (assignment[i] < 0)
+					continue;
+				sendDrone(freeDrones.get(assignment[i]), freePackages.get(i));
+			}
+		}
+		
+		
+		if (ENABLE_LOGGING && iterations == 2500) {
+			System.out.println("# packages : " + packageQueue.size());
+			for (Package p : packageQueue)
+				System.out.println(p);
+		}
+		
+		// Now go over the packages the drones in the gates can pick up or deliver, in the order of the queue
+		if (packageQueue.isSparse())
+			packageQueue.compact();
+		gatePackages.clear();
+		for (AirportModule module : airportModules) {
+			for (int gate=0 ; gate<2 ; gate++) {
+				DroneAutopilot drone = (gate == 0 ? module.droneInGate0 : module.droneInGate1);
+				if (drone != null) {
+					addGatePackage(getFirstToPickUp(module.airport.ID, gate, -1));
+					addGatePackage(drone.assignedPackage);
+				}
+			}
+		}
+		for (DroneAutopilot drone : drones) {	// The packages with a transporter, for which the drone in the other gate may taxi
+			Package p = drone.assignedPackage;
+			if (p != null) {
+				AirportModule fromModule = airportModules.get(p.fromAirport);
+				if ((p.fromGate == 0 ? fromModule.droneInGate1 : fromModule.droneInGate0) != null)
+					addGatePackage(p);
+			}
+		}
+		Package previous = null;
+		while (!gatePackages.isEmpty()) {
+			Package p = gatePackages.poll();
+			if (p != previous && packageQueue.contains(p))
+				handleGatePackage(p);
+			previous = p;
+		}
+	}
+	
+	/**
+	 * Let the drones in the gates of the given package pick it up or deliver it.
+	 */
+	private void handleGatePackage(Package p) {
+		if (!p.scheduling) {
 			
-			// TODO
-			if (ruben_scheduler) {
-				
-				/*
-				 *  Ultra naive algorithm - The main idea
-				 * 
-				 *  If drone picked up packet --> Let it fly towards packet destination
-				 *  Drones in rest --> Handle packageQueue
-				 *  Reserve packets --> If drone in same airport as packet and reserved, overwrite!
-				 *  
-				 *   Hierarchy
-				 *   1) Got package --> Fly towards airport (do not schedule drone! This already has been done)
-				 *   2) In same airport as package (package reserved or not) --> Taxi to package if package is not picked up
-				 *   3) In other airport and package not reserved --> Reserve and fly towards package
-				 *   4) No packages left --> Rest
-				 *   
-				 *   
-				 *   NOTE: Only handle drones that are standing still! The others are already on 'a mission'
-				 *   --> Queue the music "He is a man on a mission!" *guitar solo*
-				 */
+			AirportModule fromModule = airportModules.get(p.fromAirport), toModule = airportModules.get(p.toAirport);
+			DroneAutopilot dronePickupGate = (p.fromGate == 0 ? fromModule.droneInGate0 : fromModule.droneInGate1);
+			DroneAutopilot droneDestinationGate = (p.toGate == 0 ? toModule.droneInGate0 : toModule.droneInGate1);		
+			
+			if (ENABLE_LOGGING && iterations == 2500) {
+				System.out.println("For " + p + " -> " + dronePickupGate + " && <- " + droneDestinationGate);
+			}
+			
+			if (dronePickupGate != null 
+				&& !dronePickupGate.hasPickedupPackage 
+				&& !p.pickedUp
+				&& fromModule.airport.inGate(p.fromGate, dronePickupGate.location)
+				&& dronePickupGate.getSpeed() < 1.0f) { // A drone can pickup the package
+				//dronePickupGate.removeAllTargets();
+				//dronePickupGate.removeFirstTargetAirport();
+				if (p.transporter != null)
+					p.transporter.assignedPackage = null;
+				if (dronePickupGate.assignedPackage != null && dronePickupGate.assignedPackage != p)
+					setTransporter(dronePickupGate.assignedPackage, null);
+				p.pickedUp = true;
+				setTransporter(p, dronePickupGate);
+				dronePickupGate.assignedPackage = p;
+				dronePickupGate.hasPickedupPackage = true;
+				dronePickupGate.addTargetAirport(airports.get(p.toAirport), p.toGate);
+				if (ENABLE_LOGGING) System.out.println("Picked up " + p);
+			}
+							
+			if (droneDestinationGate != null 
+					&& droneDestinationGate.getSpeed() < 1.0f
+					&& toModule.airport.inGate(p.toGate, droneDestinationGate.location)
+					&& droneDestinationGate.hasPickedupPackage 
+					&& droneDestinationGate.assignedPackage == p) {
+				droneDestinationGate.assignedPackage = null;
+				droneDestinationGate.hasPickedupPackage = false;
+				if (p.transporter != null)
+					p.transporter.assignedPackage = null;
+				packageQueue.remove(p);
+				if (ENABLE_LOGGING) System.out.println("Delivered " + p);
 				
-				// System.out.println("Drone speed (autopilot)" + Math.sqrt(drones.get(drone).getSpeed()));
+				// The drone may pick up a package that comes after the delivered package in the queue
+				addGatePackage(getFirstToPickUp(p.toAirport, p.toGate, p.order));
+			}
+			
+			// TODO - Comment taxi to other side?
+			if (p.transporter != null) {
+				DroneAutopilot dronePickupLane = (p.fromGate == 0 ? fromModule.droneOnLane0 : fromModule.droneOnLane1);
+				DroneAutopilot droneOtherGate = (p.fromGate == 0 ? fromModule.droneInGate1 : fromModule.droneInGate0);
+				if (dronePickupGate == null && dronePickupLane == null && droneOtherGate != null && droneOtherGate.getTargetCoordinatesSize() == 0 && droneOtherGate.getFirstTargetAirport() == null)
+					droneOtherGate.addTargetAirport(fromModule.airport, p.fromGate);
+			}
+			
+		}
+	}
+	
+	/**
+	 * Returns the first package at the given airport and gate that can be picked up and was added after the package
+	 * 	with the given order, null if there is none.
+	 */
+	private Package getFirstToPickUp(int airport, int gate, long after) {
+		Package p = packageQueue.getFirst(airport, gate);
+		while (p != null && (p.pickedUp || p.scheduling || p.order <= after))
+			p = p.nextAtGate;
+		return p;
+	}
+	
+	private void addGatePackage(Package p) {
+		if (p != null && !p.scheduling)
+			gatePackages.add(p);
+	}
+	
+	// The packages the drones in the gates may pick up or deliver this iteration, in the order of the queue
+	private final PriorityQueue<Package> gatePackages = new PriorityQueue<Package>(16, PackageStore.IN_ORDER);
+	
+	/**
+	 * Set the strategy which assigns the free drones to the waiting packages.
+	 */
+	public synchronized void setAssignmentStrategy(AssignmentStrategy strategy) {
+		if (strategy == null)
+			throw new IllegalArgumentException("An assignment strategy is needed");
+		assignmentStrategy = strategy;
+		freeDrones.clear();	// Assign again with the new strategy
+	}
+	
+	public AssignmentStrategy getAssignmentStrategy() {
+		return assignmentStrategy;
+	}
+	
+	private AssignmentStrategy assignmentStrategy = new GreedyAssignment();
+	private AssignmentProblem assignmentProblem = new AssignmentProblem();
+	private int[] assignment = new int[0];
+	
+	// The free packages and drones of the last assignment, and the list to collect the current drones in
+	private ArrayList<Package> freePackages = new ArrayList<Package>();
+	private ArrayList<DroneAutopilot> freeDrones = new ArrayList<DroneAutopilot>(), currentFreeDrones = new ArrayList<DroneAutopilot>();
+	
+	/**
+	 * Send the given drone to pick up the given package.
+	 */
+	private void sendDrone(DroneAutopilot d, Package p) {
+		setTransporter(p, d);
+		d.addTargetAirport(airports.get(p.fromAirport), p.fromGate);
+		d.assignedPackage = p;
+		if (ENABLE_LOGGING) System.out.println("Sending " + d + " to " + p.fromAirport);
+	}
+	
+	/**
+	 * Set the transporter of the given package, and register the change with the queue.
+	 */
+	private void setTransporter(Package p, DroneAutopilot d) {
+		p.transporter = d;
+		packageQueue.transporterChanged(p);
+	}
+	
+	/**
+	 * Returns a snapshot of the free drones and packages for the package scheduler.
+	 */
+	private SchedulingSnapshot takeSchedulingSnapshot() {
+		SchedulingSnapshot snapshot = new SchedulingSnapshot(freeDrones.size(), freePackages.size());
+		snapshot.setTrajectoryLengths(trajectoryLengths);
+		for (int i=0 ; i<freeDrones.size() ; i++)
+			snapshot.setDrone(i, freeDrones.get(i).index, freeDrones.get(i).location);
+		for (int i=0 ; i<freePackages.size() ; i++) {
+			Package p = freePackages.get(i);
+			Airport fromAirport = airports.get(p.fromAirport), toAirport = airports.get(p.toAirport);
+			snapshot.setPackage(i, p, (p.fromGate == 0 ? fromAirport.pointGate0 : fromAirport.pointGate1),
+					(p.toGate == 0 ? toAirport.pointGate0 : toAirport.pointGate1));
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Send the drones of the given plan that are still free to the first package of their route that is still free.
+	 * 	The rest of a route is planned again when the drone is free again.
+	 */
+	private void applyPlan(SchedulePlan plan) {
+		SchedulingSnapshot snapshot = plan.getSnapshot();
+		for (int i=0 ; i<snapshot.getDrones() ; i++) {
+			DroneAutopilot d = drones.get(snapshot.getDroneId(i));
+			for (int position=0 ; position<plan.getRouteLength(i) && droneIsFree(d) ; position++) {
+				Package p = snapshot.getPackage(plan.getRoutePackage(i, position));
+				if (p.transporter == null && packageQueue.contains(p))
+					sendDrone(d, p);
+			}
+		}
+	}
+	
+	/**
+	 * Plan the package deliveries with a package scheduler on a background thread instead of the assignment strategy.
+	 */
+	public static boolean USE_SCHEDULING = false;
+	
+	private PackageScheduler scheduler = null;
+	
+	/**
+	 * Returns the package scheduler, or null if it hasn't been started.
+	 */
+	public PackageScheduler getPackageScheduler() {
+		return scheduler;
+	}
+	
+	/**
+	 * Let the given drone pick up, drop off or look for a package on its own (naive scheduler).
+	 */
+	private void scheduleDrone(int drone) {
+		/*
+		 *  Ultra naive algorithm - The main idea
+		 * 
+		 *  If drone picked up packet --> Let it fly towards packet destination
+		 *  Drones in rest --> Handle packageQueue
+		 *  Reserve packets --> If drone in same airport as packet and reserved, overwrite!
+		 *  
+		 *   Hierarchy
+		 *   1) Got package --> Fly towards airport (do not schedule drone! This already has been done)
+		 *   2) In same airport as package (package reserved or not) --> Taxi to package if package is not picked up
+		 *   3) In other airport and package not reserved --> Reserve and fly towards package
+		 *   4) No packages left --> Rest
+		 *   
+		 *   
+		 *   NOTE: Only handle drones that are standing still! The others are already on 'a mission'
+		 *   --> Queue the music "He is a man on a mission!" *guitar solo*
+		 */
+		
+		// System.out.println("Drone speed (autopilot)" + Math.sqrt(drones.get(drone).getSpeed()));
+		
+		if (drones.get(drone).getSpeed() < 1.0f) {
+			DroneAutopilot usedDrone = drones.get(drone);
+			
+			AirportModule airportModule = getAirportModule(usedDrone);
+			
+			int droneInGate = 0;
+			if (Distance.distanceToHor(airportModule.airport.pointGate1, usedDrone.location) < 100) droneInGate = 1;
+			
+			
+			// 1) Check if drone needs to drop of its package in this airport
+			if (usedDrone.hasPickedupPackage && drones.get(drone).getSpeed() < 0.01f) {	// Only drop package down when standing still!
+				if (airports.get(usedDrone.assignedPackage.toAirport) == airportModule.airport) {
+					// Check first if in right gate --> If correct gate then drop package
+					if (usedDrone.assignedPackage.toGate == droneInGate) {
+						usedDrone.hasPickedupPackage = false;
+						usedDrone.assignedPackage = null;
+					} else { // Taxi to other gate
+						letDroneTaxiToOtherGate(usedDrone, droneInGate, airportModule);
+					}
+				} else if (usedDrone.getFirstTargetAirport() == null) {	// Try to fool-proof the code
+					if (airports.get(usedDrone.assignedPackage.fromAirport) != airportModule.airport) {
+						usedDrone.removeFirstTargetAirport();
+						
+						Package pack = usedDrone.assignedPackage;
+						
+						packageQueue.remove(pack);	// Already true
+						pack.transporter = usedDrone;	// Already true
+						usedDrone.hasPickedupPackage = true;	// Already true
+						usedDrone.assignedPackage = pack;	// Already true
+						
+						// Assign target airport to drone
+						usedDrone.removeAllTargetAirports();
+						usedDrone.addTargetAirport(airports.get(pack.toAirport), pack.toGate);
+					}
+				}
+			}
+			
+			
+			// --> If the drone has not yet a package -> Give it one if possible <-- //
+			
+			
+			// 2) Check if drone picks up a package at current gate
+			if (!usedDrone.hasPickedupPackage && usedDrone.getFirstTargetAirport() == null) {
+				Package newPackage = getPackageInAirportGate(airportModule, droneInGate);
 				
-				if (drones.get(drone).getSpeed() < 1.0f) {
-					DroneAutopilot usedDrone = drones.get(drone);
-					
-					AirportModule airportModule = getAirportModule(usedDrone);
-					
-					int droneInGate = 0;
-					if (Distance.distanceToHor(airportModule.airport.pointGate1, usedDrone.location) < 100) droneInGate = 1;
+				// If newPackage != null --> Assign new package to drone and remove package from queue!
+				if (newPackage != null) {
+					packageQueue.remove(newPackage);
+					newPackage.transporter = usedDrone;
+					usedDrone.hasPickedupPackage = true;
+					usedDrone.assignedPackage = newPackage;
 					
+					// Assign target airport to drone
+					usedDrone.removeAllTargetAirports();
+					usedDrone.addTargetAirport(airports.get(newPackage.toAirport), newPackage.toGate);
+				}
+				
+
+				// 3) Check if package in other side of airport that is not picked up yet --> Taxi
+				// Do not reserve or pick up the packet yet! Just taxi to the other gate
+				else { // (newPackage == null)
+					Package otherGatePackage = getPackageInAirportOtherGate(airportModule, droneInGate);
 					
-					// 1) Check if drone needs to drop of its package in this airport
-					if (usedDrone.hasPickedupPackage && drones.get(drone).getSpeed() < 0.01f) {	// Only drop package down when standing still!
-						if (airports.get(usedDrone.assignedPackage.toAirport) == airportModule.airport) {
-							// Check first if in right gate --> If correct gate then drop package
-							if (usedDrone.assignedPackage.toGate == droneInGate) {
-								usedDrone.hasPickedupPackage = false;
-								usedDrone.assignedPackage = null;
-							} else { // Taxi to other gate
-								letDroneTaxiToOtherGate(usedDrone, droneInGate, airportModule);
-							}
-						} else if (usedDrone.getFirstTargetAirport() == null) {	// Try to fool-proof the code
-							if (airports.get(usedDrone.assignedPackage.fromAirport) != airportModule.airport) {
-								usedDrone.removeFirstTargetAirport();
-								
-								Package pack = usedDrone.assignedPackage;
-								
-								packageQueue.remove(pack);	// Already true
-								pack.transporter = usedDrone;	// Already true
-								usedDrone.hasPickedupPackage = true;	// Already true
-								usedDrone.assignedPackage = pack;	// Already true
-								
-								// Assign target airport to drone
-								usedDrone.removeAllTargetAirports();
-								usedDrone.addTargetAirport(airports.get(pack.toAirport), pack.toGate);
-							}
-						}
+					if (otherGatePackage != null) {
+						letDroneTaxiToOtherGate(usedDrone, droneInGate, airportModule);
 					}
 					
 					
-					// --> If the drone has not yet a package -> Give it one if possible <-- //
-					
-					
-					// 2) Check if drone picks up a package at current gate
-					if (!usedDrone.hasPickedupPackage && usedDrone.getFirstTargetAirport() == null) {
-						Package newPackage = getPackageInAirportGate(airportModule, droneInGate);
+					// 4) Fly to nearest packet that is not yet reserved
+					else { // (otherGatePackage == null)
+						Package bestPackage = getClosestPackageOtherAirport(usedDrone);
 						
-						// If newPackage != null --> Assign new package to drone and remove package from queue!
-						if (newPackage != null) {
-							packageQueue.remove(newPackage);
-							newPackage.transporter = usedDrone;
-							usedDrone.hasPickedupPackage = true;
-							usedDrone.assignedPackage = newPackage;
+						if (bestPackage != null) {
+							bestPackage.reserver = usedDrone;
 							
 							// Assign target airport to drone
 							usedDrone.removeAllTargetAirports();
-							usedDrone.addTargetAirport(airports.get(newPackage.toAirport), newPackage.toGate);
-						}
-						
-
-						// 3) Check if package in other side of airport that is not picked up yet --> Taxi
-						// Do not reserve or pick up the packet yet! Just taxi to the other gate
-						else { // (newPackage == null)
-							Package otherGatePackage = getPackageInAirportOtherGate(airportModule, droneInGate);
-							
-							if (otherGatePackage != null) {
-								letDroneTaxiToOtherGate(usedDrone, droneInGate, airportModule);
-							}
-							
-							
-							// 4) Fly to nearest packet that is not yet reserved
-							else { // (otherGatePackage == null)
-								Package bestPackage = getClosestPackageOtherAirport(usedDrone);
-								
-								if (bestPackage != null) {
-									bestPackage.reserver = usedDrone;
-									
-									// Assign target airport to drone
-									usedDrone.removeAllTargetAirports();
-									usedDrone.addTargetAirport(airports.get(bestPackage.fromAirport), bestPackage.fromGate);
-								}
-							}
+							usedDrone.addTargetAirport(airports.get(bestPackage.fromAirport), bestPackage.fromGate);
 						}
 					}
 				}
-			} else {
+			}
+		}
+	}
+	
+	/**
+	 * Find the pairs of drones that have to avoid each other, from the locations of the drones at the start of this iteration.
+	 * 	Every pair is considered once and both drones of a pair get the same verdict: the drone with the lowest index climbs
+	 * 	and neither drone may lower while they have to avoid each other.
+	 * 	With PREDICTIVE_AVOIDANCE these are the pairs the conflict detector predicts to lose their separation,
+	 * 	otherwise these are the pairs closer than DRONE_SEPARATION to each other.
+	 * 
+	 * @param 	time
+	 * 			The elapsed time of the inputs of this iteration.
+	 */
+	private void findNearbyDrones(float time) {
+		int count = drones.size();
+		if (droneNearby.length < count) {
+			droneNearby = new boolean[count];
+			droneClimbs = new boolean[count];
+			droneLocations = new Point3D[count];
+			previousDroneLocations = Arrays.copyOf(previousDroneLocations, count);
+		}
+		Arrays.fill(droneNearby, false);
+		Arrays.fill(droneClimbs, false);
+		for (int i=0 ; i<count ; i++)
+			droneLocations[i] = drones.get(i).location;
+		
+		// The locations were published at the elapsed time of the previous iteration
+		float locationsTime = lastInputsTime;
+		lastInputsTime = time;
+		
+		if (PREDICTIVE_AVOIDANCE) {
+			float elapsed = locationsTime - previousLocationsTime;
+			conflictDetector.reset(count);
+			for (int i=0 ; i<count ; i++) {
+				DroneAutopilot drone = drones.get(i);
+				Point3D location = droneLocations[i], previous = previousDroneLocations[i];
+				double velocityX = 0, velocityZ = 0;
+				if (elapsed > 0 && previous != null) {
+					velocityX = (location.getX() - previous.getX()) / elapsed;
+					velocityZ = (location.getZ() - previous.getZ()) / elapsed;
+				}
+				double altitude = (drone.temporarilyRaised ? drone.temporaryRaise : location.getY());
+				conflictDetector.setDrone(i, location.getX(), altitude, location.getZ(), velocityX, velocityZ);
+			}
+			int conflicts = conflictDetector.detect();
+			for (int c=0 ; c<conflicts ; c++) {
+				int first = conflictDetector.getFirstDrone(c), second = conflictDetector.getSecondDrone(c);
+				droneNearby[first] = true;
+				droneNearby[second] = true;
+				droneClimbs[first] = true;
+			}
+		}
+		else {
+			droneGrid.clear();
+			for (int i=0 ; i<count ; i++)
+				droneGrid.add(droneLocations[i].getX(), droneLocations[i].getZ());
 			
-				
-				
-				
-				
-				
-				
-				
-				
-				
-				
-				
-			if (drone == 0) { // Only once assign packages in the queue
-				
-				// PackageScheduler scheduler = new PackageScheduler();
-				
-				iterations++;
-				
-				// Determine # free drones + PTCs
-				ArrayList<PTC> combinations = new ArrayList<PTC>();
-				int freeDrones = 0, freePackages = 0;
-				boolean determinedNbFreeDrones = false;
-				for (Package p : packageQueue) {
-					if (p.transporter == null) {
-						freePackages++;
-						Airport targetAirport = airports.get(p.fromAirport);
-						Point3D targetLocation = (p.fromGate == 0 ? targetAirport.pointGate0 : targetAirport.pointGate1);
-						for (int i=0 ; i<drones.size() ; i++) {
-							DroneAutopilot d = drones.get(i);
-							if (droneIsFree(d)) { // Free drone
-								if (!determinedNbFreeDrones)
-									freeDrones++;
-								PTC ptc = new PTC();
-								ptc.autopilot = d;
-								ptc.p = p;
-								ptc.dist = d.location.distanceTo(targetLocation);
-								combinations.add(ptc);
-							}
-							else if (iterations == 2500) {
-								if (ENABLE_LOGGING) System.out.println("Drone " + d.getTargetCoordinatesSize() + " " + d.getFirstTargetAirport() + " " + d.hasPickedupPackage + " " + d.assignedPackage);
-							}
-						}
-						determinedNbFreeDrones = true;
-					}
+			for (int i=0 ; i<count ; i++) {
+				int found = droneGrid.query(droneLocations[i].getX(), droneLocations[i].getZ(), DRONE_SEPARATION, nearbyDrones);
+				if (found > nearbyDrones.length) {
+					nearbyDrones = new int[found];
+					found = droneGrid.query(droneLocations[i].getX(), droneLocations[i].getZ(), DRONE_SEPARATION, nearbyDrones);
 				}
-				Collections.sort(combinations);
-				if (iterations == 2500)
-					if (ENABLE_LOGGING) System.out.println("Free drones = " + freeDrones);
-				
-				// Now keep dealing with packages until # min(free drones, free packages) are assigned
-				// This is just to send drones to the packages in a way that makes it as fast as possible (naive interpretation)
-				int dealtPackages = 0;
-				int ptcIdx = 0;
-				while (dealtPackages < Math.min(freePackages, freeDrones) && ptcIdx < combinations.size()) {
-					PTC ptc = combinations.get(ptcIdx);
-					if (ENABLE_LOGGING) System.out.println(ptc);
-					if (droneIsFree(ptc.autopilot) && ptc.p.transporter == null) { // Make sure drone/package are still free
-						ptc.p.transporter = ptc.autopilot;
-						ptc.autopilot.addTargetAirport(airports.get(ptc.p.fromAirport), ptc.p.fromGate);
-						ptc.autopilot.assignedPackage = ptc.p;
-						if (ENABLE_LOGGING) System.out.println("Sending " + ptc.autopilot + " to " + ptc.p.fromAirport);
-						dealtPackages++;
+				for (int n=0 ; n<found ; n++) {
+					int j = nearbyDrones[n];
+					if (j > i && droneLocations[i].distanceTo(droneLocations[j]) < DRONE_SEPARATION) {
+						droneNearby[i] = true;
+						droneNearby[j] = true;
+						droneClimbs[i] = true;
 					}
-					ptcIdx++;
 				}
-				
-				
-				if (ENABLE_LOGGING && iterations == 2500) {
-					System.out.println("# packages : " + packageQueue.size());
-					for (Package p : packageQueue)
-						System.out.println(p);
+			}
+		}
+		
+		System.arraycopy(droneLocations, 0, previousDroneLocations, 0, count);
+		previousLocationsTime = locationsTime;
+	}
+	
+	// Registers whether drones avoid the conflicts predicted by the conflict detector, instead of all drones within DRONE_SEPARATION
+	public static boolean PREDICTIVE_AVOIDANCE = false;
+	
+	// Registers the distance below which drones avoid each other without PREDICTIVE_AVOIDANCE
+	public static final double DRONE_SEPARATION = 500;
+	
+	// Registers the separation the conflict detector keeps between drones, the vertical one is below the height of an altitude layer (30m)
+	public static final double CONFLICT_SEPARATION = 200, CONFLICT_VERTICAL_SEPARATION = 20;
+	
+	// Registers how far the conflict detector looks ahead by default, in seconds
+	public static final double CONFLICT_HORIZON = 15;
+	
+	/**
+	 * Returns the conflict detector used with PREDICTIVE_AVOIDANCE, its horizon can be changed.
+	 */
+	public ConflictDetector getConflictDetector() {
+		return conflictDetector;
+	}
+	
+	private final ConflictDetector conflictDetector = new ConflictDetector(CONFLICT_SEPARATION, CONFLICT_VERTICAL_SEPARATION, CONFLICT_HORIZON);
+	
+	/**
+	 * Registers the locations of the drones at the start of this iteration, by their index.
+	 */
+	private final SpatialGrid droneGrid = new SpatialGrid(DRONE_SEPARATION);
+	
+	private Point3D[] droneLocations = new Point3D[0], previousDroneLocations = new Point3D[0];
+	private float lastInputsTime = 0, previousLocationsTime = 0;
+	private boolean[] droneNearby = new boolean[0], droneClimbs = new boolean[0];
+	private int[] nearbyDrones = new int[8];
+	
+	/**
+	 * Route the given drone between the airports and hand it to the airport module it is registered with.
+	 * 	The location of the drone is published afterwards, so the drones routed after it see its current location.
+	 * 
+	 * @return	The autopilot of the given drone.
+	 */
+	private DroneAutopilot routeDrone(int drone, AutopilotInputs inputs) {
+		if (iterations == 2500)
+			iterations = 0;
+					
+		// Deal with the current drone
+		DroneAutopilot droneAutopilot = drones.get(drone);		
+		AirportModule handlingModule = droneAutopilot.airportModule;
+		if (handlingModule == null) { // Active drone handled by this 
+			Airport targetAirport = droneAutopilot.getFirstTargetAirport();
+								
+				if (targetAirport != null && horizontalDistance(inputs, targetAirport) < AIRPORT_RADIUS) {
+					handlingModule = airportModules.get(targetAirport.ID);
+					handlingModule.registerDrone(droneAutopilot);
+					handlingModule.handleDrone(droneAutopilot, inputs);
 				}
-				
-				// Now go over the packages and check if drones are ready to pick them up or deliver them
-				for (int i=0 ; i<packageQueue.size() ; i++) {
-					Package p = packageQueue.get(i);
-					if (!p.scheduling) {
-						
-						AirportModule fromModule = airportModules.get(p.fromAirport), toModule = airportModules.get(p.toAirport);
-						DroneAutopilot dronePickupGate = (p.fromGate == 0 ? fromModule.droneInGate0 : fromModule.droneInGate1);
-						DroneAutopilot droneDestinationGate = (p.toGate == 0 ? toModule.droneInGate0 : toModule.droneInGate1);		
-						
-						if (ENABLE_LOGGING && iterations == 2500) {
-							System.out.println("For " + p + " -> " + dronePickupGate + " && <- " + droneDestinationGate);
-						}
-						
-						if (dronePickupGate != null 
-							&& !dronePickupGate.hasPickedupPackage 
-							&& !p.pickedUp
-							&& fromModule.airport.inGate(p.fromGate, dronePickupGate.location)
-							&& dronePickupGate.getSpeed() < 1.0f) { // A drone can pickup the package
-							//dronePickupGate.removeAllTargets();
-							//dronePickupGate.removeFirstTargetAirport();
-							if (p.transporter != null)
-								p.transporter.assignedPackage = null;
-							if (dronePickupGate.assignedPackage != null)
-								dronePickupGate.assignedPackage.transporter = null;
-							p.pickedUp = true;
-							p.transporter = dronePickupGate;
-							dronePickupGate.assignedPackage = p;
-							dronePickupGate.hasPickedupPackage = true;
-							dronePickupGate.addTargetAirport(airports.get(p.toAirport), p.toGate);
-							if (ENABLE_LOGGING) System.out.println("Picked up " + p);
-						}
-										
-						if (droneDestinationGate != null 
-								&& droneDestinationGate.getSpeed() < 1.0f
-								&& toModule.airport.inGate(p.toGate, droneDestinationGate.location)
-								&& droneDestinationGate.hasPickedupPackage 
-								&& droneDestinationGate.assignedPackage == p) {
-							droneDestinationGate.assignedPackage = null;
-							droneDestinationGate.hasPickedupPackage = false;
-							if (p.transporter != null)
-								p.transporter.assignedPackage = null;
-							packageQueue.remove(i--);
-							if (ENABLE_LOGGING) System.out.println("Delivered " + p);
-						}
-						
-						// TODO - Comment taxi to other side?
-						if (p.transporter != null) {
-							DroneAutopilot dronePickupLane = (p.fromGate == 0 ? fromModule.droneOnLane0 : fromModule.droneOnLane1);
-							DroneAutopilot droneOtherGate = (p.fromGate == 0 ? fromModule.droneInGate1 : fromModule.droneInGate0);
-							if (dronePickupGate == null && dronePickupLane == null && droneOtherGate != null && droneOtherGate.getTargetCoordinatesSize() == 0 && droneOtherGate.getFirstTargetAirport() == null)
-								droneOtherGate.addTargetAirport(fromModule.airport, p.fromGate);
+				else {
+					
+					boolean canLower = true;
+					if (drone < droneNearby.length && droneNearby[drone]) { // Check for collisions (real-time)
+						if (droneClimbs[drone] && !droneAutopilot.temporarilyRaised) {
+							droneAutopilot.temporaryRaise = droneAutopilot.getFirstTargetHeight();
+							droneAutopilot.setFirstTargetHeight(droneAutopilot.temporaryRaise + 30.0f);
+							droneAutopilot.temporarilyRaised = true;
+							if (ENABLE_LOGGING) System.out.println("Rise to : " + (droneAutopilot.temporaryRaise + 30.0f) + " from : " + droneAutopilot.getFirstTargetHeight());
 						}
-						
+						canLower = false;
 					}
-				}
-
-			}
-			
-			//TODO
-			}
-			
-			
-			if (iterations == 2500)
-				iterations = 0;
-						
-			// Deal with the current drone
-			DroneAutopilot droneAutopilot = drones.get(drone);		
-			if (activeDrones.contains(droneAutopilot)) { // Active drone handled by this 
-				Point3D location = new Point3D(inputs.getX(), inputs.getY(), inputs.getZ());
-				Airport targetAirport = droneAutopilot.getFirstTargetAirport();
-									
-					if (targetAirport != null && location.distanceTo(new Point3D(targetAirport.centerX, location.getY(), targetAirport.centerZ)) < AIRPORT_RADIUS) {
-						airportModules.get(airports.indexOf(targetAirport)).registerDrone(droneAutopilot);
-						activeDrones.remove(droneAutopilot);
-						airportModules.get(airports.indexOf(targetAirport)).handleDrone(droneAutopilot, inputs);
-					}
-					else {
-						
-						boolean canLower = true;
-						for (int j=drone+1 ; j<drones.size() ; j++) { // Check for collisions (real-time)
-							DroneAutopilot otherDrone = drones.get(j);
-							if (location.distanceTo(otherDrone.location) < 500.0f) {
-								if (!droneAutopilot.temporarilyRaised) {
-									droneAutopilot.temporaryRaise = droneAutopilot.getFirstTargetHeight();
-									droneAutopilot.setFirstTargetHeight(droneAutopilot.temporaryRaise + 30.0f);
-									droneAutopilot.temporarilyRaised = true;
-									if (ENABLE_LOGGING) System.out.println("Rise to : " + (droneAutopilot.temporaryRaise + 30.0f) + " from : " + droneAutopilot.getFirstTargetHeight());
-								}
-								canLower = false;
-							}
-						}
-												
-						// Only change height of drone coordinates if drone is flying
-						if (inputs.getY() > 5 && drones.get(drone).getFirstTargetHeight() > 0) {
-							// Code checks if drone flies over (non-target) airport and if so makes sure it is above its stack
-							// If it isn't flying above any airport it makes sure it's altitude is returned to baseline
-							boolean raisedInIteration = false;
-							for (int i=0 ; i<airports.size() ; i++) {
-								Airport airport = airports.get(i);
-								Point3D center = new Point3D(airport.centerX, location.getY(), airport.centerZ);
-								double dist = location.distanceTo(center);
-								if (airport != targetAirport && dist < AIRPORT_RADIUS) {
+											
+					// Only change height of drone coordinates if drone is flying
+					if (inputs.getY() > 5 && drones.get(drone).getFirstTargetHeight() > 0) {
+						// Code checks if drone flies over (non-target) airport and if so makes sure it is above its stack
+						// If it isn't flying above any airport it makes sure it's altitude is returned to baseline
+						boolean raisedInIteration = false;
+						int nearby = findNearbyAirports(inputs.getX(), inputs.getZ(), AIRPORT_RADIUS);
+						for (int n=0 ; n<nearby ; n++) {
+							int i = nearbyAirports[n];
+							Airport airport = airports.get(i);
+							double dist = horizontalDistance(inputs, airport);
+							if (airport != targetAirport && dist < AIRPORT_RADIUS) {
+								
+								float deltaHeading = Math.abs(Heading.getDeltaHeading(inputs, airport.centerX, airport.centerZ));
+								if (deltaHeading < Math.PI/2) { // Flying to airport
 									
-									float deltaHeading = Math.abs(Heading.getDeltaHeading(inputs, center));
-									if (deltaHeading < Math.PI/2) { // Flying to airport
-										
-										if (!droneAutopilot.temporarilyRaised || droneAutopilot.temporaryRaiseAirportIndex != i) {
-											if (!droneAutopilot.temporarilyRaised)
-												droneAutopilot.temporaryRaise = droneAutopilot.getFirstTargetHeight();
-											float safeHeight = airportModules.get(i).getStackHeight() + 30.0f;
-											if (droneAutopilot.getFirstTargetHeight() < safeHeight) {
-												if (ENABLE_LOGGING) System.out.println("Rise to : " + safeHeight + " from : " + droneAutopilot.getFirstTargetHeight());
-												droneAutopilot.setFirstTargetHeight(safeHeight);
-												droneAutopilot.temporarilyRaised = true;
-												droneAutopilot.temporaryRaiseAirportIndex = i;
-											}
+									if (!droneAutopilot.temporarilyRaised || droneAutopilot.temporaryRaiseAirportIndex != i) {
+										if (!droneAutopilot.temporarilyRaised)
+											droneAutopilot.temporaryRaise = droneAutopilot.getFirstTargetHeight();
+										float safeHeight = airportModules.get(i).getStackHeight() + 30.0f;
+										if (droneAutopilot.getFirstTargetHeight() < safeHeight) {
+											if (ENABLE_LOGGING) System.out.println("Rise to : " + safeHeight + " from : " + droneAutopilot.getFirstTargetHeight());
+											droneAutopilot.setFirstTargetHeight(safeHeight);
+											droneAutopilot.temporarilyRaised = true;
+											droneAutopilot.temporaryRaiseAirportIndex = i;
 										}
-										
-										raisedInIteration = true;
-										canLower = false;
-										
-									}
-									else if (dist > 500.0 && droneAutopilot.temporarilyRaised && !raisedInIteration && canLower) { // Flying away
-										// droneAutopilot.temporaryRaise = 0.0; // Not necessary
-										canLower = (canLower && true);
 									}
-									else {
-										canLower = false;
-									}
-																
+									
+									raisedInIteration = true;
+									canLower = false;
+									
+								}
+								else if (dist > 500.0 && droneAutopilot.temporarilyRaised && !raisedInIteration && canLower) { // Flying away
+									// droneAutopilot.temporaryRaise = 0.0; // Not necessary
+									canLower = (canLower && true);
+								}
+								else {
+									canLower = false;
 								}
+															
 							}
 						}
-						
-						if (canLower && droneAutopilot.temporarilyRaised) {
-							if (ENABLE_LOGGING) System.out.println("Lower to : " + droneAutopilot.temporaryRaise);
-							droneAutopilot.temporarilyRaised = false;
-							droneAutopilot.setFirstTargetHeight(droneAutopilot.temporaryRaise);
-						}
-						
 					}
-			}
-			else {
-				for (AirportModule module : airportModules)
-					if (module.registeredDrone(droneAutopilot)) {
-						module.handleDrone(droneAutopilot, inputs);
-						break;
+					
+					if (canLower && droneAutopilot.temporarilyRaised) {
+						if (ENABLE_LOGGING) System.out.println("Lower to : " + droneAutopilot.temporaryRaise);
+						droneAutopilot.temporarilyRaised = false;
+						droneAutopilot.setFirstTargetHeight(droneAutopilot.temporaryRaise);
 					}
-			}
-			
-			outputs.set(drone, droneAutopilot.timePassed(inputs));
-		//}
-	}	
+					
+				}
+		}
+		else {
+			handlingModule.handleDrone(droneAutopilot, inputs);
+		}
+		
+		droneAutopilot.location = new Point3D(inputs.getX(), inputs.getY(), inputs.getZ());
+		if (handlingModule != null)
+			handlingModule.droneMoved(droneAutopilot);
+		return droneAutopilot;
+	}
+	
+	/**
+	 * Returns the horizontal distance from the drone with the given inputs to the center of the given airport.
+	 */
+	private static double horizontalDistance(AutopilotInputs inputs, Airport airport) {
+		double dx = inputs.getX() - airport.centerX, dz = inputs.getZ() - airport.centerZ;
+		return Math.sqrt(dx*dx + dz*dz);
+	}
 	
 	
 	// TODO - Refernce point
@@ -480,7 +933,9 @@ public class AutopilotModule {
 	private AirportModule getAirportModule(DroneAutopilot drone) {
 		if (drone.getSpeed() > 2.0f) return null;
 		else {
-			for (AirportModule module : airportModules) {
+			int nearby = findNearbyAirports(drone.location, 500);
+			for (int n=0 ; n<nearby ; n++) {
+				AirportModule module = airportModules.get(nearbyAirports[n]);
 				if (Distance.distanceToHor(module.centerAirport, drone.location) < 500) {
 					return module;
 				}
@@ -497,13 +952,7 @@ public class AutopilotModule {
 	 * @return
 	 */
 	private Package getPackageInAirportGate(AirportModule module, int gate) {
-		for (Package pack: packageQueue) {
-			if (airports.get(pack.fromAirport) == module.airport &&
-					pack.fromGate == gate) {
-				return pack;
-			}
-		}
-		return null;
+		return packageQueue.getFirst(module.airport.ID, gate);
 	}
 	
 	/**
@@ -514,33 +963,38 @@ public class AutopilotModule {
 	 * @return
 	 */
 	private Package getPackageInAirportOtherGate(AirportModule module, int gate) {
-		for (Package pack: packageQueue) {
-			if (airports.get(pack.fromAirport) == module.airport &&
-					pack.fromGate == (gate+1)%2) {
-				return pack;
-			}
-		}
-		return null;
+		return packageQueue.getFirst(module.airport.ID, (gate+1)%2);
 	}
 	
-	// TODO
+	/**
+	 * Get the closest package (from another airport, further than 1000m) that is not yet reserved.
+	 * 	The airports are searched in growing circles around the drone, so only the packages of the nearest airports are considered.
+	 * 	Of the packages at equally distant airports, the one that was added first is returned.
+	 */
 	private Package getClosestPackageOtherAirport(DroneAutopilot drone) {
-		// Check the closest package (from another airport) that is not yet reserved
+		if (packageQueue.isEmpty())
+			return null;
+		
 		float closestDistance = Float.POSITIVE_INFINITY;
 		float distance;
 		Package bestPackage = null;
 		
-		for (Package pack: packageQueue) {
-			if (pack.reserver == null && pack.transporter == null) {	// transporter == null is redundant
+		for (double radius=2*AIRPORT_RADIUS ; ; radius*=2) {
+			int nearby = findNearbyAirports(drone.location, radius);
+			for (int n=0 ; n<nearby ; n++) {
+				Package pack = packageQueue.getFirstUnreserved(nearbyAirports[n]);
+				if (pack == null)
+					continue;
 				distance = Distance.distanceToHor(airports.get(pack.fromAirport).getCenter(), drone.location);
-				if (distance < closestDistance && distance > 1000) {
+				if (distance > 1000 && (distance < closestDistance || (distance == closestDistance && pack.storeIndex < bestPackage.storeIndex))) {
 					closestDistance = distance;
 					bestPackage = pack;
 				}
 			}
+			// Airports outside of the circle are further away than the best package (1m margin for rounding)
+			if (closestDistance < radius - 1 || nearby == airports.size())
+				return bestPackage;
 		}
-		
-		return bestPackage;
 	}
 	
 	/**
@@ -575,7 +1029,7 @@ public class AutopilotModule {
 	 * @return	The autopilot's output.
 	 */
 	public AutopilotOutputs completeTimeHasPassed(int drone) {
-		return outputs.get(drone);
+		return outputs[drone];
 	}
 
 	/**
@@ -590,7 +1044,6 @@ public class AutopilotModule {
 	 * @param 	toGate
 	 * 			The destination gate.
 	 */
-	public static boolean USE_SCHEDULING = false;
 	public void deliverPackage(int fromAirport, int fromGate, int toAirport, int toGate) {
 		Package newPackage = new Package();
 		newPackage.fromAirport = fromAirport;
@@ -605,7 +1058,7 @@ public class AutopilotModule {
 	/**
 	 * The queue of packages not assigned to any drone.
 	 */
-	private ArrayList<Package> packageQueue = new ArrayList<Package>();
+	private final PackageStore packageQueue = new PackageStore();
 	
 	/**
 	 * End the simulation.
@@ -613,14 +1066,18 @@ public class AutopilotModule {
 	public void simulationEnded() {
 		for (DroneAutopilot drone : drones)
 			drone.simulationEnded();
+		synchronized(this) {
+			if (scheduler != null)
+				scheduler.stop();
+			scheduler = null;
+		}
 	}
 
 	/**
 	 * Registers the drones held by this module.
 	 */
 	private ArrayList<DroneAutopilot> drones = new ArrayList<DroneAutopilot>();
-	private ArrayList<DroneAutopilot> activeDrones = new ArrayList<DroneAutopilot>();
-	private ArrayList<AutopilotOutputs> outputs = new ArrayList<AutopilotOutputs>();
+	private AutopilotOutputs[] outputs = new AutopilotOutputs[0];
 	
 	public ArrayList<DroneAutopilot> getAllDrones() {
 		return this.drones;
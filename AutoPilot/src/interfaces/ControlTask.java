@@ -0,0 +1,41 @@
+package interfaces;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the control steps of a contiguous range of drones, so the drones of one tick can be divided over multiple workers.
+ * The drones must already be routed, every drone only touches its own state.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+class ControlTask implements Callable<Void> {
+	
+	private final List<DroneAutopilot> drones;
+	final int from;
+	final int to;
+	private AutopilotInputs[] inputs;
+	private AutopilotOutputs[] outputs;
+	
+	/**
+	 * Create a task for the drones with index from (inclusive) to index to (exclusive).
+	 */
+	ControlTask(List<DroneAutopilot> drones, int from, int to) {
+		this.drones = drones;
+		this.from = from;
+		this.to = to;
+	}
+	
+	void setInputs(AutopilotInputs[] inputs, AutopilotOutputs[] outputs) {
+		this.inputs = inputs;
+		this.outputs = outputs;
+	}
+
+	@Override
+	public Void call() {
+		for (int drone=from ; drone<to ; drone++)
+			outputs[drone] = drones.get(drone).timePassed(inputs[drone]);
+		return null;
+	}
+}
@@ -27,8 +27,14 @@ public class DroneAutopilot implements Autopilot {
 		public Package assignedPackage = null;
 		public boolean hasPickedupPackage = false;
 		public float getSpeed() {
-			return physics.getSSquared();
+			return speed;
 		}
+		
+		/**
+		 * The squared speed of the last control step, published for the fleet-wide
+		 *  decisions other drones take while this drone is being controlled.
+		 */
+		private volatile float speed = 0;
 	
 	// Communication
 	public boolean free_enabled = false;	// Priority 1
@@ -39,7 +45,7 @@ public class DroneAutopilot implements Autopilot {
 	
 	private AutopilotMotionPlanner motionPlanner = new AutopilotMotionPlanner();
 	private OneCube oneCube = new OneCube();
-	public List<Point3D> targetCoordinates = new ArrayList<>();
+	public final List<Point3D> targetCoordinates = new ArrayList<>();
 
 	private float reachWidthLong = 55;
 	private float reachWidthShort = 40;
@@ -128,8 +134,19 @@ public class DroneAutopilot implements Autopilot {
 	
 	/**
 	 * Last coordinates that were registered.
+	 *  A new point is assigned every step so other drones can read it while this one is being controlled.
+	 */
+	public volatile Point3D location = new Point3D(0.0f, 0.0f, 0.0f);
+	
+	/**
+	 * The index of this drone in its autopilot module, -1 if it isn't defined in a module.
 	 */
-	public Point3D location = new Point3D(0.0f, 0.0f, 0.0f);
+	int index = -1;
+	
+	/**
+	 * The airport module that handles this drone, null while the autopilot module handles it.
+	 */
+	AirportModule airportModule = null;
 	
 	/**
 	 * Let this autopilot's image analyser analyse the given input.
@@ -175,7 +192,7 @@ public class DroneAutopilot implements Autopilot {
 		if (!targetCoordinates.isEmpty() &&
 				((targetCoordinates.get(0).getY() >= 0 && isReached(targetCoordinates.get(0), inputs, true)) ||
 				(targetCoordinates.get(0).getY() < 0 && isReached(targetCoordinates.get(0), inputs, false))))
-			targetCoordinates.remove(0);
+			synchronized (targetCoordinates) {targetCoordinates.remove(0);}
 		
 		
 		// In this case the drone will do nothing but brake only on its first wheel (to stop creating tension between its wheels)
@@ -270,7 +287,9 @@ public class DroneAutopilot implements Autopilot {
 	 */
 	public AutopilotOutputs simulationStarted(AutopilotConfig config, AutopilotInputs inputs) {
 		setConfiguration(config);
-		return analyseInputs(inputs, true);
+		AutopilotOutputs outputs = copy(analyseInputs(inputs, true));
+		speed = physics.getSSquared();
+		return outputs;
 	}
 
 	/**
@@ -283,7 +302,38 @@ public class DroneAutopilot implements Autopilot {
 	 * @category API
 	 */
 	public AutopilotOutputs timePassed(AutopilotInputs inputs) {
-		return analyseInputs(inputs, false);
+		AutopilotOutputs outputs = copy(analyseInputs(inputs, false));
+		speed = physics.getSSquared();
+		return outputs;
+	}
+	
+	/**
+	 * Returns a copy of the given outputs.
+	 * 	The physics engine reuses its outputs, the copy keeps the values of this call.
+	 */
+	private static AutopilotOutputs copy(AutopilotOutputs outputs) {
+		
+		// Read values
+		final float thrust = outputs.getThrust();
+		final float leftWingInclination = outputs.getLeftWingInclination();
+		final float rightWingInclination = outputs.getRightWingInclination();
+		final float horStabInclination = outputs.getHorStabInclination();
+		final float verStabInclination = outputs.getVerStabInclination();
+		final float frontBrakeForce = outputs.getFrontBrakeForce();
+		final float leftBrakeForce = outputs.getLeftBrakeForce();
+		final float rightBrakeForce = outputs.getRightBrakeForce();
+		
+		// Create autopilot outputs object
+		return new AutopilotOutputs() {
+			public float getThrust() { return thrust; }
+			public float getLeftWingInclination() { return leftWingInclination; }
+			public float getRightWingInclination() { return rightWingInclination; }
+			public float getHorStabInclination() { return horStabInclination; }
+			public float getVerStabInclination() { return verStabInclination; }
+			public float getFrontBrakeForce() { return frontBrakeForce; }
+			public float getLeftBrakeForce() { return leftBrakeForce; }
+			public float getRightBrakeForce() { return rightBrakeForce; }
+		};
 	}
 
 	/**
@@ -392,9 +442,14 @@ public class DroneAutopilot implements Autopilot {
 	
 	/**
 	 * @return The amount of targets in the list
+	 * 
+	 * @note	Fleet-wide scheduling reads this for other drones, while those drones may be dropping
+	 * 			a reached target on another thread.
 	 */
 	public int getTargetCoordinatesSize() {
-		return targetCoordinates.size();
+		synchronized (targetCoordinates) {
+			return targetCoordinates.size();
+		}
 	}
 	
 	/**
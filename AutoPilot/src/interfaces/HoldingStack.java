@@ -0,0 +1,313 @@
+package interfaces;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import autopilot_planning.Distance;
+import autopilot_utilities.Point3D;
+
+/**
+ * The drones in the holding stack of an airport, in the order in which they entered the stack.
+ * 	Every drone knows its predecessor overall and its predecessor that requested the same gate, so the
+ * 	landing order is decided in constant time. The amount of drones requesting every gate and the height
+ * 	of the highest drone within the stack radius are maintained as the drones enter, leave and move.
+ * 	The gate and the height of a drone are registered when it enters the stack or is updated.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+class HoldingStack implements Iterable<DroneAutopilot> {
+	
+	/**
+	 * Create an empty stack around the given center, only drones within the given radius count for its height.
+	 */
+	HoldingStack(Point3D center, float radius) {
+		this.center = center;
+		this.radius = radius;
+	}
+	
+	private final Point3D center;
+	private final float radius;
+	
+	private static class Entry {
+		
+		Entry(DroneAutopilot drone) {
+			this.drone = drone;
+		}
+		
+		final DroneAutopilot drone;
+		Entry previous, next;
+		Entry previousForGate, nextForGate;
+		int gate;
+		float height;
+		int heapIndex;
+	}
+	
+	private final HashMap<DroneAutopilot, Entry> entries = new HashMap<DroneAutopilot, Entry>();
+	private Entry first, last;
+	private final Entry[] firstForGate = new Entry[2], lastForGate = new Entry[2];
+	private final int[] requests = new int[2];
+	
+	// Binary max heap of the entries by height
+	private Entry[] heap = new Entry[8];
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+	
+	public boolean contains(DroneAutopilot drone) {
+		return entries.containsKey(drone);
+	}
+	
+	/**
+	 * Add the given drone at the end of this stack, if it is not in this stack yet.
+	 */
+	public void add(DroneAutopilot drone) {
+		if (entries.containsKey(drone))
+			return;
+		Entry entry = new Entry(drone);
+		entries.put(drone, entry);
+		entry.previous = last;
+		if (last == null)
+			first = entry;
+		else
+			last.next = entry;
+		last = entry;
+		
+		entry.gate = gateOf(drone, 1);
+		appendForGate(entry);
+		
+		entry.height = heightOf(drone);
+		if (size() > heap.length)
+			heap = Arrays.copyOf(heap, 2 * heap.length);
+		entry.heapIndex = size() - 1;
+		heap[entry.heapIndex] = entry;
+		siftUp(entry.heapIndex);
+	}
+	
+	/**
+	 * Remove the given drone from this stack, if it is in this stack.
+	 */
+	public void remove(DroneAutopilot drone) {
+		Entry entry = entries.remove(drone);
+		if (entry == null)
+			return;
+		if (entry.previous == null)
+			first = entry.next;
+		else
+			entry.previous.next = entry.next;
+		if (entry.next == null)
+			last = entry.previous;
+		else
+			entry.next.previous = entry.previous;
+		
+		removeForGate(entry);
+		
+		int index = entry.heapIndex, lastIndex = size();
+		Entry moved = heap[lastIndex];
+		heap[lastIndex] = null;
+		if (index < lastIndex) {
+			heap[index] = moved;
+			moved.heapIndex = index;
+			siftUp(index);
+			siftDown(moved.heapIndex);
+		}
+	}
+	
+	/**
+	 * Register the current gate and location of the given drone, if it is in this stack.
+	 */
+	public void update(DroneAutopilot drone) {
+		Entry entry = entries.get(drone);
+		if (entry == null)
+			return;
+		int gate = gateOf(drone, entry.gate);
+		if (gate != entry.gate) {
+			removeForGate(entry);
+			entry.gate = gate;
+			insertForGate(entry);
+		}
+		float height = heightOf(drone);
+		if (height != entry.height) {
+			entry.height = height;
+			siftUp(entry.heapIndex);
+			siftDown(entry.heapIndex);
+		}
+	}
+	
+	/**
+	 * Returns the drone that entered this stack right before the given drone, null if there is none.
+	 */
+	public DroneAutopilot getPrevious(DroneAutopilot drone) {
+		Entry entry = entries.get(drone);
+		return (entry == null || entry.previous == null ? null : entry.previous.drone);
+	}
+	
+	/**
+	 * Returns whether no drone that entered this stack before the given drone requested the same gate.
+	 */
+	public boolean isFirstForGate(DroneAutopilot drone) {
+		Entry entry = entries.get(drone);
+		return (entry == null || entry.previousForGate == null);
+	}
+	
+	/**
+	 * Returns whether no drone that entered this stack before the given drone requested the same gate,
+	 * 	not counting the drone that entered right before it.
+	 */
+	public boolean isFirstForGateButPrevious(DroneAutopilot drone) {
+		Entry entry = entries.get(drone);
+		if (entry == null || entry.previousForGate == null)
+			return true;
+		return (entry.previousForGate == entry.previous && entry.previous.previousForGate == null);
+	}
+	
+	/**
+	 * Returns the amount of drones in this stack that requested the given gate.
+	 */
+	public int getRequests(int gate) {
+		return requests[gate];
+	}
+	
+	/**
+	 * Returns the height of the highest drone within the radius of this stack, negative infinity if there is none.
+	 */
+	public float getHighestDrone() {
+		return (isEmpty() ? Float.NEGATIVE_INFINITY : heap[0].height);
+	}
+	
+	/**
+	 * Returns the position of the given drone in this stack, -1 if it is not in this stack.
+	 * 	This takes linear time.
+	 */
+	public int indexOf(DroneAutopilot drone) {
+		int index = 0;
+		for (Entry entry=first ; entry!=null ; entry=entry.next, index++)
+			if (entry.drone == drone)
+				return index;
+		return -1;
+	}
+	
+	/**
+	 * Returns an iterator over the drones in the order in which they entered this stack.
+	 */
+	@Override
+	public Iterator<DroneAutopilot> iterator() {
+		return new Iterator<DroneAutopilot>() {
+			
+			private Entry next = first;
+			
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+			
+			@Override
+			public DroneAutopilot next() {
+				if (next == null)
+					throw new NoSuchElementException();
+				DroneAutopilot drone = next.drone;
+				next = next.next;
+				return drone;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the gate the given drone requested, the given gate if it has no target airport.
+	 */
+	private static int gateOf(DroneAutopilot drone, int gate) {
+		Integer requested = drone.getFirstTargetGate();
+		if (requested == null)
+			return gate;
+		return (requested == 0 ? 0 : 1);
+	}
+	
+	private float heightOf(DroneAutopilot drone) {
+		if (Distance.distanceToHor(center, drone.location) < radius)	// Check if drone IN stack
+			return (float)(drone.location.getY());
+		return Float.NEGATIVE_INFINITY;
+	}
+	
+	private void appendForGate(Entry entry) {
+		entry.previousForGate = lastForGate[entry.gate];
+		entry.nextForGate = null;
+		if (lastForGate[entry.gate] == null)
+			firstForGate[entry.gate] = entry;
+		else
+			lastForGate[entry.gate].nextForGate = entry;
+		lastForGate[entry.gate] = entry;
+		requests[entry.gate]++;
+	}
+	
+	/**
+	 * Insert the given entry among the entries of its gate, in the order of the stack.
+	 */
+	private void insertForGate(Entry entry) {
+		Entry previous = entry.previous;
+		while (previous != null && previous.gate != entry.gate)
+			previous = previous.previous;
+		if (previous == lastForGate[entry.gate]) {
+			appendForGate(entry);
+			return;
+		}
+		entry.previousForGate = previous;
+		entry.nextForGate = (previous == null ? firstForGate[entry.gate] : previous.nextForGate);
+		entry.nextForGate.previousForGate = entry;
+		if (previous == null)
+			firstForGate[entry.gate] = entry;
+		else
+			previous.nextForGate = entry;
+		requests[entry.gate]++;
+	}
+	
+	private void removeForGate(Entry entry) {
+		if (entry.previousForGate == null)
+			firstForGate[entry.gate] = entry.nextForGate;
+		else
+			entry.previousForGate.nextForGate = entry.nextForGate;
+		if (entry.nextForGate == null)
+			lastForGate[entry.gate] = entry.previousForGate;
+		else
+			entry.nextForGate.previousForGate = entry.previousForGate;
+		entry.previousForGate = entry.nextForGate = null;
+		requests[entry.gate]--;
+	}
+	
+	private void siftUp(int index) {
+		Entry entry = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (heap[parent].height >= entry.height)
+				break;
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+	
+	private void siftDown(int index) {
+		Entry entry = heap[index];
+		int size = size();
+		while (2 * index + 1 < size) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && heap[child + 1].height > heap[child].height)
+				child++;
+			if (heap[child].height <= entry.height)
+				break;
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+}
@@ -0,0 +1,155 @@
+package interfaces;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import autopilot_planning.Distance;
+import autopilot_utilities.Point3D;
+import junit.framework.TestCase;
+
+/**
+ * A class for testing the holding stack of an airport.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+public class HoldingStackTests extends TestCase {
+	
+	private static final Point3D center = new Point3D(0, 70, 0);
+	private static final float radius = 300;
+	
+	/**
+	 * Give the given drone the given target gate.
+	 */
+	private static void setGate(DroneAutopilot drone, int gate) {
+		drone.removeFirstTargetAirport();
+		drone.addTargetAirport(null, gate);
+	}
+	
+	/**
+	 * Give the given drone a random location, inside or outside the radius of the stack.
+	 */
+	private static void move(DroneAutopilot drone, Random random) {
+		float distance = random.nextFloat() * 2 * radius;
+		drone.location = new Point3D(distance, 40 + random.nextInt(10) * 20, random.nextFloat() * 10);
+	}
+	
+	/**
+	 * Returns whether no drone before the given drone in the given list requested its gate, not counting the
+	 * 	given amount of drones right before it.
+	 */
+	private static boolean firstForGate(ArrayList<DroneAutopilot> stack, DroneAutopilot drone, int skipped) {
+		for (int i=0 ; i<stack.indexOf(drone) - skipped ; i++)
+			if (stack.get(i).getFirstTargetGate().intValue() == drone.getFirstTargetGate().intValue())
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Check that the given stack answers all queries the same way as scanning the given list.
+	 */
+	private static void checkStack(HoldingStack stack, ArrayList<DroneAutopilot> expected, DroneAutopilot[] drones) {
+		assertEquals(expected.size(), stack.size());
+		assertEquals(expected.isEmpty(), stack.isEmpty());
+		
+		Iterator<DroneAutopilot> iterator = stack.iterator();
+		for (DroneAutopilot drone : expected)
+			assertSame(drone, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		int[] requests = new int[2];
+		float highest = Float.NEGATIVE_INFINITY;
+		for (DroneAutopilot drone : expected) {
+			requests[drone.getFirstTargetGate()]++;
+			if (Distance.distanceToHor(center, drone.location) < radius)
+				highest = Math.max(highest, (float)drone.location.getY());
+		}
+		assertEquals(requests[0], stack.getRequests(0));
+		assertEquals(requests[1], stack.getRequests(1));
+		assertEquals(highest, stack.getHighestDrone());
+		
+		for (DroneAutopilot drone : drones) {
+			int index = expected.indexOf(drone);
+			assertEquals(index, stack.indexOf(drone));
+			assertEquals(index != -1, stack.contains(drone));
+			if (index == -1)
+				continue;
+			assertSame(index == 0 ? null : expected.get(index - 1), stack.getPrevious(drone));
+			assertEquals(firstForGate(expected, drone, 0), stack.isFirstForGate(drone));
+			assertEquals(firstForGate(expected, drone, 1), stack.isFirstForGateButPrevious(drone));
+		}
+	}
+	
+	/**
+	 * Compare random sequences of drones entering and leaving the stack, changing gates and moving,
+	 * 	with scanning a list of the drones in the stack.
+	 */
+	@Test
+	public void testMatchesListScans() {
+		Random random = new Random(19);
+		for (int test=0 ; test<50 ; test++) {
+			DroneAutopilot[] drones = new DroneAutopilot[2 + random.nextInt(12)];
+			for (int i=0 ; i<drones.length ; i++) {
+				drones[i] = new DroneAutopilot();
+				setGate(drones[i], random.nextInt(2));
+				move(drones[i], random);
+			}
+			HoldingStack stack = new HoldingStack(center, radius);
+			ArrayList<DroneAutopilot> expected = new ArrayList<DroneAutopilot>();
+			for (int step=0 ; step<300 ; step++) {
+				DroneAutopilot drone = drones[random.nextInt(drones.length)];
+				switch (random.nextInt(4)) {
+				case 0:	// Enter the stack
+					stack.add(drone);
+					if (!expected.contains(drone)) expected.add(drone);
+					break;
+				case 1:	// Leave the stack
+					stack.remove(drone);
+					expected.remove(drone);
+					break;
+				case 2:	// Request the other gate
+					setGate(drone, 1 - drone.getFirstTargetGate());
+					stack.update(drone);
+					break;
+				default:	// Move
+					move(drone, random);
+					stack.update(drone);
+				}
+				checkStack(stack, expected, drones);
+			}
+		}
+	}
+	
+	/**
+	 * Check the landing order when every drone but the last two requested the other gate.
+	 */
+	@Test
+	public void testFirstForGateButPrevious() {
+		HoldingStack stack = new HoldingStack(center, radius);
+		DroneAutopilot[] drones = new DroneAutopilot[4];
+		for (int i=0 ; i<drones.length ; i++) {
+			drones[i] = new DroneAutopilot();
+			setGate(drones[i], (i < 2 ? 0 : 1));
+			drones[i].location = new Point3D(0, 100 + i, 0);
+			stack.add(drones[i]);
+		}
+		assertTrue(stack.isFirstForGate(drones[2]));
+		assertFalse(stack.isFirstForGate(drones[3]));
+		assertTrue(stack.isFirstForGateButPrevious(drones[3]));
+		
+		// Once the drone in front of the previous drone requests the same gate, the drone has to wait
+		setGate(drones[1], 1);
+		stack.update(drones[1]);
+		assertFalse(stack.isFirstForGateButPrevious(drones[3]));
+		assertTrue(stack.isFirstForGateButPrevious(drones[2]));
+		assertEquals(3, stack.getRequests(1));
+		
+		// Removing the highest drone lowers the stack
+		assertEquals(103f, stack.getHighestDrone());
+		stack.remove(drones[3]);
+		assertEquals(102f, stack.getHighestDrone());
+	}
+}
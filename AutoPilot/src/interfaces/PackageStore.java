@@ -0,0 +1,224 @@
+package interfaces;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * The packages waiting to be delivered, in the order in which they were added.
+ * 	The packages are also linked per airport and gate they have to be picked up at, in the same order,
+ * 	so the packages waiting at a gate are found without going over all packages.
+ * 	The packages without a transporter are kept in a set in the same order, which is updated whenever a package
+ * 	is added, removed or gets or loses its transporter.
+ * 	Removed packages leave a gap that is filled when the store is compacted, so removing never shifts the
+ * 	other packages and the store can be iterated while packages are removed from it.
+ * 
+ * @author	Team Saffier
+ * @version	1.0
+ */
+class PackageStore implements Iterable<Package> {
+	
+	private Package[] packages = new Package[16];
+	private int end = 0, size = 0;
+	
+	// The order in which the next package is added
+	private long nextOrder = 0;
+	
+	/**
+	 * Compares packages by the order in which they were added to a store.
+	 */
+	static final Comparator<Package> IN_ORDER = new Comparator<Package>() {
+		@Override
+		public int compare(Package one, Package other) {
+			return Long.compare(one.order, other.order);
+		}
+	};
+	
+	// The packages without transporter, and whether this set changed since it was last asked
+	private final TreeSet<Package> free = new TreeSet<Package>(IN_ORDER);
+	private boolean freeChanged = false;
+	
+	// The first and last package per airport and gate, indexed by airport*2 + gate
+	private Package[] firstAtGate = new Package[8], lastAtGate = new Package[8];
+	
+	/**
+	 * Returns the amount of packages in this store.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public boolean contains(Package pack) {
+		return pack.storeIndex >= 0 && pack.storeIndex < end && packages[pack.storeIndex] == pack;
+	}
+	
+	/**
+	 * Add the given package at the end of this store.
+	 */
+	public void add(Package pack) {
+		if (contains(pack))
+			throw new IllegalArgumentException("The package is already stored");
+		if (end == packages.length) {
+			if (isSparse())
+				compact();
+			else
+				packages = Arrays.copyOf(packages, 2 * packages.length);
+		}
+		pack.storeIndex = end;
+		pack.order = nextOrder++;
+		packages[end++] = pack;
+		size++;
+		if (pack.transporter == null)
+			freeChanged |= free.add(pack);
+		
+		int key = 2 * pack.fromAirport + pack.fromGate;
+		if (key >= firstAtGate.length) {
+			firstAtGate = Arrays.copyOf(firstAtGate, Math.max(2 * firstAtGate.length, key + 1));
+			lastAtGate = Arrays.copyOf(lastAtGate, firstAtGate.length);
+		}
+		pack.previousAtGate = lastAtGate[key];
+		pack.nextAtGate = null;
+		if (lastAtGate[key] == null)
+			firstAtGate[key] = pack;
+		else
+			lastAtGate[key].nextAtGate = pack;
+		lastAtGate[key] = pack;
+	}
+	
+	/**
+	 * Remove the given package from this store, if it is stored.
+	 */
+	public void remove(Package pack) {
+		if (!contains(pack))
+			return;
+		packages[pack.storeIndex] = null;
+		pack.storeIndex = -1;
+		size--;
+		freeChanged |= free.remove(pack);
+		
+		int key = 2 * pack.fromAirport + pack.fromGate;
+		if (pack.previousAtGate == null)
+			firstAtGate[key] = pack.nextAtGate;
+		else
+			pack.previousAtGate.nextAtGate = pack.nextAtGate;
+		if (pack.nextAtGate == null)
+			lastAtGate[key] = pack.previousAtGate;
+		else
+			pack.nextAtGate.previousAtGate = pack.previousAtGate;
+		pack.previousAtGate = pack.nextAtGate = null;
+	}
+	
+	/**
+	 * Register that the transporter of the given package changed, if it is stored.
+	 */
+	public void transporterChanged(Package pack) {
+		if (!contains(pack))
+			return;
+		if (pack.transporter == null)
+			freeChanged |= free.add(pack);
+		else
+			freeChanged |= free.remove(pack);
+	}
+	
+	/**
+	 * Returns whether packages without transporter were added or removed since the last call, and forget these changes.
+	 */
+	public boolean takeFreeChanged() {
+		boolean changed = freeChanged;
+		freeChanged = false;
+		return changed;
+	}
+	
+	/**
+	 * Replace the contents of the given list by the packages without transporter, in the order in which they were added.
+	 */
+	public void getFreePackages(ArrayList<Package> list) {
+		list.clear();
+		list.addAll(free);
+	}
+	
+	/**
+	 * Returns whether the gaps left by removed packages take up more than half of this store.
+	 */
+	public boolean isSparse() {
+		return 2 * size < end;
+	}
+	
+	/**
+	 * Close the gaps left by removed packages, this must not be done while the store is iterated.
+	 */
+	public void compact() {
+		int index = 0;
+		for (int i=0 ; i<end ; i++) {
+			if (packages[i] != null) {
+				packages[i].storeIndex = index;
+				packages[index++] = packages[i];
+			}
+		}
+		Arrays.fill(packages, index, end, null);
+		end = index;
+	}
+	
+	/**
+	 * Returns the first package that has to be picked up at the given airport and gate, null if there is none.
+	 */
+	public Package getFirst(int airport, int gate) {
+		int key = 2 * airport + gate;
+		return (key < firstAtGate.length ? firstAtGate[key] : null);
+	}
+	
+	/**
+	 * Returns the first package at the given airport that is not reserved or transported, null if there is none.
+	 */
+	public Package getFirstUnreserved(int airport) {
+		Package first = firstUnreserved(getFirst(airport, 0)), second = firstUnreserved(getFirst(airport, 1));
+		if (first == null || (second != null && second.storeIndex < first.storeIndex))
+			return second;
+		return first;
+	}
+	
+	private static Package firstUnreserved(Package pack) {
+		while (pack != null && (pack.reserver != null || pack.transporter != null))
+			pack = pack.nextAtGate;
+		return pack;
+	}
+	
+	/**
+	 * Returns an iterator over the packages in the order in which they were added.
+	 * 	Packages may be removed from this store while it is iterated.
+	 */
+	@Override
+	public Iterator<Package> iterator() {
+		return new Iterator<Package>() {
+			
+			private int next = skip(0);
+			
+			private int skip(int index) {
+				while (index < end && packages[index] == null)
+					index++;
+				return index;
+			}
+			
+			@Override
+			public boolean hasNext() {
+				next = skip(next);
+				return next < end;
+			}
+			
+			@Override
+			public Package next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return packages[next++];
+			}
+		};
+	}
+
+}
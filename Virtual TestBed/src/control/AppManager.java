@@ -9,7 +9,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 
 import javax.imageio.ImageIO;
 import javax.swing.JFileChooser;
@@ -29,7 +28,6 @@ import entities.Drone;
 import entities.Entity;
 import entities.Model;
 import entities.Monument;
-import entities.PackageKey;
 import entities.Symbol;
 import entities.TexturedModel;
 import guis.GuiRenderer;
@@ -62,8 +60,11 @@ public class AppManager {
 	public static final int START_DISPLAY_WIDTH = 800;
 	public static final int START_DISPLAY_HEIGHT = 800;
 	private static int FPS_CAP = 50;
-	private static int autopilotCallsPerSecond = 50;
-	private static int iterationsPerFrame = 4;
+	private static volatile int autopilotCallsPerSecond = 50;
+	private static volatile int iterationsPerFrame = 4;
+	private static volatile float integratorTolerance = 0;
+	// The simulation thread doesn't try to catch up more than this many nanoseconds
+	private static final long MAX_SIMULATION_LAG = 250000000;
 	private static final int INFO_REFRESH_RATE = 10;
 	
 	//private static final int DRONE_AMOUNT = 1;
@@ -71,7 +72,6 @@ public class AppManager {
 	private static final int AIRPORT_WIDTH = 250;
 	
 	private static float lastFrameTime;
-	private static long thisFrameTime;
 	private static long lastUpdateTime;
 	private static float delta;
 	
@@ -89,8 +89,8 @@ public class AppManager {
 	private static boolean changingDrone = false;
 	private static ProceduralTerrainLoader terrainLoader;
 	private static float cameraDistance = 50f;
-	private static float timeRelativeToReal = 1f;
-	private static boolean maxSpeed = false;
+	private static volatile float timeRelativeToReal = 1f;
+	private static volatile boolean maxSpeed = false;
 	
 	private static TextureFrameBuffer textureTopLeftBuffer;
 	private static TextureFrameBuffer textureTopRightBuffer;
@@ -108,12 +108,19 @@ public class AppManager {
 	private static JFileChooser fileChooser;
 	
 	private static float deltaLastInfoUpdate = 0; 
-	private static boolean shouldClose = false;
+	private static volatile boolean shouldClose = false;
 	private static CameraView cameraView = CameraView.Custom;
-	private static SimulationStatus simStatus = SimulationStatus.Idle;
+	private static volatile SimulationStatus simStatus = SimulationStatus.Idle;
 	
+	// Only used by the simulation thread
 	private static float simulationTime = 0;
 	
+	// The simulation thread publishes snapshots of the world, the render thread copies the latest one into its own drones
+	private static Thread simulationThread;
+	private static final SnapshotBuffer snapshots = new SnapshotBuffer();
+	private static WorldSnapshot snapshot;
+	private static ArrayList<Drone> renderDrones = new ArrayList<>();
+	
 	private static AutopilotModule module;
 	private static AutopilotConfig configs;
 	
@@ -390,6 +397,9 @@ public class AppManager {
 		mainFrame.setWorldManager(worldManager);
 		mainFrame.fireData(worldManager);
 		
+		//Publiceer de beginstand van de wereld voor de renderer
+		publishSnapshot();
+		
 		//Initialiseer de frame time en maak mainFrame zichtbaar
 		lastFrameTime = getCurrentTime();
 		lastUpdateTime = getCurrentTime();
@@ -397,12 +407,56 @@ public class AppManager {
 	}
 	
 	/**
-	 * Update the whole app. This includes rendering the image, then if the simulation isn't paused updating the drone.
-	 * Then the display is updated so the drone can be evolved over the amount of time that it took to do the last frame.
+	 * Start the simulation thread. It advances the world with a fixed timestep of one autopilot call,
+	 * at autopilotCallsPerSecond calls per second times the relative speed (or as fast as possible at max speed).
+	 * After every call it publishes a snapshot of the world for the renderer, so the simulation doesn't wait for the display.
 	 */
-	public static void updateApp() {
-		long timeMilli = getCurrentTime();
-		long time = System.nanoTime();
+	public static void startSimulation() {
+		simulationThread = new Thread(new Runnable() {
+			public void run() {
+				runSimulation();
+			}
+		}, "Simulation");
+		simulationThread.setDaemon(true);
+		simulationThread.start();
+	}
+	
+	private static void runSimulation() {
+		long next = System.nanoTime();
+		while (!shouldClose) {
+			long time = System.nanoTime();
+			updateSimulation();
+			publishSnapshot();
+			if (ENABLE_LOGGING) System.out.println("TOTAL PHYSICS TIME TESTBED:" + System.nanoTime() + "-" + time + "=" + (System.nanoTime()-time));
+			
+			//Synchroniseer de simulatie naar het aantal autopilot calls.
+			if(maxSpeed && simStatus == SimulationStatus.Started) {
+				next = System.nanoTime();
+				continue;
+			}
+			next += (long) (1000000000/(autopilotCallsPerSecond*timeRelativeToReal));
+			long wait = next - System.nanoTime();
+			if(wait < -MAX_SIMULATION_LAG) {
+				next = System.nanoTime();
+			} else if(wait > 0) {
+				try {
+					Thread.sleep(wait/1000000, (int) (wait%1000000));
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+	
+	private static void publishSnapshot() {
+		worldManager.writeSnapshot(snapshots.getBack(), simulationTime);
+		snapshots.publish();
+	}
+	
+	/**
+	 * Advance the simulation with one autopilot call, if it's started. Only called by the simulation thread.
+	 */
+	private static void updateSimulation() {
 		//Haal de simulation status op. (Wordt ook aangepast door swing thread)
 		SimulationStatus status = simStatus;
 		
@@ -434,10 +488,18 @@ public class AppManager {
 		default:
 			break;
 		}
+	}
+	
+	/**
+	 * Update the view of the app: render the latest snapshot of the world, refresh the info and handle the inputs.
+	 * The display is synchronised to FPS_CAP frames per second, independent of the simulation thread.
+	 */
+	public static void updateApp() {
+		long time2 = System.nanoTime();
+		snapshot = snapshots.getLatest();
+		updateRenderDrones();
 		
 		//Update het scherm (default FrameBuffer)
-		long time2 = System.nanoTime();
-		if (ENABLE_LOGGING) System.out.println("TOTAL PHYSICS TIME TESTBED:" + System.nanoTime() + "-" + time2 + "=" + (time2-time));
 		updateDisplay();
 
 		long time3 = System.nanoTime();
@@ -449,13 +511,24 @@ public class AppManager {
 	    checkInputs();
 		long time5 = System.nanoTime();
 		if (ENABLE_LOGGING) System.out.println("TOTAL REST TIME TESTBED:" + System.nanoTime() + "-" + time5 + "=" + (time5-time4));
-		//Synchroniseer de update van de app naar het aantal autopilot calls.
-		int loopsPerSecond = (int)(autopilotCallsPerSecond*timeRelativeToReal);
-		if(!maxSpeed)
-			Display.sync(loopsPerSecond);
-		long time6 = System.nanoTime();
-		if (ENABLE_LOGGING) System.out.println("TOTAL REST TIME TESTBED:" + System.nanoTime() + "-" + time6 + "=" + (time6-time4));
-		//System.out.println("TOTAL UPDATE TIME TESTBED:" + getCurrentTime() + "-" + timeMilli + "=" + (getCurrentTime()-timeMilli));
+		Display.sync(FPS_CAP);
+	}
+	
+	/**
+	 * Copy the drones of the latest snapshot into the drones which are rendered, these are only used by the render thread.
+	 */
+	private static void updateRenderDrones() {
+		while(renderDrones.size() < snapshot.getDrones()) {
+			Drone drone = new Drone(configs);
+			drone.setID(renderDrones.size());
+			renderDrones.add(drone);
+		}
+		while(renderDrones.size() > snapshot.getDrones()) {
+			renderDrones.remove(renderDrones.size()-1);
+		}
+		for(int i=0;i<renderDrones.size();i++) {
+			snapshot.copyTo(i, renderDrones.get(i));
+		}
 	}
 	
 	/**
@@ -512,12 +585,14 @@ public class AppManager {
 			public void actionPerformed(ActionEvent e) {
 			    EventQueue.invokeLater(new Runnable() {
 			        public void run() {
-			            AccuracyFrame frame = new AccuracyFrame(autopilotCallsPerSecond, iterationsPerFrame);
+			            AccuracyFrame frame = new AccuracyFrame(autopilotCallsPerSecond, iterationsPerFrame, integratorTolerance);
 			            frame.addButtonListener(new ActionListener() {
 							public void actionPerformed(ActionEvent e) {
 								int[] settings = frame.getSettings();
 								AppManager.autopilotCallsPerSecond = settings[0];
 								AppManager.iterationsPerFrame = settings[1];
+								AppManager.integratorTolerance = frame.getTolerance();
+								worldManager.setIntegratorTolerance(integratorTolerance);
 								frame.dispose();
 							}
 						});
@@ -541,22 +616,17 @@ public class AppManager {
 	}
 	
 	/**
-	 * Update the display. The display is synchronised to FPS_CAP frames per second (if it can handle it). 
-	 * The amount of time between the last frame and the current frame is saved in delta. 
+	 * Update the display. The render loop is synchronised to FPS_CAP frames per second (if it can handle it),
+	 * so every call renders a frame. The amount of time between the last frame and the current frame is saved in delta. 
 	 */
 	private static void updateDisplay() {
 		long currentUpdateTime = getCurrentTime();
 		delta = (currentUpdateTime - lastUpdateTime)/1000f;
 		lastUpdateTime = currentUpdateTime;
-		thisFrameTime += delta*1000;
-		if(thisFrameTime >= 1000/FPS_CAP) {
-			//System.out.println("RENDERING");
+		if(!renderDrones.isEmpty()) {
 			renderTestbedView();
-			lastFrameTime = thisFrameTime/1000f;
-			thisFrameTime = 0;
-			long time = getCurrentTime();
+			lastFrameTime = delta;
 			Display.update();
-			//System.out.println("UPDATE SCREEN TIME:" + AppManager.getCurrentTime() + "-" + time + "=" + (AppManager.getCurrentTime()-time));
 		}
 	}
 	
@@ -574,6 +644,14 @@ public class AppManager {
 	 * Close the app. Cleans up all the data stored in the loader, renderer and buffers. Destroys the display.
 	 */
 	public static void closeApp() {
+		shouldClose = true;
+		if(simulationThread != null) {
+			try {
+				simulationThread.join();
+			} catch (InterruptedException e) {
+				simulationThread.interrupt();
+			}
+		}
 		loader.cleanUp();
 		masterRenderer.cleanUp();
 		guiRenderer.cleanUp();
@@ -620,7 +698,7 @@ public class AppManager {
 	
 	private static void renderTestbedView() {
         GL11.glViewport(0, 0, Display.getWidth(), Display.getHeight());
-        Drone drone = worldManager.getDrone(focussedDrone[0]);
+        Drone drone = renderDrones.get(focussedDrone[0]);
 		switch(cameraView) {
 		case DroneView:
 //			buffer.bindFrameBuffer();
@@ -661,10 +739,10 @@ public class AppManager {
 			masterRenderer.renderScene(getAllEntities(true), terrainLoader.getTerrains(), customCamera);
 			break;
 		case QuadraView:
-			renderThirdPerson(textureTopLeftBuffer, worldManager.getDrone(focussedDrone[0]));
-			renderThirdPerson(textureTopRightBuffer, worldManager.getDrone(focussedDrone[1]));
-			renderThirdPerson(textureBottomLeftBuffer, worldManager.getDrone(focussedDrone[2]));
-			renderThirdPerson(textureBottomRightBuffer, worldManager.getDrone(focussedDrone[3]));
+			renderThirdPerson(textureTopLeftBuffer, renderDrones.get(focussedDrone[0]));
+			renderThirdPerson(textureTopRightBuffer, renderDrones.get(focussedDrone[1]));
+			renderThirdPerson(textureBottomLeftBuffer, renderDrones.get(focussedDrone[2]));
+			renderThirdPerson(textureBottomRightBuffer, renderDrones.get(focussedDrone[3]));
 			
 			guiRenderer.render(guis);
 		}
@@ -705,11 +783,11 @@ public class AppManager {
 
 	private static void refreshInfo(int foccusedDrone) {
 		deltaLastInfoUpdate += getUpdateTimeSeconds();
-		Drone drone = worldManager.getDrone(focussedDrone[0]);
-		if(deltaLastInfoUpdate >= 1.0/INFO_REFRESH_RATE) {
+		if(deltaLastInfoUpdate >= 1.0/INFO_REFRESH_RATE && foccusedDrone < renderDrones.size()) {
+			Drone drone = renderDrones.get(foccusedDrone);
 			mainFrame.updateOrientationLabels(drone.getHeading(), drone.getPitch(), drone.getRoll());
 			mainFrame.updateVelocityLabels(drone.getPosition(), drone.getVelocity(), drone.getRelativeAngularVelocity());
-			mainFrame.updateTime(getFrameTimeSeconds(), simulationTime);
+			mainFrame.updateTime(getFrameTimeSeconds(), snapshot.getSimulationTime());
 			mainFrame.refreshPackTable();
 			deltaLastInfoUpdate = 0;
 		}
@@ -748,7 +826,7 @@ public class AppManager {
 	
 	private static ArrayList<Entity> getAllEntities(boolean withDrones){
 		ArrayList<Entity> entities = new ArrayList<>();
-		for(Drone drone: worldManager.getDrones()){
+		for(Drone drone: renderDrones){
 			if(withDrones) entities.add(drone.getEntity());
 			if(withDrones) entities.add(drone.getPropellerEntity());
 			entities.add(drone.getShadowEntity());	
@@ -761,9 +839,9 @@ public class AppManager {
 		}
 		monuments.forEach((monument)->entities.add(monument.getEntity()));
 		
-		for (Entry<PackageKey, entities.Package> entry : worldManager.getWaitingPackages().entrySet())
+		for (int i=0;i<snapshot.getWaitingPackages();i++)
         {
-            entities.Package pack=entry.getValue();
+            entities.Package pack=snapshot.getWaitingPackage(i);
             Airport port=worldManager.getAirport(pack.getFromA());
             Vector3f rotation=new Vector3f(port.getRotation(),0,0);
             Vector3f position=new Vector3f(port.getPosition3D());
@@ -784,15 +862,15 @@ public class AppManager {
 	
 	private static ArrayList<GuiTexture> getAllGuis(){
 		ArrayList<GuiTexture> guis = new ArrayList<>();
-		guis.addAll(traject.getTraject(focussedDrone[0], 20000, 1));
-		for(Drone drone: worldManager.getDrones()){
+		guis.addAll(traject.getTraject(snapshot, focussedDrone[0], 20000, 1));
+		for(Drone drone: renderDrones){
 			if(drone.getID()==focussedDrone[0])
 				guis.add(drone.getGuiTexture(20000, true));
 			else {
 				guis.add(drone.getGuiTexture(20000, false));
 			}
 		}
-		guis.addAll(worldManager.getPackageGuis(20000));
+		guis.addAll(worldManager.getPackageGuis(snapshot, 20000));
 		return guis;
 	}
 	
@@ -804,12 +882,12 @@ public class AppManager {
 	public static void checkInputs(){
 		if(Keyboard.isKeyDown(Keyboard.KEY_DOWN)){
 			if(!changingDrone){
-				focussedDrone[0] = Math.floorMod((focussedDrone[0] - 1), worldManager.getDrones().size());
+				focussedDrone[0] = Math.floorMod((focussedDrone[0] - 1), renderDrones.size());
 			}
 			changingDrone = true;
 		} else if (Keyboard.isKeyDown(Keyboard.KEY_UP)){
 			if(!changingDrone){
-				focussedDrone[0] = Math.floorMod((focussedDrone[0] + 1), worldManager.getDrones().size());
+				focussedDrone[0] = Math.floorMod((focussedDrone[0] + 1), renderDrones.size());
 			}
 			changingDrone = true;
 		} else {
@@ -0,0 +1,230 @@
+package control;
+
+import java.util.Arrays;
+import java.util.List;
+
+import entities.Drone;
+
+/**
+ * A uniform grid (spatial hash) over the positions of the drones, used as broad phase for the collision check.
+ * Every cell is hashed to a bucket, the drones of a bucket form a doubly linked list (by drone index),
+ * so a drone which moves to another cell is moved in constant time.
+ *
+ * The collision check is continuous: every drone moves along the segment between its positions of the previous
+ * and the current update, and two drones collide if the distance at the time of closest approach on their segments
+ * is below the crash distance. The cells are at least as large as the crash distance plus twice the largest
+ * displacement, so only drones in neighbouring cells (by their current position) can collide.
+ *
+ * @author Team Saffier
+ * @version 1.0
+ */
+class CollisionGrid {
+	
+	// The cells don't grow beyond this multiple of the crash distance
+	private static final int MAX_CELL_SCALE = 1 << 16;
+	
+	private final float crashDistance;
+	private final float crashDistanceSquared;
+	private float cellSize;
+	
+	private int linked = 0;						// the amount of drones in the buckets
+	private int tracked = 0;					// the amount of drones with a position of the previous update
+	private int mask;
+	private int[] head = new int[0];			// per bucket: the first drone or -1
+	private int[] next, previous, bucket;		// per drone
+	private int[] cellX, cellY, cellZ;			// per drone
+	private float[] x, y, z;					// per drone: the position of the last update
+	private float[] startX, startY, startZ;		// per drone: the position of the update before
+	
+	private int partner = -1;
+	
+	/**
+	 * Create a new grid for the given crash distance.
+	 */
+	CollisionGrid(float crashDistance) {
+		if(crashDistance <= 0)
+			throw new IllegalArgumentException("The crash distance should be strictly positive");
+		this.crashDistance = crashDistance;
+		this.crashDistanceSquared = crashDistance*crashDistance;
+		this.cellSize = crashDistance;
+	}
+	
+	/**
+	 * Update the positions of the given drones, the index in the list is the index in the grid.
+	 * Only the drones which moved to another cell are moved to another bucket,
+	 * unless the cells have to grow or shrink because of the displacements.
+	 */
+	void update(List<Drone> drones) {
+		int n = drones.size();
+		if(2*n > head.length)
+			allocate(n);
+		for(int i=n;i<linked;i++)
+			unlink(i);
+		linked = Math.min(linked, n);
+		
+		float maxDisplacementSquared = 0;
+		for(int i=0;i<n;i++) {
+			Drone drone = drones.get(i);
+			if(i < tracked) {
+				startX[i] = x[i];
+				startY[i] = y[i];
+				startZ[i] = z[i];
+			} else {
+				startX[i] = drone.getX();
+				startY[i] = drone.getY();
+				startZ[i] = drone.getZ();
+			}
+			x[i] = drone.getX();
+			y[i] = drone.getY();
+			z[i] = drone.getZ();
+			float dx = x[i] - startX[i], dy = y[i] - startY[i], dz = z[i] - startZ[i];
+			float displacementSquared = dx*dx + dy*dy + dz*dz;
+			if(displacementSquared > maxDisplacementSquared)
+				maxDisplacementSquared = displacementSquared;
+		}
+		tracked = n;
+		
+		float required = crashDistance + 2*(float)Math.sqrt(maxDisplacementSquared);
+		float size = crashDistance;
+		while(size < required && size < MAX_CELL_SCALE*crashDistance)
+			size *= 2;
+		if(size != cellSize) {
+			cellSize = size;
+			Arrays.fill(head, -1);
+			linked = 0;
+		}
+		
+		for(int i=0;i<n;i++) {
+			int cx = cell(x[i]), cy = cell(y[i]), cz = cell(z[i]);
+			if(i < linked && cx == cellX[i] && cy == cellY[i] && cz == cellZ[i])
+				continue;
+			if(i < linked)
+				unlink(i);
+			cellX[i] = cx;
+			cellY[i] = cy;
+			cellZ[i] = cz;
+			link(i, hash(cx, cy, cz));
+		}
+		linked = n;
+	}
+	
+	/**
+	 * Forget the positions of the previous update, for example because the drones were reset.
+	 * The next update only checks the positions of the drones at that time.
+	 */
+	void clearPaths() {
+		tracked = 0;
+	}
+	
+	/**
+	 * Returns the lowest index of a drone which collided with another drone since the previous update, or -1.
+	 * The other drone with the lowest index is available through getCollisionPartner(), so the pair is the same
+	 * as the first pair of a double loop over all drones.
+	 */
+	int findFirstCollision() {
+		partner = -1;
+		for(int i=0;i<linked;i++) {
+			int best = -1;
+			for(int dx=-1;dx<=1;dx++)
+				for(int dy=-1;dy<=1;dy++)
+					for(int dz=-1;dz<=1;dz++) {
+						for(int j=head[hash(cellX[i]+dx, cellY[i]+dy, cellZ[i]+dz)];j!=-1;j=next[j]) {
+							if(j != i && (best == -1 || j < best) && collide(i, j))
+								best = j;
+						}
+					}
+			if(best != -1) {
+				partner = best;
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	int getCollisionPartner() {
+		return partner;
+	}
+	
+	/**
+	 * Check whether the given drones are closer than the crash distance at their current positions,
+	 * or at the time of closest approach when both move linearly from their previous positions.
+	 */
+	private boolean collide(int i, int j) {
+		float dx = x[i] - x[j];
+		float dy = y[i] - y[j];
+		float dz = z[i] - z[j];
+		if(dx*dx + dy*dy + dz*dz < crashDistanceSquared)
+			return true;
+		float px = startX[i] - startX[j];
+		float py = startY[i] - startY[j];
+		float pz = startZ[i] - startZ[j];
+		float vx = dx - px, vy = dy - py, vz = dz - pz;
+		float speedSquared = vx*vx + vy*vy + vz*vz;
+		if(speedSquared == 0)
+			return false;
+		float t = -(px*vx + py*vy + pz*vz)/speedSquared;
+		if(t <= 0)
+			return px*px + py*py + pz*pz < crashDistanceSquared;
+		if(t >= 1)
+			return false;
+		px += t*vx;
+		py += t*vy;
+		pz += t*vz;
+		return px*px + py*py + pz*pz < crashDistanceSquared;
+	}
+	
+	private int cell(float coordinate) {
+		return (int) Math.floor(coordinate/cellSize);
+	}
+	
+	private int hash(int cx, int cy, int cz) {
+		return (cx*73856093 ^ cy*19349663 ^ cz*83492791) & mask;
+	}
+	
+	private void link(int i, int b) {
+		bucket[i] = b;
+		previous[i] = -1;
+		next[i] = head[b];
+		if(head[b] != -1)
+			previous[head[b]] = i;
+		head[b] = i;
+	}
+	
+	private void unlink(int i) {
+		if(previous[i] != -1)
+			next[previous[i]] = next[i];
+		else
+			head[bucket[i]] = next[i];
+		if(next[i] != -1)
+			previous[next[i]] = previous[i];
+	}
+	
+	/**
+	 * Allocate room for (at least) the given amount of drones, all drones are inserted again by the next update.
+	 * The positions of the previous update are kept.
+	 */
+	private void allocate(int drones) {
+		int buckets = Integer.highestOneBit(Math.max(16, 4*drones));
+		head = new int[buckets];
+		Arrays.fill(head, -1);
+		mask = buckets - 1;
+		int capacity = buckets/2;
+		next = new int[capacity];
+		previous = new int[capacity];
+		bucket = new int[capacity];
+		cellX = new int[capacity];
+		cellY = new int[capacity];
+		cellZ = new int[capacity];
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		z = grow(z, capacity);
+		startX = new float[capacity];
+		startY = new float[capacity];
+		startZ = new float[capacity];
+		linked = 0;
+	}
+	
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+}
@@ -1,34 +1,38 @@
 package control;
 
-import entities.Drone;
-import interfaces.AutopilotModule;
-import interfaces.AutopilotOutputs;
-import tools.Tools;
+import java.util.concurrent.Callable;
 
-public class DroneThread implements Runnable {
+import entities.FleetState;
+
+/**
+ * Steps the physics of a contiguous range of drones, so the drones of one tick can be divided over multiple workers.
+ * The autopilot outputs must already be set on the drones, every drone only touches its own state.
+ */
+public class DroneThread implements Callable<Void> {
 	
-	private Drone drone;
-	private AutopilotModule module;
+	private final FleetState fleet;
+	private final int from;
+	private final int to;
 	private float timePassed;
-	private float totalTime;
 	private int iterations;
-	private byte[] image = new byte[0];
 	
-	public DroneThread(Drone drone, AutopilotModule module, float timePassed, float totalTime, int iterations){
-		this.drone = drone;
-		this.module = module;
+	/**
+	 * Create a task for the drones with slot from (inclusive) to slot to (exclusive).
+	 */
+	public DroneThread(FleetState fleet, int from, int to){
+		this.fleet = fleet;
+		this.from = from;
+		this.to = to;
+	}
+	
+	public void setTimePassed(float timePassed, int iterations){
 		this.timePassed = timePassed;
-		this.totalTime = totalTime;
 		this.iterations = iterations;
 	}
 
 	@Override
-	public void run() {
-		module.startTimeHasPassed(drone.getID(), Tools.getAutopilotInputs(drone, totalTime, image));
-		AutopilotOutputs outputs = module.completeTimeHasPassed(drone.getID());
-		drone.setInputs(outputs);
-		for(int i = 0;i<iterations;i++){
-			drone.timePassed(timePassed/iterations);
-		}
+	public Void call() {
+		fleet.timePassed(timePassed, iterations, from, to);
+		return null;
 	}
 }
@@ -0,0 +1,184 @@
+package control;
+
+import org.lwjgl.util.vector.Vector2f;
+
+import entities.Airport;
+import entities.Drone;
+import entities.Package;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotModule;
+
+/**
+ * A simulation of the world without any rendering, swing frames or OpenGL context.
+ * The world is stepped exactly like the Started state of the AppManager, but as fast as the CPU allows.
+ * This makes it possible to measure the throughput of the testbed and the autopilot for large fleets.
+ *
+ * @author Team Saffier
+ * @version 1.0
+ */
+public class HeadlessSimulation {
+
+	private static boolean ENABLE_LOGGING = false;
+
+	private static final int AIRPORT_LENGTH = 70;
+	private static final int AIRPORT_WIDTH = 250;
+	private static final float MIN_AIRPORT_DISTANCE = 2000;
+
+	private final WorldManager worldManager;
+	private final AutopilotModule module;
+	private final AutopilotConfig config;
+
+	private int autopilotCallsPerSecond = 50;
+	private int iterationsPerFrame = 4;
+
+	private boolean configured = false;
+	private float simulationTime = 0;
+	private long frames = 0;
+	private String crashMessage = null;
+
+	/**
+	 * Create a new headless simulation. Every drone that is added gets the given configuration.
+	 */
+	public HeadlessSimulation(AutopilotModule module, AutopilotConfig config) {
+		this.module = module;
+		this.config = config;
+		this.worldManager = new WorldManager(new CrashHandler() {
+			public void handleCrash(String message) {
+				crashMessage = message;
+			}
+		});
+		this.worldManager.setAutopilotModule(module);
+		Airport.defineAirportParameters(AIRPORT_LENGTH, AIRPORT_WIDTH);
+	}
+
+	public WorldManager getWorldManager() {
+		return worldManager;
+	}
+
+	public void setAccuracy(int autopilotCallsPerSecond, int iterationsPerFrame) {
+		if(autopilotCallsPerSecond <= 0 || iterationsPerFrame <= 0)
+			throw new IllegalArgumentException("The accuracy settings should be strictly positive");
+		this.autopilotCallsPerSecond = autopilotCallsPerSecond;
+		this.iterationsPerFrame = iterationsPerFrame;
+	}
+	
+	/**
+	 * Set the tolerance of the adaptive integrator, zero means the fixed amount of iterations per frame is used.
+	 */
+	public void setIntegratorTolerance(float tolerance) {
+		worldManager.setIntegratorTolerance(tolerance);
+	}
+
+	/**
+	 * Add an airport at the given position (x,z) with the given rotation.
+	 */
+	public Airport addAirport(float x, float z, float rotation) {
+		checkNotConfigured();
+		Airport airport = new Airport(new Vector2f(x, z), rotation);
+		worldManager.addAirport(airport);
+		return airport;
+	}
+
+	/**
+	 * Add a drone which is parked at the given gate of the given airport.
+	 */
+	public Drone addDrone(int airport, int gate) {
+		checkNotConfigured();
+		Drone drone = new Drone(config);
+		worldManager.addDroneToAirport(drone, worldManager.getAirport(airport), gate);
+		worldManager.addDrone(drone);
+		return drone;
+	}
+
+	public void addPackage(int fromAirport, int fromGate, int toAirport, int toGate) {
+		worldManager.addNewPackage(new Package(fromAirport, fromGate, toAirport, toGate));
+	}
+
+	/**
+	 * Generate a scenario with the given amount of randomly placed airports.
+	 * The drones are parked at the free gates (gate 0 first), new packages are requested automatically.
+	 */
+	public void generateScenario(int airports, int drones) {
+		checkNotConfigured();
+		if(drones > 2*airports)
+			throw new IllegalArgumentException("There are not enough gates to park " + drones + " drones");
+		for(int i=0;i<airports;i++) {
+			worldManager.addAirport(worldManager.generateRandomAirport(MIN_AIRPORT_DISTANCE));
+		}
+		for(int i=0;i<drones;i++) {
+			addDrone(i%airports, i/airports);
+		}
+		worldManager.toggleAutomaticAdder();
+	}
+
+	/**
+	 * Define the airports and drones in the autopilot module, like the ConfigRequested state of the AppManager.
+	 */
+	public void configAutopilotModule() {
+		checkNotConfigured();
+		module.defineAirportParams(AIRPORT_LENGTH, AIRPORT_WIDTH);
+		for(Airport port: worldManager.getAirports()){
+			module.defineAirport(port.getPosition2D().x, port.getPosition2D().y, port.getCenterRunway0Relative().x, port.getCenterRunway0Relative().y);
+		}
+		worldManager.defineDrones();
+		configured = true;
+	}
+
+	/**
+	 * Advance the simulation with one autopilot call.
+	 * Returns false if the simulation has crashed, the crash message is available through getCrashMessage().
+	 */
+	public boolean step() {
+		if(!configured)
+			configAutopilotModule();
+		if(crashMessage != null)
+			return false;
+		try {
+			worldManager.emptyQueue();
+			worldManager.checkForCollision();
+			worldManager.checkDronesForPackagePickup();
+			worldManager.allDronesTimePassed((float) 1.0/autopilotCallsPerSecond, simulationTime, iterationsPerFrame);
+		} catch (Exception e) {
+			crashMessage = e.getMessage();
+			if (ENABLE_LOGGING) e.printStackTrace();
+			return false;
+		}
+		simulationTime += (float) 1.0/autopilotCallsPerSecond;
+		frames++;
+		return true;
+	}
+
+	/**
+	 * Run the simulation for the given amount of simulated seconds (or until a crash occurs).
+	 * Returns the amount of simulated seconds per wall-clock second.
+	 */
+	public float run(float simulatedSeconds) {
+		long start = System.nanoTime();
+		float startTime = simulationTime;
+		while(simulationTime - startTime < simulatedSeconds) {
+			if(!step())
+				break;
+			if (ENABLE_LOGGING && frames%autopilotCallsPerSecond == 0)
+				System.out.println("SIMULATION TIME: " + simulationTime);
+		}
+		float wallTime = (System.nanoTime() - start)/1000000000f;
+		return (simulationTime - startTime)/wallTime;
+	}
+
+	public float getSimulationTime() {
+		return simulationTime;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public String getCrashMessage() {
+		return crashMessage;
+	}
+
+	private void checkNotConfigured() {
+		if(configured)
+			throw new RuntimeException("The world can't be changed once the autopilot module is configured");
+	}
+}
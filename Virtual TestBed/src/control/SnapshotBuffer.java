@@ -0,0 +1,46 @@
+package control;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lock-free triple buffer of world snapshots between one writer (the simulation thread) and one reader (the render thread).
+ * The writer fills its back snapshot and publishes it by swapping it with the middle one, the reader takes the middle one
+ * in exchange for its front snapshot when a new one was published. Neither thread ever waits for the other,
+ * and a snapshot is never written while the reader has it.
+ *
+ * @author Team Saffier
+ * @version 1.0
+ */
+public class SnapshotBuffer {
+	
+	// Set in the middle index when the middle snapshot is published but not yet taken by the reader
+	private static final int FRESH = 4;
+	
+	private final WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+	private final AtomicInteger middle = new AtomicInteger(1);
+	private int back = 0;		// only used by the writer
+	private int front = 2;		// only used by the reader
+	
+	/**
+	 * The snapshot the writer can fill, it's only handed to the reader by publish().
+	 */
+	public WorldSnapshot getBack() {
+		return snapshots[back];
+	}
+	
+	/**
+	 * Publish the back snapshot, the writer gets another snapshot to fill.
+	 */
+	public void publish() {
+		back = middle.getAndSet(back | FRESH) & ~FRESH;
+	}
+	
+	/**
+	 * The latest published snapshot. It stays the same until the next call of getLatest.
+	 */
+	public WorldSnapshot getLatest() {
+		if((middle.get() & FRESH) != 0)
+			front = middle.getAndSet(front) & ~FRESH;
+		return snapshots[front];
+	}
+}
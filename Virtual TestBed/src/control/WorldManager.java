@@ -5,8 +5,14 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadLocalRandom;
 
 import javax.management.RuntimeErrorException;
@@ -18,10 +24,12 @@ import entities.Airport;
 import entities.Camera;
 import entities.Drone;
 import entities.Entity;
+import entities.FleetState;
 import entities.Package;
 import entities.PackageKey;
 import entities.Symbol;
 import guis.GuiTexture;
+import interfaces.AutopilotInputs;
 import interfaces.AutopilotModule;
 import interfaces.AutopilotOutputs;
 import tools.Tools;
@@ -30,11 +38,19 @@ import worldSimulation.DroneStartSettings;
 public class WorldManager {
 	
 	private boolean ENABLE_LOGGING = false;
+	
+	private static final float CRASH_DISTANCE = 5;
 
 	private ArrayList<Drone> drones = new ArrayList<>();
-	private ArrayList<Thread> threads = new ArrayList<>();
+	private FleetState fleet = new FleetState(16);
+	private CollisionGrid collisionGrid = new CollisionGrid(CRASH_DISTANCE);
 	private AutopilotModule module;
 	
+	private int physicsThreads = 1;
+	private ExecutorService physicsPool;
+	private ArrayList<DroneThread> physicsTasks = new ArrayList<>();
+	private int physicsTasksDrones = -1;
+	
 	private ArrayList<Airport> airports = new ArrayList<>();
 	private ArrayList<Airport> occupiedAirports = new ArrayList<>();
 	private ArrayList<Airport> freeAirports = new ArrayList<>();
@@ -94,10 +110,12 @@ public class WorldManager {
 	public void addDrone(Drone drone){
 		drone.setID(drones.size());
 		drones.add(drone);
+		fleet.add(drone);
 	}
 	
 	public void resetDrone(int drone, DroneStartSettings settings){
 		drones.get(drone).reset(settings);
+		collisionGrid.clearPaths();
 	}
 	
 	public void defineDrones(){
@@ -113,49 +131,121 @@ public class WorldManager {
 	}
 	private boolean automaticAdder = false;
 	
+	private AutopilotInputs[] autopilotInputs = new AutopilotInputs[0];
+	
 	public void allDronesTimePassed(float timePassed, float simulationTime, int iterations){
 		if (automaticAdder) {
 			if (this.packages.size() - this.deliveredPackages.size() < this.getDrones().size())
 				for (int i=0 ; i<ThreadLocalRandom.current().nextInt(1, 10) ; i++)
 					this.createRandomRequest();
 		}
-		Thread.UncaughtExceptionHandler h = new Thread.UncaughtExceptionHandler() {
-		    public void uncaughtException(Thread th, Throwable ex) {
-		    	handler.handleCrash(ex.getMessage());
-		    	ex.printStackTrace();
-		    }
-		};
-//		for(int i=0;i<drones.size();i++){
-//			Thread thread = (new Thread(new DroneThread(drones.get(i), module, timePassed, simulationTime, iterations)));
-//			threads.add(thread);
-//			thread.setUncaughtExceptionHandler(h);
-//			thread.start();
-//		}
-		for(Drone drone: getDrones()) {
-			module.startTimeHasPassed(drone.getID(), Tools.getAutopilotInputs(drone, simulationTime, new byte[0]));
-			AutopilotOutputs outputs = module.completeTimeHasPassed(drone.getID());
-			drone.setInputs(outputs);
-			for(int i = 0;i<iterations;i++){
-				drone.timePassed(timePassed/iterations);
-			}
+		// The module gets all drones at once and routes them in the order of the drone IDs, so it sees the same sequence in every mode.
+		if(autopilotInputs.length != drones.size())
+			autopilotInputs = new AutopilotInputs[drones.size()];
+		for(Drone drone: getDrones())
+			autopilotInputs[drone.getID()] = Tools.getAutopilotInputs(drone, simulationTime, new byte[0]);
+		AutopilotOutputs[] outputs = module.timeHasPassedAll(autopilotInputs);
+		for(Drone drone: getDrones())
+			drone.setInputs(outputs[drone.getID()]);
+		dronesTimePassed(timePassed, iterations);
+	}
+	
+	/**
+	 * Advance the physics of all drones with their current inputs, in the given amount of substeps.
+	 */
+	public void dronesTimePassed(float timePassed, int iterations){
+		// Every drone only changes its own state, so the physics give the same results in parallel.
+		if(physicsPool == null) {
+			fleet.timePassed(timePassed, iterations, 0, fleet.size());
+		} else {
+			dronesTimePassedParallel(timePassed, iterations);
 		}
+		fleet.throwFirstCrash();
+	}
+	
+	public FleetState getFleet(){
+		return fleet;
+	}
+	
+	/**
+	 * Set the amount of threads which divide the physics of the drones between them.
+	 * With one thread the drones are stepped by the calling thread.
+	 */
+	public void setPhysicsThreads(int threads){
+		if(threads < 1)
+			throw new IllegalArgumentException("At least one physics thread is needed");
+		if(physicsPool != null)
+			physicsPool.shutdown();
+		physicsPool = null;
+		physicsThreads = threads;
+		physicsTasksDrones = -1;
+		if(threads > 1) {
+			physicsPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Drone physics");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+	
+	public int getPhysicsThreads(){
+		return physicsThreads;
+	}
+	
+	/**
+	 * Set the tolerance of the adaptive integrator, which picks the substeps of every drone by itself.
+	 * With a tolerance of zero every drone is stepped with the fixed amount of iterations.
+	 */
+	public void setIntegratorTolerance(float tolerance){
+		fleet.setTolerance(tolerance);
+	}
+	
+	public float getIntegratorTolerance(){
+		return fleet.getTolerance();
 	}
 	
-	public void endAllDronesTimePassed(){
-		for(Thread thread: threads){
+	/**
+	 * Step the physics of all drones on the physics pool. Returns when all drones are done (barrier for the collision check).
+	 * Crashes are registered in the fleet state, which throws the same crash as in the sequential mode.
+	 */
+	private void dronesTimePassedParallel(float timePassed, int iterations){
+		if(physicsTasksDrones != drones.size()) {
+			physicsTasks.clear();
+			int size = drones.size();
+			for(int i=0;i<physicsThreads;i++){
+				physicsTasks.add(new DroneThread(fleet, i*size/physicsThreads, (i+1)*size/physicsThreads));
+			}
+			physicsTasksDrones = size;
+		}
+		for(DroneThread task: physicsTasks){
+			task.setTimePassed(timePassed, iterations);
+		}
+		List<Future<Void>> results;
+		try {
+			results = physicsPool.invokeAll(physicsTasks);
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Physics interrupted");
+		}
+		for(Future<Void> result: results){
 			try {
-				thread.join();
+				result.get();
 			} catch (InterruptedException e) {
-				System.out.println("Thread interrupted");
+				throw new RuntimeException("Physics interrupted");
+			} catch (ExecutionException e) {
+				if(e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new RuntimeException(e.getCause());
 			}
 		}
-		threads.clear();
 	}
 	
 	public void reset(DroneStartSettings settings){
 		for(Drone drone: drones){
 			drone.reset(settings);
 		}
+		collisionGrid.clearPaths();
 	}
 	
 	public Camera getDefaultCamera(){
@@ -177,11 +267,10 @@ public class WorldManager {
 			float x = (float)Math.random()*20000;
 			float z = (float)-Math.random()*20000;
 			position = new Vector2f(x,z);
+			found = true;
 			for(Airport airport: getAirports()) {
 				Vector2f distance = Tools.subtract(airport.getPosition2D(), position);
-				if(distance.lengthSquared() > minDistance*minDistance) {
-					found = true;
-				} else {
+				if(distance.lengthSquared() <= minDistance*minDistance) {
 					found = false;
 					break;
 				}
@@ -229,6 +318,8 @@ public class WorldManager {
 	
 	public void clearAll() {
 		drones.clear();
+		fleet.clear();
+		collisionGrid.clearPaths();
 		airports.clear();
 		freeAirports.clear();
 		occupiedAirports.clear();
@@ -471,31 +562,52 @@ public class WorldManager {
 		return false;
 	}
 	
+	/**
+	 * Throw an exception if two drones are closer than the crash distance, or have been since the previous check
+	 * when they moved in a straight line. This way fast drones can't pass through each other between two checks.
+	 * Only drones in neighbouring cells of the collision grid are compared. If several pairs collide, the pair with
+	 * the lowest indices is reported.
+	 */
 	public void checkForCollision(){
-		for(Drone drone1: getDrones()){
-			for(Drone drone2: getDrones()){
-				if(!drone1.equals(drone2)){
-					Vector3f distance = Tools.subtract(drone1.getPosition(), drone2.getPosition());
-					if(distance.lengthSquared()<25.0){
-						throw new RuntimeException(drone1 + " and " + drone2 + " CRASHED!");
-					}
-				}
-			}
-		}
+		collisionGrid.update(getDrones());
+		int first = collisionGrid.findFirstCollision();
+		if(first != -1)
+			throw new RuntimeException(drones.get(first) + " and " + drones.get(collisionGrid.getCollisionPartner()) + " CRASHED!");
 	}
 	
-	public ArrayList<GuiTexture> getPackageGuis(float width){
+	/**
+	 * The icons of the packages which are waiting in the given snapshot. The airports don't change while simulating.
+	 */
+	public ArrayList<GuiTexture> getPackageGuis(WorldSnapshot snapshot, float width){
 		ArrayList<GuiTexture> guis = new ArrayList<>();
-		for(Package pack: packages){
-			if(pack.isWaiting()){
-				Vector3f position = airports.get(pack.getFromA()).getPosition3D();
-				guis.add(new GuiTexture(pack.getGuiTexture(), new Vector2f(2*position.x/width-1 + 0.05f, 2*-position.z/width-1 + 0.05f),
-					0, new Vector2f(0.05f, 0.05f)));
-			}	
+		for(int i=0;i<snapshot.getWaitingPackages();i++){
+			Package pack = snapshot.getWaitingPackage(i);
+			Vector3f position = airports.get(pack.getFromA()).getPosition3D();
+			guis.add(new GuiTexture(pack.getGuiTexture(), new Vector2f(2*position.x/width-1 + 0.05f, 2*-position.z/width-1 + 0.05f),
+				0, new Vector2f(0.05f, 0.05f)));
 		}
 		return guis;
 	}
 	
+	/**
+	 * Write the current state of the drones and the waiting packages to the given snapshot.
+	 * Only called by the thread which simulates this world.
+	 */
+	public void writeSnapshot(WorldSnapshot snapshot, float simulationTime){
+		snapshot.setSimulationTime(simulationTime);
+		snapshot.setDrones(drones.size());
+		for(int i=0;i<drones.size();i++){
+			Drone drone = drones.get(i);
+			Package pack = drone.isHasPackage() ? deliveringPackages.get(drone.getID()) : null;
+			snapshot.setDrone(i, drone, pack == null ? -1 : pack.getToA());
+		}
+		snapshot.setWaitingPackages(waitingPackages.size());
+		int i = 0;
+		for(Package pack: waitingPackages.values()){
+			snapshot.setWaitingPackage(i++, pack);
+		}
+	}
+	
 	public boolean emptyQueue(){
 		boolean flag = false;
 		for(Package pack: queue){
@@ -520,6 +632,7 @@ public class WorldManager {
 				drone.getAirport().setDroneGate1(drone);
 			}
 		} 
+		collisionGrid.clearPaths();
 		queue.clear();
 		packages.clear();
 		waitingPackages.clear();
@@ -0,0 +1,148 @@
+package control;
+
+import java.util.Arrays;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import entities.Drone;
+import entities.Package;
+import worldSimulation.DroneStartSettings;
+
+/**
+ * The state of the world after one tick of the simulation, which is all the renderer needs: the kinematic state of
+ * the drones, whether they carry a package and the packages which are waiting at a gate.
+ * Snapshots are filled by the simulation thread and handed over through a SnapshotBuffer. Once the render thread
+ * got a snapshot it isn't changed anymore until the render thread hands it back, so the renderer can read it without locks.
+ *
+ * @author Team Saffier
+ * @version 1.0
+ */
+public class WorldSnapshot {
+	
+	private float simulationTime;
+	
+	private int drones = 0;
+	private float[] positionX = new float[0], positionY = new float[0], positionZ = new float[0];
+	private float[] velocityX = new float[0], velocityY = new float[0], velocityZ = new float[0];
+	private float[] angularVelocityX = new float[0], angularVelocityY = new float[0], angularVelocityZ = new float[0];
+	private float[] heading = new float[0], pitch = new float[0], roll = new float[0];
+	private float[] propellerRoll = new float[0];
+	private boolean[] hasPackage = new boolean[0];
+	private int[] destination = new int[0];
+	
+	private int packages = 0;
+	private Package[] waitingPackages = new Package[0];
+	
+	// Reused when the state of a drone is copied into a render drone
+	private final DroneStartSettings settings = new DroneStartSettings();
+	// Reused by the simulation thread when the state of a drone is copied into this snapshot
+	private final Vector3f vector = new Vector3f();
+	
+	public float getSimulationTime() {
+		return simulationTime;
+	}
+	
+	public int getDrones() {
+		return drones;
+	}
+	
+	/**
+	 * The airport to which the given drone is delivering a package, or -1.
+	 */
+	public int getDestination(int drone) {
+		return destination[drone];
+	}
+	
+	public float getPositionX(int drone) {
+		return positionX[drone];
+	}
+	
+	public float getPositionZ(int drone) {
+		return positionZ[drone];
+	}
+	
+	public int getWaitingPackages() {
+		return packages;
+	}
+	
+	public Package getWaitingPackage(int index) {
+		return waitingPackages[index];
+	}
+	
+	/**
+	 * Copy the state of the given drone of this snapshot into the given drone, which is only used for rendering.
+	 */
+	public void copyTo(int index, Drone drone) {
+		settings.setPosition(new Vector3f(positionX[index], positionY[index], positionZ[index]));
+		settings.setVelocity(new Vector3f(velocityX[index], velocityY[index], velocityZ[index]));
+		settings.setAngularVelocity(new Vector3f(angularVelocityX[index], angularVelocityY[index], angularVelocityZ[index]));
+		settings.setHeading(heading[index]);
+		settings.setPitch(pitch[index]);
+		settings.setRoll(roll[index]);
+		drone.reset(settings);
+		drone.setPropellerRoll(propellerRoll[index]);
+		drone.setHasPackage(hasPackage[index]);
+	}
+	
+	void setSimulationTime(float simulationTime) {
+		this.simulationTime = simulationTime;
+	}
+	
+	/**
+	 * Set the amount of drones in this snapshot, the arrays only grow.
+	 */
+	void setDrones(int drones) {
+		if(drones > positionX.length) {
+			positionX = Arrays.copyOf(positionX, drones);
+			positionY = Arrays.copyOf(positionY, drones);
+			positionZ = Arrays.copyOf(positionZ, drones);
+			velocityX = Arrays.copyOf(velocityX, drones);
+			velocityY = Arrays.copyOf(velocityY, drones);
+			velocityZ = Arrays.copyOf(velocityZ, drones);
+			angularVelocityX = Arrays.copyOf(angularVelocityX, drones);
+			angularVelocityY = Arrays.copyOf(angularVelocityY, drones);
+			angularVelocityZ = Arrays.copyOf(angularVelocityZ, drones);
+			heading = Arrays.copyOf(heading, drones);
+			pitch = Arrays.copyOf(pitch, drones);
+			roll = Arrays.copyOf(roll, drones);
+			propellerRoll = Arrays.copyOf(propellerRoll, drones);
+			hasPackage = Arrays.copyOf(hasPackage, drones);
+			destination = Arrays.copyOf(destination, drones);
+		}
+		this.drones = drones;
+	}
+	
+	void setDrone(int index, Drone drone, int destination) {
+		positionX[index] = drone.getX();
+		positionY[index] = drone.getY();
+		positionZ[index] = drone.getZ();
+		Vector3f velocity = drone.getVelocity(vector);
+		velocityX[index] = velocity.x;
+		velocityY[index] = velocity.y;
+		velocityZ[index] = velocity.z;
+		Vector3f angularVelocity = drone.getAngularVelocity(vector);
+		angularVelocityX[index] = angularVelocity.x;
+		angularVelocityY[index] = angularVelocity.y;
+		angularVelocityZ[index] = angularVelocity.z;
+		heading[index] = drone.getHeading();
+		pitch[index] = drone.getPitch();
+		roll[index] = drone.getRoll();
+		propellerRoll[index] = drone.getPropellerRoll();
+		hasPackage[index] = drone.isHasPackage();
+		this.destination[index] = destination;
+	}
+	
+	/**
+	 * Set the amount of waiting packages in this snapshot, the array only grows.
+	 */
+	void setWaitingPackages(int packages) {
+		if(packages > waitingPackages.length)
+			waitingPackages = Arrays.copyOf(waitingPackages, Math.max(packages, 2*waitingPackages.length));
+		Arrays.fill(waitingPackages, packages, waitingPackages.length, null);
+		this.packages = packages;
+	}
+	
+	void setWaitingPackage(int index, Package pack) {
+		waitingPackages[index] = pack;
+	}
+}
@@ -0,0 +1,43 @@
+package entities;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * The transformation matrices of a heading, pitch and roll, which are only recomputed when the attitude changes.
+ * Both matrices are pure rotations, so the matrix to drone coordinates is the transpose of the matrix to world coordinates.
+ */
+class Attitude {
+	
+	private static final Vector3f X_AXIS = new Vector3f(1,0,0);
+	private static final Vector3f Y_AXIS = new Vector3f(0,1,0);
+	private static final Vector3f Z_AXIS = new Vector3f(0,0,1);
+	
+	final Matrix4f toWorld = new Matrix4f();
+	final Matrix4f toDrone = new Matrix4f();
+	
+	private boolean valid = false;
+	private float heading;
+	private float pitch;
+	private float roll;
+	
+	/**
+	 * Make sure the matrices belong to the given attitude. The angles are compared bitwise, so -0 and 0 are different.
+	 */
+	Attitude update(float heading, float pitch, float roll) {
+		if(valid && Float.floatToRawIntBits(heading) == Float.floatToRawIntBits(this.heading)
+				&& Float.floatToRawIntBits(pitch) == Float.floatToRawIntBits(this.pitch)
+				&& Float.floatToRawIntBits(roll) == Float.floatToRawIntBits(this.roll))
+			return this;
+		this.heading = heading;
+		this.pitch = pitch;
+		this.roll = roll;
+		toWorld.setIdentity();
+		Matrix4f.rotate(heading, Y_AXIS, toWorld, toWorld);
+		Matrix4f.rotate(pitch, X_AXIS, toWorld, toWorld);
+		Matrix4f.rotate(roll, Z_AXIS, toWorld, toWorld);
+		Matrix4f.transpose(toWorld, toDrone);
+		valid = true;
+		return this;
+	}
+}
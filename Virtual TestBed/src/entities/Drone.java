@@ -4,14 +4,12 @@ import static java.lang.Math.atan2;
 import static java.lang.Math.cos;
 import static java.lang.Math.sin;
 import static tools.Tools.addVectors;
-import static tools.Tools.scaleVector;
 import static tools.Tools.transformVector;
 
-import java.util.ArrayList;
-
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
+import org.lwjgl.util.vector.Vector4f;
 
 import guis.GuiTexture;
 import interfaces.AutopilotConfig;
@@ -59,13 +57,9 @@ public class Drone{
 	private float inZ; //traagheidsmoment bij roll draaiing / om de as van de romp
 	private float inY; //traagheidsmoment bij heading draaiing / om de as loodrecht door vliegtuig (is gwn de som van de andere 2)
 	
-	private Vector3f position = new Vector3f(0,0,0);	//world coo
-	private Vector3f velocity = new Vector3f(0,0,0);	//world coo
-	private Vector3f angularVelocity = new Vector3f(0,0,0); //world coo
-	
-	private float heading = 0; //links rechts gedraaid in radialen
-	private float pitch = 0; //voor onder boven gedraaid in radialen
-	private float roll = 0;// (float)Math.PI;	//rond eigen as links rechts gedraaid in radialen
+	// The position, velocity, angular velocity and heading, pitch and roll are stored in the fleet state.
+	private FleetState fleet;
+	private int slot;
 	
 	private Wheel frontWheel;
 	private Wheel leftWheel;
@@ -76,11 +70,85 @@ public class Drone{
 	private float rightWingInclination;
 	private float horStabInclination = 0;
 	private float verStabInclination = 0;
+	
+	//*******SCRATCH STATE OF THE INTEGRATOR**********
+	// Reused every substep so timePassed doesn't allocate, every drone has its own so drones can be stepped in parallel.
+	private static final Vector3f X_AXIS = new Vector3f(1,0,0);
+	private static final Vector3f Y_AXIS = new Vector3f(0,1,0);
+	private static final Vector3f FORWARD = new Vector3f(0,0,-1);
+	
+	// The attitude of the current heading, pitch and roll, and a spare one for the attitude after a substep
+	private Attitude attitude = new Attitude();
+	private Attitude nextAttitude = new Attitude();
+	// The matrices of the attitude at the start of the substep, and after the update of the attitude
+	private Matrix4f droneToWorld;
+	private Matrix4f worldToDrone;
+	private Matrix4f currentDroneToWorld;
+	private final Vector4f transformed = new Vector4f();
+	
+	private final Vector3f relativeVelocity = new Vector3f();
+	private final Vector3f relativeAngularVelocity = new Vector3f();
+	private final Vector3f deltaAngle = new Vector3f();
+	private final Vector3f newForward = new Vector3f();
+	private final Vector3f newRight = new Vector3f();
+	private final Vector3f forwardVector = new Vector3f();
+	private final Vector3f headingVector = new Vector3f();
+	private final Vector3f rightVector = new Vector3f();
+	private final Vector3f R0 = new Vector3f();
+	private final Vector3f U0 = new Vector3f();
+	
+	private final Vector3f attackVector = new Vector3f();
+	private final Vector3f projAirSpeed = new Vector3f();
+	private final Vector3f liftNormal = new Vector3f();
+	private final Vector3f leftWingLift = new Vector3f();
+	private final Vector3f rightWingLift = new Vector3f();
+	private final Vector3f horStabLift = new Vector3f();
+	private final Vector3f verStabLift = new Vector3f();
+	private final Vector3f momentArm = new Vector3f();
+	private final Vector3f leftWingMoment = new Vector3f();
+	private final Vector3f rightWingMoment = new Vector3f();
+	private final Vector3f horStabMoment = new Vector3f();
+	private final Vector3f verStabMoment = new Vector3f();
+	private final Vector3f droneGravity = new Vector3f();
+	private final Vector3f velocityAcceleration1 = new Vector3f();
+	private final Vector3f velocityAcceleration2 = new Vector3f();
+	
+	private final Vector3f[] groundForces = {new Vector3f(), new Vector3f(), new Vector3f()};
+	private final Vector3f[] brakeFrictForces = {new Vector3f(), new Vector3f(), new Vector3f()};
+	private final Vector3f[] wheelMomentsNormal = {new Vector3f(), new Vector3f(), new Vector3f()};
+	private final Vector3f[] wheelMomentsFrict = {new Vector3f(), new Vector3f(), new Vector3f()};
+	private final Vector3f groundLiftForceRelative = new Vector3f();
+	private final Vector3f totalWorldMomentRelative = new Vector3f();
+	private final Vector3f rotationVelocity = new Vector3f();
+	private final Vector3f extraVel = new Vector3f();
+	private final Vector3f counterVel = new Vector3f();
+	private final Vector3f worldAngularVelocity = new Vector3f();
+	
+	// A drone on its wheels below these values is at rest, and can be put to sleep by the fleet
+	private static final float SLEEP_VELOCITY = 0.01f;
+	private static final float SLEEP_THRUST = 0.01f;
+	
+	// The state saved by saveState, for the step doubling of the adaptive integrator
+	private final float[] savedState = new float[20];
 
 	public Drone(AutopilotConfig config){
+		new FleetState(1).add(this);
 		setConfiguration(config);
 	}
 	
+	FleetState getFleet(){
+		return fleet;
+	}
+	
+	int getSlot(){
+		return slot;
+	}
+	
+	void setFleet(FleetState fleet, int slot){
+		this.fleet = fleet;
+		this.slot = slot;
+	}
+	
 	public void setConfiguration(AutopilotConfig config){
 		this.config = config;
 		this.totalMass = config.getEngineMass() + 2*config.getWingMass() + config.getTailMass();
@@ -101,7 +169,14 @@ public class Drone{
 
 	}
 	
+	/**
+	 * Set the outputs of the autopilot. A sleeping drone is woken when its thrust or brake forces change.
+	 */
 	public void setInputs(AutopilotOutputs outputs){
+		float previousThrust = this.thrust;
+		float previousFrontBrake = frontWheel.getBrakeForce();
+		float previousLeftBrake = leftWheel.getBrakeForce();
+		float previousRightBrake = rightWheel.getBrakeForce();
 		if(outputs.getThrust()<0) {
 			this.thrust = 0;
 		} else if(outputs.getThrust() > this.config.getMaxThrust()){
@@ -116,166 +191,274 @@ public class Drone{
 		this.frontWheel.setBrakeForce(outputs.getFrontBrakeForce());
 		this.leftWheel.setBrakeForce(outputs.getLeftBrakeForce());
 		this.rightWheel.setBrakeForce(outputs.getRightBrakeForce());
+		if(thrust != previousThrust || frontWheel.getBrakeForce() != previousFrontBrake
+				|| leftWheel.getBrakeForce() != previousLeftBrake || rightWheel.getBrakeForce() != previousRightBrake)
+			fleet.wake(slot);
 	}
 	
 	public void reset(DroneStartSettings settings){
-		this.position = settings.getPosition();
-		this.heading = settings.getHeading();
-		this.pitch = settings.getPitch();
-		this.roll = settings.getRoll();
+		fleet.setPosition(slot, settings.getPosition().x, settings.getPosition().y, settings.getPosition().z);
+		fleet.setAttitude(slot, settings.getHeading(), settings.getPitch(), settings.getRoll());
 
-		this.angularVelocity = settings.getAngularVelocity();
-		this.velocity = settings.getVelocity();
+		fleet.setAngularVelocity(slot, settings.getAngularVelocity().x, settings.getAngularVelocity().y, settings.getAngularVelocity().z);
+		fleet.setVelocity(slot, settings.getVelocity().x, settings.getVelocity().y, settings.getVelocity().z);
+		fleet.wake(slot);
 	}
 	
+	/**
+	 * Whether the drone stands still on its wheels without (noticeable) thrust.
+	 */
+	boolean isAtRest(){
+		final int i = slot;
+		return thrust < SLEEP_THRUST && frontWheel.isPressed() && leftWheel.isPressed() && rightWheel.isPressed()
+				&& fleet.velocityX[i]*fleet.velocityX[i] + fleet.velocityY[i]*fleet.velocityY[i] + fleet.velocityZ[i]*fleet.velocityZ[i] < SLEEP_VELOCITY*SLEEP_VELOCITY
+				&& fleet.angularVelocityX[i] == 0 && fleet.angularVelocityY[i] == 0 && fleet.angularVelocityZ[i] == 0;
+	}
+	
+	/**
+	 * The current position of the drone, in a new vector.
+	 */
 	public Vector3f getPosition() {
-		return position;
+		return fleet.getPosition(slot, new Vector3f());
+	}
+	
+	/**
+	 * Copy the current position of the drone into the given vector, which is returned.
+	 */
+	public Vector3f getPosition(Vector3f result) {
+		return fleet.getPosition(slot, result);
+	}
+	
+	public float getX() {
+		return fleet.positionX[slot];
+	}
+	
+	public float getY() {
+		return fleet.positionY[slot];
+	}
+	
+	public float getZ() {
+		return fleet.positionZ[slot];
 	}
 	
 	public float getHeading() {
-		return heading;
+		return fleet.heading[slot];
 	}
 	
 	public float getPitch() {
-		return pitch;
+		return fleet.pitch[slot];
 	}
 	
 	public float getRoll() {
-		return roll;
+		return fleet.roll[slot];
 	}
 	
+	/**
+	 * Advance the drone over the given time. All intermediate results are stored in the scratch state of this drone,
+	 * so no objects are allocated.
+	 */
 	public void timePassed(float timePassed){
 
 		updatePropeller(timePassed);
+		fleet.advancePositions(timePassed, slot, slot+1);
+		integrate(timePassed);
+	}
+	
+	/**
+	 * Integrate the forces on the drone over the given time. The position must already be advanced with the velocity,
+	 * which is done for all drones of the fleet at once by FleetState.timePassed.
+	 */
+	void integrate(float timePassed){
+		final FleetState fleet = this.fleet;
+		final int i = this.slot;
 		//*******TRANSFORMATION MATRICES**********
-		Matrix4f droneToWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-		Matrix4f worldToDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
+		Attitude previousAttitude = getAttitude();
+		droneToWorld = previousAttitude.toWorld;
+		worldToDrone = previousAttitude.toDrone;
 		
-		//*******NEW POSITION*********************
-		Vector3f relativeVelocity = transformVector(worldToDrone, velocity);
-		Vector3f relativeAngularVelocity = transformVector(worldToDrone, angularVelocity);
-		
-		Vector3f deltaPos = scaleVector(velocity, timePassed);
-		this.position = addVectors(deltaPos, position);
+		//*******RELATIVE VELOCITIES**************
+		transformInto(worldToDrone, fleet.velocityX[i], fleet.velocityY[i], fleet.velocityZ[i], relativeVelocity);
+		transformInto(worldToDrone, fleet.angularVelocityX[i], fleet.angularVelocityY[i], fleet.angularVelocityZ[i], relativeAngularVelocity);
 		
 		//*******NEW HEADING PITCH AND ROLL*******
-		Vector3f deltaAngle = scaleVector(relativeAngularVelocity, timePassed);
-		Vector3f newForward = addVectors(new Vector3f(0,0,-1),Vector3f.cross(deltaAngle, new Vector3f(0,0,-1), null));
-		Vector3f newRight = addVectors(new Vector3f(1,0,0),Vector3f.cross(deltaAngle, new Vector3f(1,0,0), null));
-		Vector3f forwardVector = transformVector(droneToWorld, newForward);
-		Vector3f headingVector = (new Vector3f(forwardVector.x,0,forwardVector.z)).normalise(null);
-		Vector3f rightVector = transformVector(droneToWorld, newRight);
-		Vector3f R0 = Vector3f.cross(headingVector, new Vector3f(0,1,0), null);
-		Vector3f U0 = Vector3f.cross(R0, forwardVector, null);
-		
-		heading = (float) atan2(-headingVector.x, -headingVector.z);
-		pitch = (float) atan2(forwardVector.y, Vector3f.dot(forwardVector, headingVector));
-		roll = (float) atan2(Vector3f.dot(rightVector, U0), Vector3f.dot(rightVector, R0));
+		deltaAngle.set(timePassed*relativeAngularVelocity.x, timePassed*relativeAngularVelocity.y, timePassed*relativeAngularVelocity.z);
+		Vector3f.cross(deltaAngle, FORWARD, newForward);
+		newForward.set(0f + FORWARD.x + newForward.x, 0f + FORWARD.y + newForward.y, 0f + FORWARD.z + newForward.z);
+		Vector3f.cross(deltaAngle, X_AXIS, newRight);
+		newRight.set(0f + X_AXIS.x + newRight.x, 0f + X_AXIS.y + newRight.y, 0f + X_AXIS.z + newRight.z);
+		transformInto(droneToWorld, newForward.x, newForward.y, newForward.z, forwardVector);
+		headingVector.set(forwardVector.x, 0, forwardVector.z);
+		headingVector.normalise(headingVector);
+		transformInto(droneToWorld, newRight.x, newRight.y, newRight.z, rightVector);
+		Vector3f.cross(headingVector, Y_AXIS, R0);
+		Vector3f.cross(R0, forwardVector, U0);
+		
+		fleet.heading[i] = (float) atan2(-headingVector.x, -headingVector.z);
+		fleet.pitch[i] = (float) atan2(forwardVector.y, Vector3f.dot(forwardVector, headingVector));
+		fleet.roll[i] = (float) atan2(Vector3f.dot(rightVector, U0), Vector3f.dot(rightVector, R0));
+		attitude = nextAttitude.update(fleet.heading[i], fleet.pitch[i], fleet.roll[i]);
+		nextAttitude = previousAttitude;
+		currentDroneToWorld = attitude.toWorld;
 		
 		//*******FORCES ON THE WINGS***************
-		Vector3f relativeAirSpeed = relativeVelocity;
-		
-		Vector3f leftWingAV = new Vector3f(0,(float) sin(leftWingInclination),-(float)cos(leftWingInclination));
-		Vector3f leftWingLift = calculateLiftForce(relativeAirSpeed, leftWingAV, new Vector3f(1,0,0), wingSlope);
-		
-		Vector3f rightWingAV = new Vector3f(0,(float) sin(rightWingInclination),-(float)cos(rightWingInclination));
-		Vector3f rightWingLift = calculateLiftForce(relativeAirSpeed, rightWingAV, new Vector3f(1,0,0), wingSlope);
-		
-		Vector3f horStabAV = new Vector3f(0,(float) sin(horStabInclination),-(float)cos(horStabInclination));
-		Vector3f horStabLift = calculateLiftForce(relativeAirSpeed, horStabAV, new Vector3f(1,0,0), horStabSlope);
-		
-		Vector3f verStabAV = new Vector3f(-(float)sin(verStabInclination), 0, -(float)cos(verStabInclination));
-		Vector3f verStabLift = calculateLiftForce(relativeAirSpeed, verStabAV, new Vector3f(0,1,0), verStabSlope);
-		
-		Vector3f leftWingMoment = Vector3f.cross(new Vector3f(-wingX,0,0), leftWingLift, null);
-		Vector3f rightWingMoment = Vector3f.cross(new Vector3f(wingX,0,0), rightWingLift, null);
-		Vector3f horStabMoment = Vector3f.cross(new Vector3f(0,0,tailZ), horStabLift, null);
-		Vector3f verStabMoment = Vector3f.cross(new Vector3f(0,0,tailZ), verStabLift, null);
+		calculateLiftForce(relativeVelocity, 0, (float) sin(leftWingInclination), -(float)cos(leftWingInclination), X_AXIS, wingSlope, leftWingLift);
+		calculateLiftForce(relativeVelocity, 0, (float) sin(rightWingInclination), -(float)cos(rightWingInclination), X_AXIS, wingSlope, rightWingLift);
+		calculateLiftForce(relativeVelocity, 0, (float) sin(horStabInclination), -(float)cos(horStabInclination), X_AXIS, horStabSlope, horStabLift);
+		calculateLiftForce(relativeVelocity, -(float)sin(verStabInclination), 0, -(float)cos(verStabInclination), Y_AXIS, verStabSlope, verStabLift);
+		
+		momentArm.set(-wingX, 0, 0);
+		Vector3f.cross(momentArm, leftWingLift, leftWingMoment);
+		momentArm.set(wingX, 0, 0);
+		Vector3f.cross(momentArm, rightWingLift, rightWingMoment);
+		momentArm.set(0, 0, tailZ);
+		Vector3f.cross(momentArm, horStabLift, horStabMoment);
+		Vector3f.cross(momentArm, verStabLift, verStabMoment);
 		
 		//*******FORCE DUE TO GRAVITY***************
-		Vector3f droneGravity = transformVector(worldToDrone, new Vector3f(0, totalMass*gravity, 0));	
-
+		transformInto(worldToDrone, 0, totalMass*gravity, 0, droneGravity);
+		
 		//*********TOTAL FORCE NORMAL FORCES**********
-		Vector3f totalForce1 = addVectors(leftWingLift, rightWingLift, horStabLift, verStabLift, new Vector3f(0,0,-thrust), droneGravity);
-		Vector3f velocityAcceleration1 = scaleVector(totalForce1, 1/totalMass);
+		float inverseMass = 1/totalMass;
+		velocityAcceleration1.set(
+				inverseMass*(0f + leftWingLift.x + rightWingLift.x + horStabLift.x + verStabLift.x + 0f + droneGravity.x),
+				inverseMass*(0f + leftWingLift.y + rightWingLift.y + horStabLift.y + verStabLift.y + 0f + droneGravity.y),
+				inverseMass*(0f + leftWingLift.z + rightWingLift.z + horStabLift.z + verStabLift.z - thrust + droneGravity.z));
 		
 		//*******WHEEL FORCES (WHEN ON THE GROUND)**
-		ArrayList<Vector3f> groundForces = calculateGroundLiftForce(timePassed);
-		Vector3f groundLiftForce = addVectors(groundForces.get(0), groundForces.get(1),groundForces.get(2));
-		Vector3f groundLiftForceRelative = transformVector(worldToDrone, groundLiftForce);
-		ArrayList<Vector3f> onGroundBrakefrict = calculateOnGroundBrakeFrictForce(groundForces,timePassed, worldToDrone);
-		Vector3f groundBrakeFrictForce = addVectors(onGroundBrakefrict.get(0), onGroundBrakefrict.get(1),onGroundBrakefrict.get(2));
-		
-		Vector3f wheelMomentNormal1 = calculateWheelMoment(frontWheel, groundForces.get(0), droneToWorld);
-		Vector3f wheelMomentNormal2 = calculateWheelMoment(leftWheel, groundForces.get(1), droneToWorld);
-		Vector3f wheelMomentNormal3 = calculateWheelMoment(rightWheel, groundForces.get(2), droneToWorld);
-
-		Vector3f totalWorldMoment = addVectors(wheelMomentNormal1, wheelMomentNormal2, wheelMomentNormal3);
-		Vector3f totalWorldMomentRelative = transformVector(worldToDrone, totalWorldMoment);
+		frontWheel.setWheelPressed(calculateAbsoluteY(frontWheel.getPosition()) < frontWheel.getRadius());
+		leftWheel.setWheelPressed(calculateAbsoluteY(leftWheel.getPosition()) < leftWheel.getRadius());
+		rightWheel.setWheelPressed(calculateAbsoluteY(rightWheel.getPosition()) < rightWheel.getRadius());
+		groundForces[0].set(0, calculateGroundForceLength(frontWheel, timePassed), 0);
+		groundForces[1].set(0, calculateGroundForceLength(leftWheel, timePassed), 0);
+		groundForces[2].set(0, calculateGroundForceLength(rightWheel, timePassed), 0);
+		transformInto(worldToDrone, 0f + groundForces[0].x + groundForces[1].x + groundForces[2].x,
+				0f + groundForces[0].y + groundForces[1].y + groundForces[2].y,
+				0f + groundForces[0].z + groundForces[1].z + groundForces[2].z, groundLiftForceRelative);
+		calculateOnGroundBrakeFrictForce(frontWheel, groundForces[0], false, brakeFrictForces[0]);
+		calculateOnGroundBrakeFrictForce(leftWheel, groundForces[1], true, brakeFrictForces[1]);
+		calculateOnGroundBrakeFrictForce(rightWheel, groundForces[2], true, brakeFrictForces[2]);
+		
+		calculateWheelMoment(frontWheel, groundForces[0], wheelMomentsNormal[0]);
+		calculateWheelMoment(leftWheel, groundForces[1], wheelMomentsNormal[1]);
+		calculateWheelMoment(rightWheel, groundForces[2], wheelMomentsNormal[2]);
+		transformInto(worldToDrone, 0f + wheelMomentsNormal[0].x + wheelMomentsNormal[1].x + wheelMomentsNormal[2].x,
+				0f + wheelMomentsNormal[0].y + wheelMomentsNormal[1].y + wheelMomentsNormal[2].y,
+				0f + wheelMomentsNormal[0].z + wheelMomentsNormal[1].z + wheelMomentsNormal[2].z, totalWorldMomentRelative);
+		
+		calculateWheelBottomMoment(frontWheel, brakeFrictForces[0], wheelMomentsFrict[0]);
+		calculateWheelBottomMoment(leftWheel, brakeFrictForces[1], wheelMomentsFrict[1]);
+		calculateWheelBottomMoment(rightWheel, brakeFrictForces[2], wheelMomentsFrict[2]);
 		
-		Vector3f wheelMomentFrict1 = calculateWheelBottomMoment(frontWheel, onGroundBrakefrict.get(0), worldToDrone);
-		Vector3f wheelMomentFrict2 = calculateWheelBottomMoment(leftWheel, onGroundBrakefrict.get(1), worldToDrone);
-		Vector3f wheelMomentFrict3 = calculateWheelBottomMoment(rightWheel, onGroundBrakefrict.get(2), worldToDrone);
-		
-		Vector3f totalFrictMomentRelative = addVectors(wheelMomentFrict1, wheelMomentFrict2, wheelMomentFrict3);
-
 		//*********TOTAL FORCE WHEELS**********
-		Vector3f totalForce2 = addVectors(groundLiftForceRelative, groundBrakeFrictForce);
-		Vector3f velocityAcceleration2 = scaleVector(totalForce2, 1/totalMass);
+		velocityAcceleration2.set(
+				inverseMass*(0f + groundLiftForceRelative.x + (0f + brakeFrictForces[0].x + brakeFrictForces[1].x + brakeFrictForces[2].x)),
+				inverseMass*(0f + groundLiftForceRelative.y + (0f + brakeFrictForces[0].y + brakeFrictForces[1].y + brakeFrictForces[2].y)),
+				inverseMass*(0f + groundLiftForceRelative.z + (0f + brakeFrictForces[0].z + brakeFrictForces[1].z + brakeFrictForces[2].z)));
 		
 		//*********TOTAL MOMENT****************
-		Vector3f totalMoment = addVectors(leftWingMoment, rightWingMoment, horStabMoment, verStabMoment, totalWorldMomentRelative, totalFrictMomentRelative);
+		float totalMomentX = 0f + leftWingMoment.x + rightWingMoment.x + horStabMoment.x + verStabMoment.x + totalWorldMomentRelative.x
+				+ (0f + wheelMomentsFrict[0].x + wheelMomentsFrict[1].x + wheelMomentsFrict[2].x);
+		float totalMomentY = 0f + leftWingMoment.y + rightWingMoment.y + horStabMoment.y + verStabMoment.y + totalWorldMomentRelative.y
+				+ (0f + wheelMomentsFrict[0].y + wheelMomentsFrict[1].y + wheelMomentsFrict[2].y);
+		float totalMomentZ = 0f + leftWingMoment.z + rightWingMoment.z + horStabMoment.z + verStabMoment.z + totalWorldMomentRelative.z
+				+ (0f + wheelMomentsFrict[0].z + wheelMomentsFrict[1].z + wheelMomentsFrict[2].z);
 		
 		//*********NEW (ANGULAR) VELOCITY**********
-
-		Vector3f extraVel = ignoreSmallValues(transformVector(droneToWorld, scaleVector(velocityAcceleration1, timePassed)), 0.0001f);
-	
-		Vector3f normalVel = addVectors(extraVel, velocity);
-		Vector3f counterVel = ignoreSmallValues(transformVector(droneToWorld, scaleVector(velocityAcceleration2, timePassed)), 0.0001f);
-				
-		float xVel = originalPlusCounter(normalVel.x, counterVel.x);
-		float yVel = normalVel.y + counterVel.y;
-		float zVel = originalPlusCounter(normalVel.z, counterVel.z);
-		
-		velocity = new Vector3f(xVel,yVel,zVel);
-
-		Vector3f angularAcceleration = new Vector3f(totalMoment.x/inX, totalMoment.y/inY, totalMoment.z/inZ);
-		
-		relativeAngularVelocity = addVectors(relativeAngularVelocity,scaleVector(angularAcceleration, timePassed));
-		if(velocity.lengthSquared()<.1f) {
-			angularVelocity = new Vector3f();
+		transformInto(droneToWorld, timePassed*velocityAcceleration1.x, timePassed*velocityAcceleration1.y, timePassed*velocityAcceleration1.z, extraVel);
+		clearSmallValues(extraVel, 0.0001f);
+		extraVel.set(0f + extraVel.x + fleet.velocityX[i], 0f + extraVel.y + fleet.velocityY[i], 0f + extraVel.z + fleet.velocityZ[i]);
+		transformInto(droneToWorld, timePassed*velocityAcceleration2.x, timePassed*velocityAcceleration2.y, timePassed*velocityAcceleration2.z, counterVel);
+		clearSmallValues(counterVel, 0.0001f);
+		
+		fleet.setVelocity(i, originalPlusCounter(extraVel.x, counterVel.x), extraVel.y + counterVel.y, originalPlusCounter(extraVel.z, counterVel.z));
+		
+		relativeAngularVelocity.set(0f + relativeAngularVelocity.x + timePassed*(totalMomentX/inX),
+				0f + relativeAngularVelocity.y + timePassed*(totalMomentY/inY),
+				0f + relativeAngularVelocity.z + timePassed*(totalMomentZ/inZ));
+		if(fleet.velocityX[i]*fleet.velocityX[i] + fleet.velocityY[i]*fleet.velocityY[i] + fleet.velocityZ[i]*fleet.velocityZ[i]<.1f) {
+			fleet.setAngularVelocity(i, 0, 0, 0);
 		} else {
-			angularVelocity = transformVector(droneToWorld, relativeAngularVelocity);
+			transformInto(droneToWorld, relativeAngularVelocity.x, relativeAngularVelocity.y, relativeAngularVelocity.z, worldAngularVelocity);
+			fleet.setAngularVelocity(i, worldAngularVelocity.x, worldAngularVelocity.y, worldAngularVelocity.z);
 		}
 		
-		isCrashed();
-		
-	}
-	
-	private Vector3f calculateLiftForce(Vector3f airSpeed, Vector3f attackVector, Vector3f axis, float slope) {
-		Vector3f projAirSpeed = new Vector3f((1-axis.x)*airSpeed.x, (1-axis.y)*airSpeed.y, (1-axis.z)*airSpeed.z);
-		Vector3f normal = Vector3f.cross(axis, attackVector, null);
-		float AOA = (float) -Math.atan2(Vector3f.dot(projAirSpeed, normal), Vector3f.dot(projAirSpeed, attackVector));
+		if(isPartUnderGround())
+			isCrashed();
+	}
+	
+	/**
+	 * Save all state which is changed by a step: the kinematic state in the fleet, the propeller and the wheels.
+	 */
+	void saveState(){
+		final float[] state = savedState;
+		final int i = slot;
+		state[0] = fleet.positionX[i];
+		state[1] = fleet.positionY[i];
+		state[2] = fleet.positionZ[i];
+		state[3] = fleet.velocityX[i];
+		state[4] = fleet.velocityY[i];
+		state[5] = fleet.velocityZ[i];
+		state[6] = fleet.angularVelocityX[i];
+		state[7] = fleet.angularVelocityY[i];
+		state[8] = fleet.angularVelocityZ[i];
+		state[9] = fleet.heading[i];
+		state[10] = fleet.pitch[i];
+		state[11] = fleet.roll[i];
+		state[12] = propellerRoll;
+		state[13] = accelTotal;
+		state[14] = frontWheel.getPressed();
+		state[15] = leftWheel.getPressed();
+		state[16] = rightWheel.getPressed();
+		state[17] = frontWheel.isPressed() ? 1 : 0;
+		state[18] = leftWheel.isPressed() ? 1 : 0;
+		state[19] = rightWheel.isPressed() ? 1 : 0;
+	}
+	
+	/**
+	 * Restore the state of the last call of saveState.
+	 */
+	void restoreState(){
+		final float[] state = savedState;
+		final int i = slot;
+		fleet.setPosition(i, state[0], state[1], state[2]);
+		fleet.setVelocity(i, state[3], state[4], state[5]);
+		fleet.setAngularVelocity(i, state[6], state[7], state[8]);
+		fleet.setAttitude(i, state[9], state[10], state[11]);
+		propellerRoll = state[12];
+		accelTotal = state[13];
+		frontWheel.setPressed(state[14]);
+		leftWheel.setPressed(state[15]);
+		rightWheel.setPressed(state[16]);
+		frontWheel.setWheelPressed(state[17] != 0);
+		leftWheel.setWheelPressed(state[18] != 0);
+		rightWheel.setWheelPressed(state[19] != 0);
+	}
+	
+	private void calculateLiftForce(Vector3f airSpeed, float attackX, float attackY, float attackZ, Vector3f axis, float slope, Vector3f result) {
+		attackVector.set(attackX, attackY, attackZ);
+		projAirSpeed.set((1-axis.x)*airSpeed.x, (1-axis.y)*airSpeed.y, (1-axis.z)*airSpeed.z);
+		Vector3f.cross(axis, attackVector, liftNormal);
+		float AOA = (float) -Math.atan2(Vector3f.dot(projAirSpeed, liftNormal), Vector3f.dot(projAirSpeed, attackVector));
 		float factor = slope*AOA*projAirSpeed.lengthSquared();
-		Vector3f result = scaleVector(normal, factor);
+		result.set(factor*liftNormal.x, factor*liftNormal.y, factor*liftNormal.z);
 		if(Math.abs(AOA) > this.MAX_AOA && result.y > 50){
 			throw new RuntimeException(toString() + ": MAXAOA WAS EXCEEDED. Allowed AOA is " + this.MAX_AOA + ". Calculated AOA is " + AOA +".");
 		}
-		return result;
 	}
 	
-	private Matrix4f getWorldToDroneTransformationMatrix(float heading, float pitch, float roll) {
-		return Matrix4f.invert(getDroneToWorldTransformationMatrix(heading, pitch, roll), null);
+	private void transformInto(Matrix4f matrix, float x, float y, float z, Vector3f result) {
+		transformed.set(x, y, z, 1);
+		Matrix4f.transform(matrix, transformed, transformed);
+		result.set(transformed.x, transformed.y, transformed.z);
 	}
-
-	private Matrix4f getDroneToWorldTransformationMatrix(float heading, float pitch, float roll) {
-		Matrix4f matrix = new Matrix4f();
-		matrix.setIdentity();
-		Matrix4f.rotate(heading, new Vector3f(0, 1, 0), matrix, matrix);
-		Matrix4f.rotate(pitch, new Vector3f(1, 0, 0), matrix, matrix);
-		Matrix4f.rotate(roll, new Vector3f(0, 0, 1), matrix, matrix);
-		return matrix;
+	
+	/**
+	 * The transformation matrices of the current heading, pitch and roll of the drone.
+	 */
+	private Attitude getAttitude() {
+		return attitude.update(fleet.heading[slot], fleet.pitch[slot], fleet.roll[slot]);
 	}
+	
 	public static void addModels(TexturedModel model, TexturedModel shadowModel, int guiTexture, int guiTexturePackage, int focus, int packFocus) {
 		Drone.model = model;
 		Drone.shadowModel = shadowModel;
@@ -304,7 +487,7 @@ public class Drone{
 		this.propellerRoll = propellerRoll;
 	}
 
-	protected void updatePropeller(float time){
+	void updatePropeller(float time){
 		addValueToAccelArray(thrust);
 		//addValueToAccelArray(velocity.length());
 		float average=calculateAverage();
@@ -337,7 +520,7 @@ public class Drone{
 	public Entity getEntity() {
 		float scalingFactor = 2.90f;
 		
-		return new Entity(model,position,heading,pitch,roll,scalingFactor);
+		return new Entity(model,new Vector3f(getPosition()),getHeading(),getPitch(),getRoll(),scalingFactor);
 	}
 	
 
@@ -345,13 +528,13 @@ public class Drone{
 		float scalingFactor = 2.90f;
 		Vector3f propellposition=new Vector3f(0,1.6f,0);
 		
-		Matrix4f droneToWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
-		Vector3f toPutPosition= transformVector(droneToWorld, propellposition);
-		toPutPosition.translate(position.x,position.y,position.z);
-		return new Entity(propellerModel,toPutPosition,heading,pitch,roll+propellerRoll,scalingFactor);
+		Vector3f toPutPosition= transformVector(getAttitude().toWorld, propellposition);
+		toPutPosition.translate(getPosition().x,getPosition().y,getPosition().z);
+		return new Entity(propellerModel,toPutPosition,getHeading(),getPitch(),getRoll()+propellerRoll,scalingFactor);
 	}
 	
 	public GuiTexture getGuiTexture(float width, boolean focus){
+		Vector3f position = getPosition();
 		if(isHasPackage()) {
 			return new GuiTexture(focus? guiTexturePackageFocus: guiTexturePackage, new Vector2f(2*position.x/width-1, 2*-position.z/width-1),
 							getHeading(), new Vector2f(focus? 0.045f : 0.03f, focus? 0.045f : 0.03f));
@@ -362,6 +545,7 @@ public class Drone{
 	}
 	
 	public Entity getShadowEntity(){
+		Vector3f position = getPosition();
 		float scale;
 		if(position.y > 80){
 			scale = 0;
@@ -376,13 +560,36 @@ public class Drone{
 		return shadowModel.getTexture();
 	}
 	
+	/**
+	 * The current velocity of the drone, in a new vector.
+	 */
 	public Vector3f getVelocity() {
-		return velocity;
+		return fleet.getVelocity(slot, new Vector3f());
+	}
+	
+	/**
+	 * Copy the current velocity of the drone into the given vector, which is returned.
+	 */
+	public Vector3f getVelocity(Vector3f result) {
+		return fleet.getVelocity(slot, result);
+	}
+	
+	/**
+	 * The current angular velocity of the drone in world coordinates, in a new vector.
+	 */
+	public Vector3f getAngularVelocity() {
+		return fleet.getAngularVelocity(slot, new Vector3f());
+	}
+	
+	/**
+	 * Copy the current angular velocity of the drone in world coordinates into the given vector, which is returned.
+	 */
+	public Vector3f getAngularVelocity(Vector3f result) {
+		return fleet.getAngularVelocity(slot, result);
 	}
 	
 	public Vector3f getRelativeAngularVelocity() {
-		Matrix4f worldToDrone = getWorldToDroneTransformationMatrix(heading, pitch, roll);
-		return transformVector(worldToDrone, angularVelocity);
+		return transformVector(getAttitude().toDrone, getAngularVelocity());
 	}
 	
 	public ModelTexture getTextureID(){
@@ -390,123 +597,75 @@ public class Drone{
 	}
 	
 	private Vector3f calculateAbsolutePosition(Vector3f todrone){
-		Vector3f result=transformVector(getDroneToWorldTransformationMatrix(heading, pitch, roll), todrone);
+		Vector3f result=transformVector(getAttitude().toWorld, todrone);
+		Vector3f position = getPosition();
 		result.translate(position.x, position.y, position.z);
 		return result;
 	}
 	
-	private ArrayList<Vector3f> calculateOnGroundBrakeFrictForce(ArrayList<Vector3f> groundForces, float timePassed, Matrix4f worldToDrone) {
-		checkWheelsPressed();
-		Vector3f forceByWheel1 = new Vector3f();
-		Vector3f forceByWheel2 = new Vector3f();
-		Vector3f forceByWheel3 = new Vector3f();
-		ArrayList<Vector3f> wheelForces = new ArrayList<>();
+	private float calculateGroundForceLength(Wheel wheel, float timePassed){
+		float oldPressedDistance = wheel.getPressed();
+		float wheelCenterY = calculateAbsoluteY(wheel.getPosition());
+		if(wheelCenterY >= wheel.getRadius()) {
+			wheel.setPressed(0);
+		} else {
+			wheel.setPressed(wheel.getRadius() - wheelCenterY);
+		}
+		return Math.max(0, wheel.getPressed()*wheel.getTyreSlope() + (wheel.getDampSlope()*((wheel.getPressed()-oldPressedDistance)/timePassed)));
+	}
 	
-		if(frontWheel.isPressed()){
-			forceByWheel1 = new Vector3f();// calculateFrictForce(frontWheel,groundForces.get(0),timePassed, worldToDrone);
-			forceByWheel1 = Vector3f.add(forceByWheel1,calculateBrakeForce(frontWheel,timePassed,worldToDrone),null);
+	private void calculateOnGroundBrakeFrictForce(Wheel wheel, Vector3f groundForce, boolean frict, Vector3f result) {
+		if(!wheel.isPressed()) {
+			result.set(0, 0, 0);
+			return;
 		}
-		wheelForces.add(forceByWheel1);
-		
-		if(leftWheel.isPressed()){		
-			forceByWheel2 = calculateFrictForce(leftWheel,groundForces.get(1),timePassed, worldToDrone);
-			forceByWheel2 = Vector3f.add(forceByWheel2,calculateBrakeForce(leftWheel,timePassed,worldToDrone),null);
-			
+		Vector3f.cross(relativeAngularVelocity, wheel.getPosition(), rotationVelocity);
+		float totalVelocityX = 0f + relativeVelocity.x + rotationVelocity.x;
+		float totalVelocityZ = 0f + relativeVelocity.z + rotationVelocity.z;
+		float brakeForce = 0;
+		if(totalVelocityZ<0){
+			brakeForce = wheel.getBrakeForce();
+		} else if(totalVelocityZ>0){
+			brakeForce = -wheel.getBrakeForce();
 		}
-		wheelForces.add(forceByWheel2);
-
-		if(rightWheel.isPressed()){
-			forceByWheel3 = calculateFrictForce(rightWheel,groundForces.get(2),timePassed, worldToDrone);	
-			forceByWheel3 = Vector3f.add(forceByWheel3,calculateBrakeForce(rightWheel,timePassed,worldToDrone),null);
-			
+		float frictForce = 0;
+		if(frict) {
+			frictForce = -wheel.getFcMax()*totalVelocityX*groundForce.length();
 		}
-		wheelForces.add(forceByWheel3);
-		return wheelForces;
+		result.set(frictForce + 0f, 0f + 0f, 0f + brakeForce);
 	}
-
-	private Vector3f calculateBrakeForce(Wheel wheel, float timePassed, Matrix4f worldToDrone) {
-		Vector3f totalForce;
-		Vector3f relativeVelocity = transformVector(worldToDrone, velocity);
-		Vector3f relativeAngularVelocity = transformVector(worldToDrone, angularVelocity);
-		
-		Vector3f rotationVelocity = Vector3f.cross(relativeAngularVelocity, wheel.getPosition(), null);
-		Vector3f totalVelocity = addVectors(relativeVelocity, rotationVelocity);
-		if(totalVelocity.z<0){
-			totalForce = new Vector3f(0.0f, 0.0f, wheel.getBrakeForce());
-		}else{
-			if(totalVelocity.z>0){
-				totalForce = new Vector3f(0.0f, 0.0f, -wheel.getBrakeForce());
-			}else{
-				totalForce = new Vector3f(0,0,0);
-			}
-		}
-		return totalForce;
-	}
-
-	private Vector3f calculateFrictForce(Wheel wheel, Vector3f force, float timePassed, Matrix4f worldToDrone) {
-		float forceValue = force.length();
-		Vector3f relativeVelocity = transformVector(worldToDrone, velocity);
-		Vector3f relativeAngularVelocity = transformVector(worldToDrone, angularVelocity);
-		
-		Vector3f rotationVelocity = Vector3f.cross(relativeAngularVelocity, wheel.getPosition(), null);
-		Vector3f totalVelocity = addVectors(relativeVelocity, rotationVelocity);
-		
-		Vector3f totalForce = new Vector3f(((float)(-wheel.getFcMax()*totalVelocity.x*forceValue)), 0.0f, 0.0f);
-		
-		return totalForce;
-	}
-
-	public ArrayList<Vector3f> calculateGroundLiftForce(float timepassed){
-		checkWheelsPressed();
-		ArrayList<Vector3f> wheelLiftForces = new ArrayList<>();
 	
-		Vector3f forceByWheel1 = calculateGroundForce(frontWheel,timepassed);
-		wheelLiftForces.add(forceByWheel1);
-		
-		Vector3f forceByWheel2 = calculateGroundForce(leftWheel,timepassed);
-		wheelLiftForces.add(forceByWheel2);
-
-		Vector3f forceByWheel3 = calculateGroundForce(rightWheel,timepassed);
-		
-		wheelLiftForces.add(forceByWheel3);
-		return wheelLiftForces;
-	}
-
-	private Vector3f calculateGroundForce(Wheel wheel, float timePassed){
-		float oldPressedDistance = wheel.getPressed();
-		calculatePressedDistance(wheel);
-		
-		float groundForceLength = Math.max(0, wheel.getPressed()*wheel.getTyreSlope() + (wheel.getDampSlope()*((wheel.getPressed()-oldPressedDistance)/timePassed)));
-		Vector3f groundForce = new Vector3f(0,groundForceLength,0);
-		
-		return groundForce;
-	}
-
-	public void calculatePressedDistance(Wheel wheel) {
-		Vector3f wheelCenterAbsolute = calculateAbsolutePosition(wheel.getPosition());
-		if(wheelCenterAbsolute.y >= wheel.getRadius()) {
-			wheel.setPressed(0);
-		} else {
-			float pressedDistance = wheel.getRadius() - wheelCenterAbsolute.y;
-			wheel.setPressed(pressedDistance);
-		}
+	private void calculateWheelMoment(Wheel wheel, Vector3f wheelForce, Vector3f result) {
+		transformInto(droneToWorld, wheel.getPosition().x, wheel.getPosition().y, wheel.getPosition().z, result);
+		Vector3f.cross(result, wheelForce, result);
 	}
 	
-	private Vector3f calculateWheelMoment(Wheel wheel, Vector3f wheelForce, Matrix4f droneToWorld) {
-		Vector3f centerToWheelVector = transformVector(droneToWorld, wheel.getPosition());
-		return Vector3f.cross(centerToWheelVector, wheelForce, null);
+	private void calculateWheelBottomMoment(Wheel wheel, Vector3f wheelForce, Vector3f result) {
+		transformInto(worldToDrone, 0, -wheel.getRadius(), 0, result);
+		result.set(0f + wheel.getPosition().x + result.x, 0f + wheel.getPosition().y + result.y, 0f + wheel.getPosition().z + result.z);
+		Vector3f.cross(result, wheelForce, result);
 	}
-
-	private Vector3f calculateWheelBottomMoment(Wheel wheel, Vector3f wheelForce, Matrix4f worldToDrone) {
-		Vector3f wheelCenterToBottomVector = transformVector(worldToDrone, new Vector3f(0, -wheel.getRadius(), 0));
-		Vector3f centerToWheelBottomVector = addVectors(wheel.getPosition(), wheelCenterToBottomVector);
-		return Vector3f.cross(centerToWheelBottomVector, wheelForce, null);
+	
+	/**
+	 * The height of the given point of the drone in world coordinates, with the attitude after the last update.
+	 */
+	private float calculateAbsoluteY(Vector3f todrone) {
+		transformed.set(todrone.x, todrone.y, todrone.z, 1);
+		Matrix4f.transform(currentDroneToWorld, transformed, transformed);
+		return transformed.y + fleet.positionY[slot];
 	}
 	
-	private void checkWheelsPressed() {
-		frontWheel.setWheelPressed(isWheelPressed(frontWheel));
-		leftWheel.setWheelPressed(isWheelPressed(leftWheel));
-		rightWheel.setWheelPressed(isWheelPressed(rightWheel));	
+	private boolean isPartUnderGround() {
+		if(calculateAbsoluteY(frontWheel.getPosition()) < 0 || calculateAbsoluteY(leftWheel.getPosition()) < 0 || calculateAbsoluteY(rightWheel.getPosition()) < 0)
+			return true;
+		momentArm.set(0, 0, engineZ);
+		if(fleet.positionY[slot] < 0 || calculateAbsoluteY(momentArm) < 0)
+			return true;
+		momentArm.set(wingX, 0, 0);
+		if(calculateAbsoluteY(momentArm) < 0)
+			return true;
+		momentArm.set(-wingX, 0, 0);
+		return calculateAbsoluteY(momentArm) < 0;
 	}
 	
 	public void isCrashed(){
@@ -519,7 +678,7 @@ public class Drone{
 		Vector3f tailposition=calculateAbsolutePosition(new Vector3f(0,0,engineZ));
 		Vector3f leftwingposition=calculateAbsolutePosition(new Vector3f(wingX,0,0));
 		Vector3f rightwingposition=calculateAbsolutePosition(new Vector3f(-wingX,0,0));
-		if(position.y<0||tailposition.y<0||leftwingposition.y<0||rightwingposition.y<0){
+		if(getY()<0||tailposition.y<0||leftwingposition.y<0||rightwingposition.y<0){
 			throw new RuntimeException(toString() + ": WINGS OR TAIL UNDER GROUND");
 		}
 	}
@@ -532,13 +691,6 @@ public class Drone{
 		return false;
 	}
 
-	private boolean isWheelPressed(Wheel wheel) {
-		Vector3f absoluteWheelPosition = calculateAbsolutePosition(wheel.getPosition());
-		if(absoluteWheelPosition.y < wheel.getRadius()){
-			return true;
-		}
-		return false;
-	}
 	private float timePassed;
 	
 	public void setTimePassed(float timePassed){
@@ -552,18 +704,13 @@ public class Drone{
 		else return 0;
 	}
 	
-	private Vector3f ignoreSmallValues(Vector3f vector, float eps) {
-		//float eps = 0.0001f;
-		float x = (Math.abs(vector.x)>eps)? vector.x : 0;
-		float y = (Math.abs(vector.y)>eps)? vector.y : 0;
-		float z = (Math.abs(vector.z)>eps)? vector.z : 0;
-		return new Vector3f(x,y,z);
+	private void clearSmallValues(Vector3f vector, float eps) {
+		vector.set((Math.abs(vector.x)>eps)? vector.x : 0, (Math.abs(vector.y)>eps)? vector.y : 0, (Math.abs(vector.z)>eps)? vector.z : 0);
 	}
 	
 	public Vector3f getCameraPosition() {
-		Matrix4f toWorld = getDroneToWorldTransformationMatrix(heading, pitch, roll);
 		Vector3f cameraPos = new Vector3f(0,200*(float)Math.cos(Math.PI/6),200*(float)Math.sin(Math.PI/6));
-		return addVectors(position,Tools.transformVector(toWorld, cameraPos));
+		return addVectors(getPosition(),Tools.transformVector(getAttitude().toWorld, cameraPos));
 	}
 	
 	public Airport getAirport(){
@@ -0,0 +1,373 @@
+package entities;
+
+import java.util.Arrays;
+
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * The kinematic state (position, velocity, angular velocity and attitude) of a fleet of drones,
+ * stored in contiguous primitive arrays. The index of a drone in the fleet is its slot, which is the drone ID
+ * for the fleet of the world manager. Drones are views on this state.
+ *
+ * Every drone starts in a fleet of its own, adding it to another fleet moves its state.
+ *
+ * @author Team Saffier
+ * @version 1.0
+ */
+public class FleetState {
+
+	private int size = 0;
+	private Drone[] drones;
+
+	float[] positionX, positionY, positionZ;			//world coo
+	float[] velocityX, velocityY, velocityZ;			//world coo
+	float[] angularVelocityX, angularVelocityY, angularVelocityZ;	//world coo
+	float[] heading, pitch, roll;
+
+	// Crashes of the last call of timePassed, per slot
+	private int[] crashSubstep;
+	private RuntimeException[] crashes;
+	
+	// The adaptive integrator divides a call of timePassed in at most 2^MAX_STEP_LEVEL substeps
+	private static final int MAX_STEP_LEVEL = 8;
+	private static final int FINEST_STEPS = 1 << MAX_STEP_LEVEL;
+	// Set by the user interface while the simulation runs
+	private volatile float tolerance = 0;
+	// Per slot: the step level (2^level substeps per call) to start the next call with, or -1
+	private int[] stepLevel;
+	// Per slot: the amount of integrations of the last call of timePassed
+	private int[] integrations;
+	
+	// A drone which is at rest for this long is put to sleep, until its inputs change
+	private static final float SLEEP_TIME = 0.5f;
+	private boolean[] sleeping;
+	private float[] restTime;
+
+	public FleetState(int capacity) {
+		allocate(Math.max(1, capacity));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Drone getDrone(int slot) {
+		return drones[slot];
+	}
+	
+	/**
+	 * Set the tolerance of the adaptive integrator, zero means every drone is stepped with the fixed amount of iterations.
+	 * The error of a step is estimated by step doubling: the difference in velocity and angular velocity between one step
+	 * and two half steps, relative to 1 + the absolute value. Steps are halved until the error is below the tolerance.
+	 */
+	public void setTolerance(float tolerance) {
+		if(!(tolerance >= 0))
+			throw new IllegalArgumentException("The tolerance of the integrator can't be negative");
+		this.tolerance = tolerance;
+		Arrays.fill(stepLevel, -1);
+	}
+	
+	public float getTolerance() {
+		return tolerance;
+	}
+	
+	/**
+	 * The amount of times the forces on the drone in the given slot were integrated during the last call of timePassed.
+	 */
+	public int getIntegrations(int slot) {
+		return integrations[slot];
+	}
+
+	/**
+	 * Whether the physics of the drone in the given slot are skipped, because it is parked.
+	 */
+	public boolean isSleeping(int slot) {
+		return sleeping[slot];
+	}
+	
+	public int getSleepingDrones() {
+		int count = 0;
+		for(int i=0;i<size;i++) {
+			if(sleeping[i])
+				count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Add the given drone to this fleet, its state is moved from its current fleet to the next free slot.
+	 */
+	public void add(Drone drone) {
+		if(size == drones.length)
+			allocate(2*drones.length);
+		FleetState previous = drone.getFleet();
+		if(previous != null) {
+			int slot = drone.getSlot();
+			positionX[size] = previous.positionX[slot];
+			positionY[size] = previous.positionY[slot];
+			positionZ[size] = previous.positionZ[slot];
+			velocityX[size] = previous.velocityX[slot];
+			velocityY[size] = previous.velocityY[slot];
+			velocityZ[size] = previous.velocityZ[slot];
+			angularVelocityX[size] = previous.angularVelocityX[slot];
+			angularVelocityY[size] = previous.angularVelocityY[slot];
+			angularVelocityZ[size] = previous.angularVelocityZ[slot];
+			heading[size] = previous.heading[slot];
+			pitch[size] = previous.pitch[slot];
+			roll[size] = previous.roll[slot];
+		}
+		drones[size] = drone;
+		crashSubstep[size] = -1;
+		stepLevel[size] = -1;
+		sleeping[size] = false;
+		restTime[size] = 0;
+		drone.setFleet(this, size);
+		size++;
+	}
+
+	/**
+	 * Remove all drones from this fleet. Every drone gets a fleet of its own again, with its current state.
+	 */
+	public void clear() {
+		for(int i=0;i<size;i++) {
+			new FleetState(1).add(drones[i]);
+			drones[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Advance the drones in the given slots (from inclusive, to exclusive) over the given time, in the given amount of substeps.
+	 * The positions of the range are advanced in one loop, the forces are integrated drone per drone.
+	 *
+	 * A drone which crashes keeps on being stepped, just like when a crash happens in the testbed.
+	 * Sleeping drones aren't stepped, their velocity is zero so the positions don't change either.
+	 * The crashes are registered and can be thrown with throwFirstCrash.
+	 * Different ranges can be advanced in parallel.
+	 */
+	public void timePassed(float timePassed, int iterations, int from, int to) {
+		float tolerance = this.tolerance;	// Read once, so the whole call uses the same tolerance
+		if(tolerance > 0) {
+			timePassedAdaptive(timePassed, iterations, tolerance, from, to);
+			return;
+		}
+		for(int i=from;i<to;i++) {
+			integrations[i] = sleeping[i] ? 0 : iterations;
+		}
+		float substep = timePassed/iterations;
+		for(int j=0;j<iterations;j++) {
+			for(int i=from;i<to;i++) {
+				if(!sleeping[i])
+					drones[i].updatePropeller(substep);
+			}
+			advancePositions(substep, from, to);
+			for(int i=from;i<to;i++) {
+				if(sleeping[i])
+					continue;
+				try {
+					drones[i].integrate(substep);
+					updateRest(i, substep);
+				} catch (RuntimeException e) {
+					if(crashSubstep[i] == -1) {
+						crashSubstep[i] = j;
+						crashes[i] = e;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Advance the drones in the given slots with the adaptive integrator, every drone with its own substeps.
+	 * The substeps are the time passed divided by a power of two, which are halved when the error of the step is too large
+	 * and doubled when the error is well below the tolerance. A drone starts with the step level of its previous call,
+	 * or with the given amount of iterations for its first call.
+	 *
+	 * Crashes are registered by the time at which they happen, in units of the finest substep.
+	 */
+	private void timePassedAdaptive(float timePassed, int iterations, float tolerance, int from, int to) {
+		for(int i=from;i<to;i++) {
+			Drone drone = drones[i];
+			int level = stepLevel[i] == -1 ? levelOf(iterations) : Math.max(0, stepLevel[i] - 1);
+			int elapsed = 0;
+			integrations[i] = 0;
+			while(elapsed < FINEST_STEPS && !sleeping[i]) {
+				while(elapsed % (FINEST_STEPS >> level) != 0)
+					level++;
+				float step = timePassed/(1 << level);
+				float error = 0;
+				try {
+					if(level == MAX_STEP_LEVEL) {
+						step(i, step);
+					} else {
+						drone.saveState();
+						step(i, step);
+						float vx = velocityX[i], vy = velocityY[i], vz = velocityZ[i];
+						float wx = angularVelocityX[i], wy = angularVelocityY[i], wz = angularVelocityZ[i];
+						drone.restoreState();
+						step(i, step/2);
+						step(i, step/2);
+						error = Math.max(Math.max(relativeError(vx, velocityX[i]), relativeError(vy, velocityY[i])), relativeError(vz, velocityZ[i]));
+						error = Math.max(error, Math.max(Math.max(relativeError(wx, angularVelocityX[i]), relativeError(wy, angularVelocityY[i])), relativeError(wz, angularVelocityZ[i])));
+						if(!(error <= tolerance)) {
+							drone.restoreState();
+							level++;
+							continue;
+						}
+					}
+				} catch (RuntimeException e) {
+					if(level < MAX_STEP_LEVEL) {
+						drone.restoreState();
+						level++;
+						continue;
+					}
+					if(crashSubstep[i] == -1) {
+						crashSubstep[i] = elapsed;
+						crashes[i] = e;
+					}
+				}
+				elapsed += FINEST_STEPS >> level;
+				updateRest(i, step);
+				// The error of a step is quadratic in the step size
+				if(level > 0 && level < MAX_STEP_LEVEL && error < tolerance/4)
+					level--;
+			}
+			stepLevel[i] = level;
+		}
+	}
+	
+	/**
+	 * Put the drone in the given slot to sleep once it has been at rest long enough.
+	 * Its velocity is cleared, so advancing the positions leaves it in place.
+	 */
+	private void updateRest(int slot, float timePassed) {
+		if(!drones[slot].isAtRest()) {
+			restTime[slot] = 0;
+			return;
+		}
+		restTime[slot] += timePassed;
+		if(restTime[slot] >= SLEEP_TIME) {
+			sleeping[slot] = true;
+			setVelocity(slot, 0, 0, 0);
+		}
+	}
+	
+	/**
+	 * Wake the drone in the given slot, its physics are stepped again.
+	 */
+	void wake(int slot) {
+		sleeping[slot] = false;
+		restTime[slot] = 0;
+	}
+	
+	private void step(int slot, float timePassed) {
+		drones[slot].updatePropeller(timePassed);
+		advancePositions(timePassed, slot, slot+1);
+		integrations[slot]++;
+		drones[slot].integrate(timePassed);
+	}
+	
+	private static float relativeError(float estimate, float value) {
+		return Math.abs(value - estimate)/(1 + Math.abs(value));
+	}
+	
+	private static int levelOf(int iterations) {
+		int level = 0;
+		while(level < MAX_STEP_LEVEL && (1 << level) < iterations)
+			level++;
+		return level;
+	}
+	
+	/**
+	 * Throw the crash of the last call of timePassed which happened in the first substep, with the lowest slot for crashes
+	 * in the same substep (or at the same time for the adaptive integrator). This doesn't depend on how the slots were divided over different calls of timePassed.
+	 */
+	public void throwFirstCrash() {
+		int first = -1;
+		for(int i=0;i<size;i++) {
+			if(crashSubstep[i] != -1 && (first == -1 || crashSubstep[i] < crashSubstep[first]))
+				first = i;
+		}
+		if(first == -1)
+			return;
+		RuntimeException crash = crashes[first];
+		Arrays.fill(crashSubstep, 0, size, -1);
+		Arrays.fill(crashes, 0, size, null);
+		throw crash;
+	}
+
+	void advancePositions(float timePassed, int from, int to) {
+		for(int i=from;i<to;i++) {
+			positionX[i] = 0f + timePassed*velocityX[i] + positionX[i];
+			positionY[i] = 0f + timePassed*velocityY[i] + positionY[i];
+			positionZ[i] = 0f + timePassed*velocityZ[i] + positionZ[i];
+		}
+	}
+
+	Vector3f getPosition(int slot, Vector3f result) {
+		result.set(positionX[slot], positionY[slot], positionZ[slot]);
+		return result;
+	}
+
+	Vector3f getVelocity(int slot, Vector3f result) {
+		result.set(velocityX[slot], velocityY[slot], velocityZ[slot]);
+		return result;
+	}
+
+	Vector3f getAngularVelocity(int slot, Vector3f result) {
+		result.set(angularVelocityX[slot], angularVelocityY[slot], angularVelocityZ[slot]);
+		return result;
+	}
+
+	void setPosition(int slot, float x, float y, float z) {
+		positionX[slot] = x;
+		positionY[slot] = y;
+		positionZ[slot] = z;
+	}
+
+	void setVelocity(int slot, float x, float y, float z) {
+		velocityX[slot] = x;
+		velocityY[slot] = y;
+		velocityZ[slot] = z;
+	}
+
+	void setAngularVelocity(int slot, float x, float y, float z) {
+		angularVelocityX[slot] = x;
+		angularVelocityY[slot] = y;
+		angularVelocityZ[slot] = z;
+	}
+
+	void setAttitude(int slot, float heading, float pitch, float roll) {
+		this.heading[slot] = heading;
+		this.pitch[slot] = pitch;
+		this.roll[slot] = roll;
+	}
+
+	private void allocate(int capacity) {
+		drones = drones == null ? new Drone[capacity] : Arrays.copyOf(drones, capacity);
+		positionX = grow(positionX, capacity);
+		positionY = grow(positionY, capacity);
+		positionZ = grow(positionZ, capacity);
+		velocityX = grow(velocityX, capacity);
+		velocityY = grow(velocityY, capacity);
+		velocityZ = grow(velocityZ, capacity);
+		angularVelocityX = grow(angularVelocityX, capacity);
+		angularVelocityY = grow(angularVelocityY, capacity);
+		angularVelocityZ = grow(angularVelocityZ, capacity);
+		heading = grow(heading, capacity);
+		pitch = grow(pitch, capacity);
+		roll = grow(roll, capacity);
+		int previous = crashSubstep == null ? 0 : crashSubstep.length;
+		crashSubstep = crashSubstep == null ? new int[capacity] : Arrays.copyOf(crashSubstep, capacity);
+		Arrays.fill(crashSubstep, previous, capacity, -1);
+		crashes = crashes == null ? new RuntimeException[capacity] : Arrays.copyOf(crashes, capacity);
+		stepLevel = stepLevel == null ? new int[capacity] : Arrays.copyOf(stepLevel, capacity);
+		integrations = integrations == null ? new int[capacity] : Arrays.copyOf(integrations, capacity);
+		sleeping = sleeping == null ? new boolean[capacity] : Arrays.copyOf(sleeping, capacity);
+		restTime = restTime == null ? new float[capacity] : Arrays.copyOf(restTime, capacity);
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+}
@@ -0,0 +1,90 @@
+package main;
+
+import java.util.List;
+import java.util.Random;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import control.WorldManager;
+import entities.Drone;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotOutputs;
+import tools.Tools;
+import worldSimulation.ConfigGenerator;
+import worldSimulation.DroneStartSettings;
+
+/**
+ * Measures the collision check of the world manager for growing fleets, at a constant density of drones.
+ * The drones taxi between the checks, so some of them move to another cell of the collision grid.
+ * The pairwise check which compares the current positions of every pair of drones, which the world manager used
+ * before the collision grid, is only measured for a few ticks since it is quadratic.
+ * Usage: CollisionBenchmark [maximum drones] [ticks]
+ */
+public class CollisionBenchmark {
+	
+	private static final int REFERENCE_TICKS = 3;
+	
+	public static void main(String[] args) {
+		int maximum = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		
+		AutopilotConfig config = ConfigGenerator.generateDefault();
+		AutopilotOutputs taxi = new AutopilotOutputs() {
+			public float getThrust() { return 200; }
+			public float getLeftWingInclination() { return 0; }
+			public float getRightWingInclination() { return 0; }
+			public float getHorStabInclination() { return 0; }
+			public float getVerStabInclination() { return 0; }
+			public float getFrontBrakeForce() { return 0; }
+			public float getLeftBrakeForce() { return 0; }
+			public float getRightBrakeForce() { return 0; }
+		};
+		Random random = new Random(0);
+		for(int drones=maximum/8;drones<=maximum;drones*=2) {
+			WorldManager world = new WorldManager(null);
+			int row = (int) Math.ceil(Math.sqrt(drones));
+			for(int i=0;i<drones;i++) {
+				Drone drone = new Drone(config);
+				DroneStartSettings settings = new DroneStartSettings();
+				settings.setPosition(new Vector3f(20*(i%row) + 10*random.nextFloat(), -config.getWheelY() + 0.2f, -20*(i/row)));
+				drone.reset(settings);
+				drone.setInputs(taxi);
+				world.addDrone(drone);
+			}
+			
+			long grid = 0;
+			for(int i=0;i<ticks;i++) {
+				world.dronesTimePassed(0.02f, 1);
+				long start = System.nanoTime();
+				world.checkForCollision();
+				grid += System.nanoTime() - start;
+			}
+			long reference = 0;
+			for(int i=0;i<REFERENCE_TICKS;i++) {
+				long start = System.nanoTime();
+				checkPairwise(world.getDrones());
+				reference += System.nanoTime() - start;
+			}
+			
+			System.out.println("Drones: " + drones + ", grid: " + grid/1000f/ticks + " us per tick, "
+					+ "pairwise: " + reference/1000f/REFERENCE_TICKS + " us per tick");
+		}
+		System.exit(0);
+	}
+	
+	/**
+	 * The collision check which compares the current positions of every pair of drones.
+	 */
+	private static void checkPairwise(List<Drone> drones){
+		for(Drone drone1: drones){
+			for(Drone drone2: drones){
+				if(!drone1.equals(drone2)){
+					Vector3f distance = Tools.subtract(drone1.getPosition(), drone2.getPosition());
+					if(distance.lengthSquared()<25.0){
+						throw new RuntimeException(drone1 + " and " + drone2 + " CRASHED!");
+					}
+				}
+			}
+		}
+	}
+}
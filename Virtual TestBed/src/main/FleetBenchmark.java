@@ -0,0 +1,86 @@
+package main;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import control.WorldManager;
+import entities.Drone;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotOutputs;
+import worldSimulation.ConfigGenerator;
+import worldSimulation.DroneStartSettings;
+
+/**
+ * Measures the physics throughput of the fleet state, without the autopilot.
+ * The drones taxi on the ground with a constant thrust, so none of them crash. The given fraction of the drones is parked
+ * without thrust instead, these are put to sleep.
+ * Usage: FleetBenchmark [drones] [physics threads] [simulated seconds] [integrator tolerance] [parked fraction]
+ */
+public class FleetBenchmark {
+	
+	private static final int AUTOPILOT_CALLS_PER_SECOND = 50;
+	private static final int ITERATIONS_PER_FRAME = 4;
+	
+	public static void main(String[] args) {
+		int drones = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		float seconds = args.length > 2 ? Float.parseFloat(args[2]) : 20;
+		float tolerance = args.length > 3 ? Float.parseFloat(args[3]) : 0;
+		float parked = args.length > 4 ? Float.parseFloat(args[4]) : 0;
+		
+		AutopilotConfig config = ConfigGenerator.generateDefault();
+		WorldManager world = new WorldManager(null);
+		AutopilotOutputs taxi = new AutopilotOutputs() {
+			public float getThrust() { return 200; }
+			public float getLeftWingInclination() { return 0; }
+			public float getRightWingInclination() { return 0; }
+			public float getHorStabInclination() { return 0; }
+			public float getVerStabInclination() { return 0; }
+			public float getFrontBrakeForce() { return 0; }
+			public float getLeftBrakeForce() { return 0; }
+			public float getRightBrakeForce() { return 0; }
+		};
+		AutopilotOutputs park = new AutopilotOutputs() {
+			public float getThrust() { return 0; }
+			public float getLeftWingInclination() { return 0; }
+			public float getRightWingInclination() { return 0; }
+			public float getHorStabInclination() { return 0; }
+			public float getVerStabInclination() { return 0; }
+			public float getFrontBrakeForce() { return 0; }
+			public float getLeftBrakeForce() { return 0; }
+			public float getRightBrakeForce() { return 0; }
+		};
+		int row = (int) Math.ceil(Math.sqrt(drones));
+		for(int i=0;i<drones;i++) {
+			Drone drone = new Drone(config);
+			DroneStartSettings settings = new DroneStartSettings();
+			settings.setPosition(new Vector3f(100*(i%row), -config.getWheelY() + 0.2f, -100*(i/row)));
+			drone.reset(settings);
+			drone.setInputs(i < parked*drones ? park : taxi);
+			world.addDrone(drone);
+		}
+		world.setPhysicsThreads(threads);
+		world.setIntegratorTolerance(tolerance);
+		
+		float timePassed = (float) 1.0/AUTOPILOT_CALLS_PER_SECOND;
+		int frames = (int) (seconds*AUTOPILOT_CALLS_PER_SECOND);
+		for(int i=0;i<AUTOPILOT_CALLS_PER_SECOND;i++) {
+			world.dronesTimePassed(timePassed, ITERATIONS_PER_FRAME);
+		}
+		long start = System.nanoTime();
+		for(int i=0;i<frames;i++) {
+			world.dronesTimePassed(timePassed, ITERATIONS_PER_FRAME);
+		}
+		float wallTime = (System.nanoTime() - start)/1000000000f;
+		long integrations = 0;
+		for(int i=0;i<drones;i++) {
+			integrations += world.getFleet().getIntegrations(i);
+		}
+		
+		System.out.println("Drones: " + drones + ", physics threads: " + threads);
+		System.out.println("Sleeping drones: " + world.getFleet().getSleepingDrones());
+		System.out.println("Integrations per drone in the last tick: " + (float) integrations/drones);
+		System.out.println("Time per tick: " + 1000*wallTime/frames + " ms");
+		System.out.println("Simulated seconds per wall-clock second: " + seconds/wallTime);
+		System.exit(0);
+	}
+}
@@ -0,0 +1,61 @@
+package main;
+
+import autopilot_scheduling.AssignmentStrategy;
+import autopilot_scheduling.GreedyAssignment;
+import autopilot_scheduling.HungarianAssignment;
+import autopilot_scheduling.NearestAssignment;
+import control.HeadlessSimulation;
+import interfaces.AutopilotModule;
+import worldSimulation.ConfigGenerator;
+
+/**
+ * Runs the simulation without any rendering and reports the achieved speed.
+ * Usage: HeadlessLoop [simulated seconds] [airports] [drones] [autopilot calls per second] [iterations per call] [physics threads] [integrator tolerance] [autopilot threads] [assignment: greedy, nearest, hungarian or scheduler]
+ */
+public class HeadlessLoop {
+	
+	public static void main(String[] args) {
+		float seconds = args.length > 0 ? Float.parseFloat(args[0]) : 600;
+		int airports = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+		int drones = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+		int autopilotCalls = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+		int iterations = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+		int threads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+		float tolerance = args.length > 6 ? Float.parseFloat(args[6]) : 0;
+		int controlThreads = args.length > 7 ? Integer.parseInt(args[7]) : 1;
+		String assignment = args.length > 8 ? args[8] : "greedy";
+		
+		AutopilotModule module = new AutopilotModule();
+		module.setControlThreads(controlThreads);
+		if (assignment.equals("scheduler"))
+			AutopilotModule.USE_SCHEDULING = true;
+		else
+			module.setAssignmentStrategy(getAssignmentStrategy(assignment));
+		HeadlessSimulation simulation = new HeadlessSimulation(module, ConfigGenerator.generateDefault());
+		simulation.setAccuracy(autopilotCalls, iterations);
+		simulation.getWorldManager().setPhysicsThreads(threads);
+		simulation.setIntegratorTolerance(tolerance);
+		simulation.generateScenario(airports, drones);
+		simulation.configAutopilotModule();
+		
+		float speed = simulation.run(seconds);
+		
+		System.out.println("Airports: " + airports + ", drones: " + drones + ", physics threads: " + threads + ", autopilot threads: " + controlThreads);
+		System.out.println("Simulated seconds: " + simulation.getSimulationTime() + " (" + simulation.getFrames() + " autopilot calls)");
+		System.out.println("Assignment: " + assignment);
+		System.out.println("Delivered packages: " + simulation.getWorldManager().deliveredPackages.size());
+		System.out.println("Simulated seconds per wall-clock second: " + speed);
+		if(simulation.getCrashMessage() != null)
+			System.out.println("Simulation stopped: " + simulation.getCrashMessage());
+		System.exit(0);
+	}
+	
+	private static AssignmentStrategy getAssignmentStrategy(String name) {
+		switch (name) {
+			case "greedy": return new GreedyAssignment();
+			case "nearest": return new NearestAssignment();
+			case "hungarian": return new HungarianAssignment();
+			default: throw new IllegalArgumentException("Unknown assignment strategy " + name);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import com.sun.management.ThreadMXBean;
+
+import control.HeadlessSimulation;
+import control.WorldManager;
+import entities.Drone;
+import interfaces.AutopilotModule;
+import interfaces.AutopilotOutputs;
+import tools.Tools;
+import worldSimulation.ConfigGenerator;
+
+/**
+ * Profiles the allocation free integrator of the drones (Drone.timePassed) during a headless delivery run.
+ * Reports the heap allocation and the time per substep.
+ * The states of the drones after every frame are hashed, for the default run this hash must equal the one recorded
+ * with the original integrator (Drone.timePassedReference), so the trajectories are still exactly the same.
+ * The recorded hash only has to be updated when the physics or the autopilot are changed on purpose.
+ * Usage: IntegratorProfile [simulated seconds]
+ */
+public class IntegratorProfile {
+	
+	private static final int AUTOPILOT_CALLS_PER_SECOND = 50;
+	private static final int ITERATIONS_PER_FRAME = 4;
+	private static final int WARM_UP_FRAMES = 100;
+	private static final float DEFAULT_SECONDS = 300;
+	// The trajectory hash of the default run, recorded with the original integrator
+	private static final long REFERENCE_TRAJECTORY_HASH = 6430753057333370889L;
+	
+	public static void main(String[] args) {
+		float seconds = args.length > 0 ? Float.parseFloat(args[0]) : DEFAULT_SECONDS;
+		
+		AutopilotModule module = new AutopilotModule();
+		HeadlessSimulation simulation = new HeadlessSimulation(module, ConfigGenerator.generateDefault());
+		simulation.addAirport(0, 0, 0);
+		simulation.addAirport(4000, -3000, 1.2f);
+		simulation.addAirport(-3000, -5000, 3f);
+		simulation.addDrone(0, 0);
+		simulation.addDrone(1, 0);
+		simulation.configAutopilotModule();
+		simulation.addPackage(0, 1, 1, 1);
+		simulation.addPackage(1, 1, 2, 0);
+		WorldManager world = simulation.getWorldManager();
+		
+		ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		long overhead = bean.getThreadAllocatedBytes(thread);
+		overhead = bean.getThreadAllocatedBytes(thread) - overhead;
+		
+		float timePassed = (float) 1.0/AUTOPILOT_CALLS_PER_SECOND;
+		float simulationTime = 0;
+		byte[] image = new byte[0];
+		long substeps = 0, allocatedBytes = 0, frames = 0;
+		long integratorTime = 0;
+		String crash = null;
+		long trajectoryHash = 0;
+		Vector3f vector = new Vector3f();
+		
+		simulation:
+		while(simulationTime < seconds) {
+			world.emptyQueue();
+			world.checkDronesForPackagePickup();
+			for(int i=0;i<world.getDrones().size();i++) {
+				Drone drone = world.getDrone(i);
+				module.startTimeHasPassed(i, Tools.getAutopilotInputs(drone, simulationTime, image));
+				AutopilotOutputs outputs = module.completeTimeHasPassed(i);
+				drone.setInputs(outputs);
+				
+				long time = System.nanoTime();
+				long before = bean.getThreadAllocatedBytes(thread);
+				try {
+					for(int j=0;j<ITERATIONS_PER_FRAME;j++)
+						drone.timePassed(timePassed/ITERATIONS_PER_FRAME);
+				} catch (RuntimeException e) {
+					crash = e.getMessage();
+				}
+				long allocated = bean.getThreadAllocatedBytes(thread) - before - overhead;
+				integratorTime += System.nanoTime() - time;
+				if(frames >= WARM_UP_FRAMES && crash == null) {
+					allocatedBytes += allocated;
+					substeps += ITERATIONS_PER_FRAME;
+				}
+				trajectoryHash = hashState(trajectoryHash, drone, vector);
+				if(crash != null)
+					break simulation;
+			}
+			simulationTime += timePassed;
+			frames++;
+		}
+		
+		System.out.println("Simulated seconds: " + simulationTime + ", delivered packages: " + world.deliveredPackages.size());
+		if(crash != null)
+			System.out.println("Crashed: " + crash);
+		System.out.println("Trajectory hash: " + trajectoryHash);
+		if(seconds == DEFAULT_SECONDS)
+			System.out.println("Result: " + (trajectoryHash == REFERENCE_TRAJECTORY_HASH ? "identical trajectories" : "trajectories differ from the original integrator"));
+		System.out.println("Measured substeps: " + substeps);
+		System.out.println("Allocated bytes per substep: " + (substeps == 0 ? 0 : (float) allocatedBytes/substeps));
+		System.out.println("Time per substep: " + (float) integratorTime/(frames*world.getDrones().size()*ITERATIONS_PER_FRAME) + " ns");
+		System.exit(0);
+	}
+	
+	/**
+	 * Mix the exact state of the given drone into the given hash.
+	 */
+	private static long hashState(long hash, Drone drone, Vector3f vector) {
+		drone.getPosition(vector);
+		hash = hashVector(hash, vector);
+		drone.getVelocity(vector);
+		hash = hashVector(hash, vector);
+		hash = 31*hash + Float.floatToIntBits(drone.getHeading());
+		hash = 31*hash + Float.floatToIntBits(drone.getPitch());
+		return 31*hash + Float.floatToIntBits(drone.getRoll());
+	}
+	
+	private static long hashVector(long hash, Vector3f vector) {
+		hash = 31*hash + Float.floatToIntBits(vector.x);
+		hash = 31*hash + Float.floatToIntBits(vector.y);
+		return 31*hash + Float.floatToIntBits(vector.z);
+	}
+}
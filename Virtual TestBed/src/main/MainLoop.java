@@ -9,6 +9,7 @@ public class MainLoop {
 		
 		AppManager.createApp();
 		AppManager.setModule(new AutopilotModule());
+		AppManager.startSimulation();
 		
 		while (!AppManager.closeRequested()){
 			AppManager.updateApp();
@@ -21,20 +21,24 @@ public class AccuracyFrame extends JFrame{
 	
 	int autocalls;
 	int iterations;
+	float tolerance;
 	
 	JButton confirmBtn;
 	
-	public AccuracyFrame(int fps, int iterations){
+	public AccuracyFrame(int fps, int iterations, float tolerance){
 		super("Testbed Accuracy Settings");
 		this.autocalls = fps;
 		this.iterations = iterations;
-		setSize(450,180);
+		this.tolerance = tolerance;
+		setSize(450,220);
 		JPanel panel = new JPanel();
 		panel.setLayout(new GridBagLayout());
 		JLabel autocallsLabel = new JLabel("Autopilot calls per second");
 		autocallsLabel.setFont(new Font("Calibri", Font.PLAIN, 22));
 		JLabel iterationsLabel = new JLabel("Newton iterations per call");
 		iterationsLabel.setFont(new Font("Calibri", Font.PLAIN, 22));
+		JLabel toleranceLabel = new JLabel("Adaptive tolerance (0 = fixed)");
+		toleranceLabel.setFont(new Font("Calibri", Font.PLAIN, 22));
 		JTextField autocallsField = new JTextField(5);
 		autocallsField.setText(Integer.toString(fps));
 		autocallsField.addKeyListener(new KeyAdapter() {
@@ -59,6 +63,21 @@ public class AccuracyFrame extends JFrame{
 				}
 			}
 		});
+		JTextField toleranceField = new JTextField(5);
+		toleranceField.setText(Float.toString(tolerance));
+		toleranceField.addKeyListener(new KeyAdapter() {
+			public void keyReleased(KeyEvent e) {
+				try {
+					float value = Float.parseFloat(toleranceField.getText());
+					if(!(value >= 0))
+						throw new NumberFormatException();
+					AccuracyFrame.this.tolerance = value;
+					toleranceField.setBackground(new Color(255,255,255));
+				} catch(NumberFormatException ex) {
+					toleranceField.setBackground(new Color(255, 165, 165));
+				}
+			}
+		});
 		confirmBtn = new JButton("Confirm");
 		
 		GridBagConstraints gc = new GridBagConstraints();
@@ -81,10 +100,18 @@ public class AccuracyFrame extends JFrame{
 		gc.gridx = 1;
 		gc.gridy = 1;
 		panel.add(iterationsField, gc);
-
+		/////////////////////////////////////////////////////////
+		gc.gridx = 0;
+		gc.gridy = 2;
+		panel.add(toleranceLabel, gc);
 		/////////////////////////////////////////////////////////
 		gc.gridx = 1;
 		gc.gridy = 2;
+		panel.add(toleranceField, gc);
+
+		/////////////////////////////////////////////////////////
+		gc.gridx = 1;
+		gc.gridy = 3;
 		panel.add(confirmBtn, gc);
 		
 		add(panel);
@@ -98,6 +125,10 @@ public class AccuracyFrame extends JFrame{
 		return new int[] {autocalls,iterations};
 	}
 	
+	public float getTolerance() {
+		return tolerance;
+	}
+	
 	public void addButtonListener(ActionListener listener) {
 		confirmBtn.addActionListener(listener);
 	}
@@ -184,13 +184,13 @@ public class Tools {
 	public static AutopilotInputs getAutopilotInputs(Drone drone, float elapsedTime, byte[] image){
 		return new AutopilotInputs() {
 			public float getZ() {
-				return drone.getPosition().z;
+				return drone.getZ();
 			}
 			public float getY() {
-				return drone.getPosition().y;
+				return drone.getY();
 			}
 			public float getX() {
-				return drone.getPosition().x;
+				return drone.getX();
 			}
 			public float getRoll() {
 				return drone.getRoll();
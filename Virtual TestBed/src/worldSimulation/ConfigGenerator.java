@@ -3,6 +3,14 @@ package worldSimulation;
 import interfaces.AutopilotConfig;
 
 public class ConfigGenerator {
+	
+	/**
+	 * Generate the configuration that is shown by default in the configuration panel.
+	 */
+	public static AutopilotConfig generateDefault(){
+		return generate(4.2f, 100f, 4.2f, 100f, 180f, 2000, 10f, 5f, 5f, .261f, 0.2f, -4.5f, -8.2f, 2f, 4.55f, 9.81f);
+	}
+	
 	public static AutopilotConfig generate(float wingX, float wingMass, float tailZ, float tailMass,
 			float engineMass, float maxThrust, float wingLift, float horStabLift, float verStabLift, float maxAOA,
 			float tyreRadius, float wheelY, float frontZ, float rearZ, float rearX, float gravity){
@@ -5,9 +5,8 @@ import java.util.ArrayList;
 import org.lwjgl.util.vector.Vector2f;
 
 import control.WorldManager;
+import control.WorldSnapshot;
 import entities.Airport;
-import entities.Drone;
-import entities.Package;
 import guis.GuiTexture;
 import tools.Tools;
 
@@ -24,14 +23,14 @@ public class DroneTraject {
 		DroneTraject.texture = texture;
 	}
 	
-	public ArrayList<GuiTexture> getTraject(int droneID, float width, float interval){
+	/**
+	 * The dots between the given drone of the snapshot and the airport it's delivering to (if any).
+	 */
+	public ArrayList<GuiTexture> getTraject(WorldSnapshot snapshot, int droneID, float width, float interval){
 		ArrayList<GuiTexture> guis = new ArrayList<>();
-		Drone drone = manager.getDrone(droneID);
-		if(drone.isHasPackage()) {
-			Package pack = manager.deliveringPackages.get(drone.getID());
-			Airport from = manager.getAirport(pack.getFromA());
-			Airport to = manager.getAirport(pack.getToA());
-			Vector2f dronePos = new Vector2f(drone.getPosition().x, drone.getPosition().z);
+		if(snapshot.getDestination(droneID) != -1) {
+			Airport to = manager.getAirport(snapshot.getDestination(droneID));
+			Vector2f dronePos = new Vector2f(snapshot.getPositionX(droneID), snapshot.getPositionZ(droneID));
 			
 			Vector2f diffVector2 = Tools.subtract(to.getPosition2D(), dronePos);
 			float d2 = diffVector2.length();